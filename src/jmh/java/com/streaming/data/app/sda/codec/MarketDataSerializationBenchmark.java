@@ -0,0 +1,83 @@
+package com.streaming.data.app.sda.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streaming.data.app.sda.model.MarketData;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick encoding for the WebSocket and CSV paths: the JSON and binary
+ * frames the broadcaster writes into pooled buffers, the Jackson
+ * serialization they replaced, and both CSV row formats.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataSerializationBenchmark {
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    // Same serialization settings Spring Boot applies to the application ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MarketDataJsonWriter jsonWriter = new MarketDataJsonWriter();
+    private final MarketDataCsvWriter csvWriter = new MarketDataCsvWriter();
+
+    private MarketData tick;
+
+    @Setup
+    public void setUp() {
+        tick = new MarketData("EURUSD", 1.08412, 1.08415, 2500.0, LocalDateTime.of(2024, 3, 1, 12, 0, 1, 123_456_789));
+    }
+
+    @Benchmark
+    public int jsonToPooledBuffer() {
+        DataBuffer buffer = jsonWriter.write(tick, bufferFactory.allocateBuffer(128));
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public byte[] jsonWithJackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tick);
+    }
+
+    @Benchmark
+    public int binaryToPooledBuffer() {
+        int size = MarketDataBinaryCodec.encodedSize(tick);
+        DataBuffer buffer = bufferFactory.allocateBuffer(size);
+        MarketDataBinaryCodec.encode(buffer.asByteBuffer(0, size), tick);
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public String[] toCsvArray() {
+        return tick.toCsvArray();
+    }
+
+    @Benchmark
+    public ByteBuffer csvRow() {
+        return csvWriter.format(tick);
+    }
+}
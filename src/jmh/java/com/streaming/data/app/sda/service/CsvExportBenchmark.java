@@ -0,0 +1,98 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.TestConfigs;
+import com.streaming.data.app.sda.config.StreamingConfig.CsvConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CsvExportService#exportBatch} throughput per row, for each
+ * formatter and durability, from a list of ticks and from a columnar batch. The export rolls into a few uncompressed
+ * segments so that a long run does not fill the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvExportBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"DIRECT", "OPENCSV"})
+    public CsvConfig.Formatter formatter;
+
+    @Param({"NONE", "FLUSH"})
+    public CsvConfig.Durability durability;
+
+    private Path directory;
+    private CsvExportService service;
+    private List<MarketData> batch;
+    private TickBatch tickBatch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("csv-export-benchmark");
+        CsvConfig csvConfig = TestConfigs.csv(directory.resolve("market-data.csv").toString(), 5000, BATCH_SIZE)
+                .durability(durability)
+                .segmentSize(DataSize.ofMegabytes(64))
+                .compressSegments(false)
+                .maxSegments(2)
+                .formatter(formatter)
+                .build();
+        service = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+        service.initialize();
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new MarketData("SYM" + (i % 10), 100.0 + i / 100.0, 100.5 + i / 100.0, 1000 + i,
+                    start.plusNanos(i * 1_000_000L)));
+        }
+        tickBatch = new TickBatch(BATCH_SIZE);
+        batch.forEach(tickBatch::add);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void exportBatch() {
+        service.exportBatch(batch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void exportTickBatch() {
+        service.exportBatch(tickBatch);
+    }
+}
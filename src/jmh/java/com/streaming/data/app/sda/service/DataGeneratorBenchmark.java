@@ -0,0 +1,65 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.TestConfigs;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tick production by {@link DataGenerator}, without the interval pacing:
+ * one round of ticks for a single shard of {@value #INSTRUMENTS} instruments
+ * per invocation, reported per tick, as tick objects or into a reused
+ * columnar batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataGeneratorBenchmark {
+
+    private static final int INSTRUMENTS = 1000;
+
+    private Supplier<List<MarketData>> shard;
+    private UnaryOperator<TickBatch> batchShard;
+    private final TickBatch batch = new TickBatch(INSTRUMENTS);
+
+    @Setup
+    public void setUp() {
+        StreamingConfig.SimulationConfig simulation = TestConfigs.simulation(10, 100.0, 100.5, 0.5, 100, 10000)
+                .instrumentCount(INSTRUMENTS).symbolPrefix("SYM").shards(1).build();
+        DataGenerator generator = new DataGenerator(TestConfigs.config().simulation(simulation).build());
+        shard = generator.createTickSources().get(0);
+        batchShard = generator.createBatchSources().get(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUMENTS)
+    public List<MarketData> nextTicks() {
+        return shard.get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUMENTS)
+    public TickBatch nextBatch() {
+        batch.clear();
+        return batchShard.apply(batch);
+    }
+}
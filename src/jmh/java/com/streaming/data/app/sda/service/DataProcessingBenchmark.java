@@ -0,0 +1,97 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.TestConfigs;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.EventBus;
+import com.streaming.data.app.sda.model.MarketData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks emitted per second into {@link DataProcessingService} with one
+ * subscriber draining the processed stream, as the broadcaster does, and
+ * the CSV subscriber batching into an export that discards its rows.
+ * Ticks the bus did not accept are reported as {@code rejected}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataProcessingBenchmark {
+
+    @Param({"SINK", "RING"})
+    public EventBus eventBus;
+
+    @Param({"DROP_LATEST", "BOUNDED_BLOCKING"})
+    public String strategy;
+
+    private DataProcessingService service;
+    private MarketData tick;
+
+    /**
+     * Outcome counters reported alongside the throughput.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StreamingConfig config = TestConfigs.config()
+                .csv(TestConfigs.csv("benchmark.csv", 1000, 1000).build())
+                .processing(TestConfigs.processing(1024, strategy).eventBus(eventBus).build())
+                .build();
+        DataGenerator idleGenerator = new DataGenerator(TestConfigs.config()
+                .simulation(TestConfigs.simulation(10, 100.0, 100.5, 0.5, 100, 10000).build())
+                .build()) {
+            @Override
+            public Flux<MarketData> generateMarketDataStream() {
+                return Flux.never();
+            }
+        };
+        CsvExportService discardingExport = new CsvExportService(config) {
+            @Override
+            public void exportBatch(List<MarketData> marketDataBatch) {
+            }
+        };
+        service = new DataProcessingService(config, discardingExport, idleGenerator, new TickJournal(config));
+        service.initialize();
+        service.getProcessedDataStream().subscribe();
+        tick = new MarketData("EURUSD", 1.08412, 1.08415, 2500.0, LocalDateTime.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.cleanup();
+    }
+
+    @Benchmark
+    public boolean emit(Outcomes outcomes) {
+        boolean accepted = service.emitMarketData(tick);
+        if (!accepted) {
+            outcomes.rejected++;
+        }
+        return accepted;
+    }
+}
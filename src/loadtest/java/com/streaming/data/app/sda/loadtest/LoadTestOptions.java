@@ -0,0 +1,87 @@
+package com.streaming.data.app.sda.loadtest;
+
+import com.streaming.data.app.sda.websocket.WireFormat;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from {@code --name=value} arguments.
+ * Durations take a unit suffix such as {@code 30s} or {@code 2m}.
+ */
+class LoadTestOptions {
+
+    final URI url;
+    final URI metricsUrl;
+    final int sessions;
+    final Duration rampUp;
+    final Duration hold;
+    final Duration rampDown;
+    final WireFormat format;
+    final Duration connectTimeout;
+    final Path reportDir;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.url = URI.create(values.getOrDefault("url", "ws://localhost:8080/market-data"));
+        this.metricsUrl = URI.create(values.getOrDefault("metrics-url",
+                "http://" + url.getHost() + ":" + (url.getPort() < 0 ? 80 : url.getPort()) + "/actuator/prometheus"));
+        this.sessions = Integer.parseInt(values.getOrDefault("sessions", "1000"));
+        this.rampUp = duration(values.getOrDefault("ramp-up", "30s"));
+        this.hold = duration(values.getOrDefault("hold", "60s"));
+        this.rampDown = duration(values.getOrDefault("ramp-down", "10s"));
+        this.format = WireFormat.valueOf(values.getOrDefault("format", "json").toUpperCase(Locale.ROOT));
+        this.connectTimeout = duration(values.getOrDefault("connect-timeout", "10s"));
+        this.reportDir = Paths.get(values.getOrDefault("report-dir", "target/loadtest"));
+        if (sessions < 1) {
+            throw new IllegalArgumentException("sessions must be at least 1");
+        }
+    }
+
+    /**
+     * Parses {@code --name=value} arguments; unknown names are rejected.
+     */
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            if (!NAMES.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + NAMES.keySet());
+            }
+            values.put(name, arg.substring(equals + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    /** Option names and their descriptions, for the usage message. */
+    static final Map<String, String> NAMES = Map.of(
+            "url", "WebSocket endpoint, default ws://localhost:8080/market-data",
+            "metrics-url", "Prometheus scrape URL for server heap, default derived from --url",
+            "sessions", "peak number of concurrent sessions, default 1000",
+            "ramp-up", "time over which sessions are opened, default 30s",
+            "hold", "time all sessions stay open, default 60s",
+            "ramp-down", "time over which sessions are closed, default 10s",
+            "format", "json or binary, default json",
+            "connect-timeout", "handshake timeout per session, default 10s",
+            "report-dir", "directory for the report files, default target/loadtest"
+    );
+
+    @Override
+    public String toString() {
+        return "url=" + url + ", sessions=" + sessions + ", ramp-up=" + rampUp + ", hold=" + hold
+                + ", ramp-down=" + rampDown + ", format=" + format;
+    }
+}
@@ -0,0 +1,173 @@
+package com.streaming.data.app.sda.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Results of a load test run. Writes {@code timeline.csv} with one row per
+ * sample, and the summary as {@code summary.txt} and {@code summary.json}.
+ */
+class LoadTestReport {
+
+    /** One sample of the timeline; lag in milliseconds, heap -1 if unknown. */
+    static final class Sample {
+        final double elapsedSeconds;
+        final String phase;
+        final int sessions;
+        final long messages;
+        final double lagP50;
+        final double lagP99;
+        final double lagMax;
+        final long heapBytes;
+
+        Sample(double elapsedSeconds, String phase, int sessions, long messages,
+               double lagP50, double lagP99, double lagMax, long heapBytes) {
+            this.elapsedSeconds = elapsedSeconds;
+            this.phase = phase;
+            this.sessions = sessions;
+            this.messages = messages;
+            this.lagP50 = lagP50;
+            this.lagP99 = lagP99;
+            this.lagMax = lagMax;
+            this.heapBytes = heapBytes;
+        }
+    }
+
+    private final LoadTestOptions options;
+    private final Map<String, Object> summary = new LinkedHashMap<>();
+    private final List<Sample> timeline;
+
+    LoadTestReport(LoadTestOptions options, List<WebSocketLoadHarness.ClientSession> sessions, List<Sample> timeline,
+                   Histogram lag, Histogram connect, int failed, int closedByServer, List<String> errors) {
+        this.options = options;
+        this.timeline = timeline;
+        List<WebSocketLoadHarness.ClientSession> connected = sessions.stream()
+                .filter(WebSocketLoadHarness.ClientSession::isConnected)
+                .collect(Collectors.toList());
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("url", options.url.toString());
+        run.put("format", options.format.name().toLowerCase(Locale.ROOT));
+        run.put("rampUpSeconds", options.rampUp.toMillis() / 1000.0);
+        run.put("holdSeconds", options.hold.toMillis() / 1000.0);
+        run.put("rampDownSeconds", options.rampDown.toMillis() / 1000.0);
+        summary.put("run", run);
+
+        Map<String, Object> sessionSummary = new LinkedHashMap<>();
+        sessionSummary.put("attempted", sessions.size());
+        sessionSummary.put("connected", connected.size());
+        sessionSummary.put("failed", failed);
+        sessionSummary.put("closedByServer", closedByServer);
+        sessionSummary.put("peakOpen", timeline.stream().mapToInt(sample -> sample.sessions).max().orElse(0));
+        sessionSummary.put("connectMillis", percentiles(connect));
+        summary.put("sessions", sessionSummary);
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        long total = timeline.stream().mapToLong(sample -> sample.messages).sum();
+        throughput.put("messages", total);
+        throughput.put("holdMessagesPerSecond", round(timeline.stream()
+                .filter(sample -> "hold".equals(sample.phase))
+                .mapToLong(sample -> sample.messages)
+                .average().orElse(0)));
+        throughput.put("peakMessagesPerSecond", timeline.stream().mapToLong(sample -> sample.messages).max().orElse(0));
+        throughput.put("perSessionMessagesPerSecond", spread(connected.stream()
+                .mapToDouble(WebSocketLoadHarness.ClientSession::getMessagesPerSecond).toArray()));
+        summary.put("throughput", throughput);
+
+        Map<String, Object> lagSummary = new LinkedHashMap<>();
+        lagSummary.put("millis", percentiles(lag));
+        lagSummary.put("perSessionMeanMillis", spread(connected.stream()
+                .mapToDouble(WebSocketLoadHarness.ClientSession::getMeanLagMillis).toArray()));
+        lagSummary.put("perSessionMaxMillis", spread(connected.stream()
+                .mapToDouble(WebSocketLoadHarness.ClientSession::getMaxLagMillis).toArray()));
+        summary.put("lag", lagSummary);
+
+        Map<String, Object> heap = new LinkedHashMap<>();
+        long[] heapBytes = timeline.stream().mapToLong(sample -> sample.heapBytes).filter(bytes -> bytes >= 0).toArray();
+        heap.put("minMegabytes", heapBytes.length == 0 ? null : round(Arrays.stream(heapBytes).min().getAsLong() / 1048576.0));
+        heap.put("maxMegabytes", heapBytes.length == 0 ? null : round(Arrays.stream(heapBytes).max().getAsLong() / 1048576.0));
+        heap.put("lastMegabytes", heapBytes.length == 0 ? null : round(heapBytes[heapBytes.length - 1] / 1048576.0));
+        summary.put("serverHeap", heap);
+
+        summary.put("errors", errors);
+    }
+
+    void write() throws IOException {
+        Files.createDirectories(options.reportDir);
+        try (Writer writer = Files.newBufferedWriter(options.reportDir.resolve("timeline.csv"), StandardCharsets.UTF_8)) {
+            writer.write("elapsed_s,phase,sessions,messages,lag_p50_ms,lag_p99_ms,lag_max_ms,heap_bytes\n");
+            for (Sample sample : timeline) {
+                writer.write(String.format(Locale.ROOT, "%.1f,%s,%d,%d,%.3f,%.3f,%.3f,%d%n",
+                        sample.elapsedSeconds, sample.phase, sample.sessions, sample.messages,
+                        sample.lagP50, sample.lagP99, sample.lagMax, sample.heapBytes));
+            }
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(options.reportDir.resolve("summary.json").toFile(), summary);
+        Files.writeString(options.reportDir.resolve("summary.txt"), text());
+    }
+
+    void print(PrintStream out) {
+        out.print(text());
+        out.println("Reports written to " + options.reportDir.toAbsolutePath());
+    }
+
+    private String text() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        summary.forEach((section, values) -> {
+            out.println(section);
+            if (values instanceof Map) {
+                ((Map<?, ?>) values).forEach((name, value) -> out.printf("  %-28s %s%n", name, value));
+            } else {
+                ((List<?>) values).forEach(value -> out.println("  " + value));
+            }
+        });
+        out.flush();
+        return text.toString();
+    }
+
+    /** Percentiles of a histogram of microseconds, in milliseconds. */
+    private static Map<String, Object> percentiles(Histogram micros) {
+        Map<String, Object> millis = new LinkedHashMap<>();
+        millis.put("count", micros.getTotalCount());
+        millis.put("p50", round(micros.getValueAtPercentile(50) / 1000.0));
+        millis.put("p99", round(micros.getValueAtPercentile(99) / 1000.0));
+        millis.put("p999", round(micros.getValueAtPercentile(99.9) / 1000.0));
+        millis.put("max", round(micros.getMaxValue() / 1000.0));
+        return millis;
+    }
+
+    /** Spread of a per-session value across sessions. */
+    private static Map<String, Object> spread(double[] values) {
+        Arrays.sort(values);
+        Map<String, Object> spread = new LinkedHashMap<>();
+        if (values.length == 0) {
+            return spread;
+        }
+        spread.put("min", round(values[0]));
+        spread.put("p50", round(values[(values.length - 1) / 2]));
+        spread.put("p99", round(values[(int) ((values.length - 1) * 0.99)]));
+        spread.put("max", round(values[values.length - 1]));
+        return spread;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,147 @@
+package com.streaming.data.app.sda.loadtest;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.model.MarketData;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in feed handler for the TCP ingest listener: each connection writes
+ * length-prefixed frames of binary ticks as fast as the socket takes them.
+ *
+ * Frames are encoded once up front and written over and over, so the feeder
+ * itself costs next to nothing per tick; tick timestamps are those of
+ * start-up. Every second it prints the ticks it sent and the ticks the
+ * server accepted, scraped from {@code sda_ingest_ticks_total}.
+ *
+ * Options, as {@code --name=value}: host, port, connections, batch (ticks per
+ * frame), instruments, duration and metrics-url.
+ */
+public class TcpFeeder {
+
+    /** Distinct frames encoded per connection and cycled through. */
+    private static final int FRAMES = 16;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        String host = options.getOrDefault("host", "127.0.0.1");
+        int port = Integer.parseInt(options.getOrDefault("port", "9100"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "4"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "1000"));
+        int instruments = Integer.parseInt(options.getOrDefault("instruments", "100"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        URI metricsUrl = URI.create(options.getOrDefault("metrics-url", "http://localhost:8080/actuator/prometheus"));
+
+        System.out.printf("Feeding %s:%d over %d connections, %d ticks per frame, %d instruments, for %s%n",
+                host, port, connections, batch, instruments, duration);
+
+        LongAdder sent = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> feeders = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            ByteBuffer frames = encodeFrames(batch, instruments, new SplittableRandom(c));
+            Thread feeder = new Thread(() -> feed(host, port, frames, batch, deadline, sent), "tcp-feeder-" + c);
+            feeder.setDaemon(true);
+            feeder.start();
+            feeders.add(feeder);
+        }
+
+        HttpClient metricsClient = HttpClient.newHttpClient();
+        double acceptedAtStart = scrapeAccepted(metricsClient, metricsUrl);
+        long start = System.nanoTime();
+        long lastSent = 0;
+        double lastAccepted = acceptedAtStart;
+        while (feeders.stream().anyMatch(Thread::isAlive)) {
+            Thread.sleep(1000);
+            long total = sent.sum();
+            double accepted = scrapeAccepted(metricsClient, metricsUrl);
+            System.out.printf("%6.1fs  sent %,12d ticks/s  accepted %,12.0f ticks/s%n",
+                    (System.nanoTime() - start) / 1e9, total - lastSent, accepted - lastAccepted);
+            lastSent = total;
+            lastAccepted = accepted;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double accepted = scrapeAccepted(metricsClient, metricsUrl) - acceptedAtStart;
+        System.out.printf("Total: sent %,d ticks (%,.0f/s), server accepted %,.0f (%,.0f/s)%n",
+                sent.sum(), sent.sum() / seconds, accepted, accepted / seconds);
+    }
+
+    /**
+     * Encodes frames, each a length and batch ticks, into one direct buffer.
+     */
+    private static ByteBuffer encodeFrames(int batch, int instruments, SplittableRandom random) {
+        LocalDateTime now = LocalDateTime.now();
+        int maxTickBytes = MarketDataBinaryCodec.HEADER_SIZE + ("FEED" + (instruments - 1)).length();
+        ByteBuffer frames = ByteBuffer.allocateDirect(FRAMES * (4 + batch * maxTickBytes));
+        for (int f = 0; f < FRAMES; f++) {
+            int lengthAt = frames.position();
+            frames.putInt(0);
+            for (int i = 0; i < batch; i++) {
+                double bid = 100 + random.nextDouble();
+                MarketDataBinaryCodec.encode(frames, new MarketData("FEED" + ((f * batch + i) % instruments),
+                        bid, bid + 0.01, 100 + random.nextInt(10_000), now));
+            }
+            frames.putInt(lengthAt, frames.position() - lengthAt - 4);
+        }
+        return frames.flip();
+    }
+
+    private static void feed(String host, int port, ByteBuffer frames, int batch, long deadline, LongAdder sent) {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port))) {
+            channel.socket().setSendBufferSize(1 << 20);
+            ByteBuffer view = frames.duplicate();
+            while (System.nanoTime() < deadline) {
+                view.rewind();
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+                sent.add((long) FRAMES * batch);
+            }
+        } catch (IOException e) {
+            System.err.println(Thread.currentThread().getName() + " stopped: " + e);
+        }
+    }
+
+    /**
+     * Reads the server's accepted ingest count, or 0 if it cannot be scraped.
+     */
+    private static double scrapeAccepted(HttpClient client, URI metricsUrl) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(metricsUrl).timeout(Duration.ofSeconds(2)).build();
+            for (String line : client.send(request, HttpResponse.BodyHandlers.ofString()).body().split("\n")) {
+                if (line.startsWith("sda_ingest_ticks_total{") && line.contains("outcome=\"accepted\"")) {
+                    return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                }
+            }
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,333 @@
+package com.streaming.data.app.sda.loadtest;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.websocket.WireFormat;
+import io.netty.channel.ChannelOption;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for the market data WebSocket endpoint of a running application.
+ *
+ * Opens up to {@code --sessions} concurrent client sessions, spread evenly
+ * over the ramp-up, holds them, then closes them evenly over the ramp-down.
+ * Every second it samples the open sessions, messages delivered, tick lag
+ * and the server's heap, scraped from its Prometheus endpoint. At the end it
+ * writes a per-second timeline and a summary to the report directory; see
+ * {@link LoadTestReport}.
+ *
+ * Lag is the time from a tick's timestamp to its arrival at the client, so
+ * the client must run on the server's host or one with a synchronized clock.
+ * Each session holds a socket; raise the open file limit for large runs.
+ */
+public final class WebSocketLoadHarness {
+
+    private static final String TIMESTAMP_FIELD = "\"timestamp\":\"";
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+
+    private final LoadTestOptions options;
+    private final ReactorNettyWebSocketClient client;
+    private final java.net.http.HttpClient metricsClient = java.net.http.HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private final List<ClientSession> sessions = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger closedByServer = new AtomicInteger();
+    private final LongAdder received = new LongAdder();
+    private final Recorder lagRecorder = new Recorder(3);
+    private final Recorder connectRecorder = new Recorder(3);
+    private final Histogram lag = new Histogram(3);
+    private final List<LoadTestReport.Sample> timeline = new ArrayList<>();
+
+    private volatile String phase = "ramp-up";
+    private volatile boolean closing;
+    private long startNanos;
+    private long lastReceived;
+    private Histogram lagInterval;
+
+    WebSocketLoadHarness(LoadTestOptions options) {
+        this.options = options;
+        // One connection per session: the default pool caps connections per host
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.newConnection())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) options.connectTimeout.toMillis());
+        this.client = new ReactorNettyWebSocketClient(httpClient);
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Options:");
+            LoadTestOptions.NAMES.forEach((name, description) -> System.err.printf("  --%-16s %s%n", name, description));
+            System.exit(2);
+            return;
+        }
+        new WebSocketLoadHarness(options).run();
+        System.exit(0);
+    }
+
+    void run() throws IOException {
+        System.out.println("Load test: " + options);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        startNanos = System.nanoTime();
+        sampler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        long rampUpNanos = options.rampUp.toNanos();
+        for (int i = 0; i < options.sessions; i++) {
+            parkUntil(startNanos + rampUpNanos * i / options.sessions);
+            ClientSession session = new ClientSession(i);
+            sessions.add(session);
+            connect(session);
+        }
+        parkUntil(startNanos + rampUpNanos);
+
+        phase = "hold";
+        long holdEnd = System.nanoTime() + options.hold.toNanos();
+        parkUntil(holdEnd);
+
+        phase = "ramp-down";
+        closing = true;
+        long rampDownNanos = options.rampDown.toNanos();
+        for (int i = 0; i < sessions.size(); i++) {
+            parkUntil(holdEnd + rampDownNanos * i / sessions.size());
+            sessions.get(i).close();
+        }
+        parkUntil(holdEnd + rampDownNanos + TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL_MILLIS));
+
+        sampler.shutdown();
+        try {
+            sampler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            lag.add(lagRecorder.getIntervalHistogram());
+        }
+
+        LoadTestReport report = new LoadTestReport(options, sessions, timeline, lag,
+                connectRecorder.getIntervalHistogram(), failed.get(), closedByServer.get(), List.copyOf(errors));
+        report.write();
+        report.print(System.out);
+    }
+
+    private void connect(ClientSession session) {
+        WebSocketHandler handler = new WebSocketHandler() {
+            @Override
+            public List<String> getSubProtocols() {
+                return options.format == WireFormat.BINARY ? List.of(options.format.getSubProtocol()) : List.of();
+            }
+
+            @Override
+            public Mono<Void> handle(WebSocketSession webSocketSession) {
+                session.connected();
+                return webSocketSession.receive()
+                        .doOnNext(message -> session.onMessage(message))
+                        .then();
+            }
+        };
+        session.openedNanos = System.nanoTime();
+        session.connection = client.execute(options.url, handler)
+                .subscribe(
+                        ignored -> { },
+                        error -> session.failed(error),
+                        session::ended);
+    }
+
+    /**
+     * Takes one timeline sample. Runs on the sampler thread.
+     */
+    private void sample() {
+        long total = received.sum();
+        long messages = total - lastReceived;
+        lastReceived = total;
+        Histogram interval;
+        synchronized (this) {
+            interval = lagRecorder.getIntervalHistogram(lagInterval);
+            lagInterval = interval;
+            lag.add(interval);
+        }
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        timeline.add(new LoadTestReport.Sample(elapsed, phase, open.get(), messages,
+                interval.getValueAtPercentile(50) / 1000.0,
+                interval.getValueAtPercentile(99) / 1000.0,
+                interval.getMaxValue() / 1000.0,
+                scrapeHeapBytes()));
+    }
+
+    /**
+     * Sums the server's heap pools from its Prometheus endpoint.
+     *
+     * @return bytes of heap in use, or -1 if the endpoint cannot be read
+     */
+    private long scrapeHeapBytes() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(options.metricsUrl).timeout(Duration.ofSeconds(2)).build();
+            String body = metricsClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            double heap = 0;
+            boolean found = false;
+            for (String line : body.split("\n")) {
+                if (line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"")) {
+                    heap += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                    found = true;
+                }
+            }
+            return found ? (long) heap : -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Age of a tick on arrival, in microseconds, from its timestamp.
+     */
+    private long lagMicros(WebSocketMessage message) {
+        long tickEpochNanos;
+        if (message.getType() == WebSocketMessage.Type.BINARY) {
+            tickEpochNanos = message.getPayload().asByteBuffer().getLong(0);
+        } else {
+            String text = message.getPayloadAsText();
+            int start = text.indexOf(TIMESTAMP_FIELD);
+            if (start < 0) {
+                return -1;
+            }
+            start += TIMESTAMP_FIELD.length();
+            int end = text.indexOf('"', start);
+            tickEpochNanos = MarketDataBinaryCodec.toEpochNanos(LocalDateTime.parse(text.substring(start, end)));
+        }
+        long nowEpochNanos = MarketDataBinaryCodec.toEpochNanos(LocalDateTime.now());
+        return Math.max(0, (nowEpochNanos - tickEpochNanos) / 1000);
+    }
+
+    /**
+     * One client session. Its message counters are written only by the
+     * session's event loop thread.
+     */
+    final class ClientSession {
+        final int id;
+        volatile long openedNanos;
+        volatile long connectedNanos;
+        volatile long endedNanos;
+        volatile long messages;
+        volatile long lagSumMicros;
+        volatile long maxLagMicros;
+        volatile boolean endedByServer;
+        Disposable connection;
+
+        ClientSession(int id) {
+            this.id = id;
+        }
+
+        void connected() {
+            connectedNanos = System.nanoTime();
+            connectRecorder.recordValue((connectedNanos - openedNanos) / 1000);
+            open.incrementAndGet();
+        }
+
+        void onMessage(WebSocketMessage message) {
+            long lagMicros = lagMicros(message);
+            messages++;
+            received.increment();
+            if (lagMicros >= 0) {
+                lagSumMicros += lagMicros;
+                maxLagMicros = Math.max(maxLagMicros, lagMicros);
+                lagRecorder.recordValue(lagMicros);
+            }
+        }
+
+        void failed(Throwable error) {
+            if (connectedNanos == 0) {
+                failed.incrementAndGet();
+            } else {
+                ended();
+            }
+            if (errors.size() < 10) {
+                errors.add("session " + id + ": " + error);
+            }
+        }
+
+        void ended() {
+            if (connectedNanos != 0 && endedNanos == 0) {
+                endedNanos = System.nanoTime();
+                open.decrementAndGet();
+                if (!closing) {
+                    endedByServer = true;
+                    closedByServer.incrementAndGet();
+                }
+            }
+        }
+
+        void close() {
+            if (connectedNanos != 0 && endedNanos == 0) {
+                endedNanos = System.nanoTime();
+                open.decrementAndGet();
+            }
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+
+        boolean isConnected() {
+            return connectedNanos != 0;
+        }
+
+        double getMessagesPerSecond() {
+            long end = endedNanos == 0 ? System.nanoTime() : endedNanos;
+            double seconds = (end - connectedNanos) / 1e9;
+            return seconds <= 0 ? 0 : messages / seconds;
+        }
+
+        double getMeanLagMillis() {
+            return messages == 0 ? 0 : lagSumMicros / 1000.0 / messages;
+        }
+
+        double getMaxLagMillis() {
+            return maxLagMicros / 1000.0;
+        }
+
+        double getConnectMillis() {
+            return (connectedNanos - openedNanos) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.streaming.data.app.sda.codec;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Garbage-free ASCII formatting of numbers and timestamps into byte arrays.
+ *
+ * Every method writes at {@code pos} and returns the position after the last
+ * byte written. Callers must provide at least {@link #MAX_DOUBLE_LENGTH} or
+ * {@link #MAX_TIMESTAMP_LENGTH} bytes of room. Output matches
+ * {@link Double#toString(double)} and the JDK timestamp formats exactly; values
+ * outside the fast paths fall back to those methods.
+ */
+final class AsciiFormat {
+
+    static final int MAX_DOUBLE_LENGTH = 32;
+    static final int MAX_TIMESTAMP_LENGTH = 40;
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /** Below this magnitude Double.toString switches to scientific notation. */
+    private static final double MIN_PLAIN = 1e-3;
+    /** At or above this magnitude Double.toString switches to scientific notation. */
+    private static final double MAX_PLAIN = 1e7;
+    /** Scaled values must stay exactly representable as longs. */
+    private static final double MAX_EXACT = 9.007199254740992E15;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private AsciiFormat() {
+    }
+
+    /**
+     * Write a double exactly as {@link Double#toString(double)} would.
+     *
+     * The fast path finds the fewest fraction digits (up to nine) whose decimal
+     * value converts back to the same double, which is the shortest
+     * representation for prices and volumes. Anything else is delegated.
+     */
+    static int writeDouble(double value, byte[] dst, int pos) {
+        double magnitude = Math.abs(value);
+        if (magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN) {
+            for (int digits = 0; digits < POWERS_OF_TEN.length; digits++) {
+                double scaled = magnitude * POWERS_OF_TEN[digits];
+                if (scaled >= MAX_EXACT) {
+                    break;
+                }
+                long mantissa = Math.round(scaled);
+                if (mantissa / POWERS_OF_TEN[digits] == magnitude) {
+                    if (value < 0) {
+                        dst[pos++] = '-';
+                    }
+                    return writeFixed(mantissa, digits, dst, pos);
+                }
+            }
+        }
+        return writeAscii(Double.toString(value), dst, pos);
+    }
+
+    /**
+     * Write a non-negative long in decimal.
+     */
+    static int writeLong(long value, byte[] dst, int pos) {
+        if (value < 0) {
+            return writeAscii(Long.toString(value), dst, pos);
+        }
+        int length = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            length++;
+        }
+        int end = pos + length;
+        int i = end;
+        do {
+            dst[--i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    /**
+     * Write a timestamp as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} would:
+     * seconds always present, fraction trimmed of trailing zeros.
+     */
+    static int writeIsoLocalDateTime(LocalDateTime timestamp, byte[] dst, int pos) {
+        if (!isFourDigitYear(timestamp)) {
+            return writeAscii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp), dst, pos);
+        }
+        pos = writeDateHourMinute(timestamp, dst, pos);
+        dst[pos++] = ':';
+        pos = writeTwoDigits(timestamp.getSecond(), dst, pos);
+
+        int nanos = timestamp.getNano();
+        if (nanos != 0) {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            dst[pos++] = '.';
+            pos = writePadded(nanos, digits, dst, pos);
+        }
+        return pos;
+    }
+
+    /**
+     * Write a timestamp as {@link LocalDateTime#toString()} would: seconds
+     * omitted when they and the fraction are zero, fraction in groups of
+     * three digits.
+     */
+    static int writeLocalDateTime(LocalDateTime timestamp, byte[] dst, int pos) {
+        if (!isFourDigitYear(timestamp)) {
+            return writeAscii(timestamp.toString(), dst, pos);
+        }
+        pos = writeDateHourMinute(timestamp, dst, pos);
+        return writeSecondAndFraction(timestamp.getSecond(), timestamp.getNano(), dst, pos);
+    }
+
+    /**
+     * Write a timestamp given in nanoseconds since 1970-01-01T00:00 exactly
+     * as {@link #writeLocalDateTime(LocalDateTime, byte[], int)} writes the
+     * equivalent {@code LocalDateTime}, without creating one. Every such
+     * timestamp falls between the years 1677 and 2262.
+     */
+    static int writeLocalDateTime(long epochNanos, byte[] dst, int pos) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        int nanos = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND);
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+        // Civil date from days since 1970-01-01, in 400-year eras starting on March 1st
+        long days = epochDay + 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        int dayOfEra = (int) (days - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        pos = writeDateHourMinute(year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, dst, pos);
+        return writeSecondAndFraction(secondOfDay % 60, nanos, dst, pos);
+    }
+
+    private static int writeSecondAndFraction(int second, int nanos, byte[] dst, int pos) {
+        if (second == 0 && nanos == 0) {
+            return pos;
+        }
+        dst[pos++] = ':';
+        pos = writeTwoDigits(second, dst, pos);
+        if (nanos == 0) {
+            return pos;
+        }
+        dst[pos++] = '.';
+        if (nanos % 1_000_000 == 0) {
+            return writePadded(nanos / 1_000_000, 3, dst, pos);
+        }
+        if (nanos % 1_000 == 0) {
+            return writePadded(nanos / 1_000, 6, dst, pos);
+        }
+        return writePadded(nanos, 9, dst, pos);
+    }
+
+    /**
+     * Write a string known to be ASCII, one byte per char.
+     */
+    static int writeAscii(String value, byte[] dst, int pos) {
+        for (int i = 0; i < value.length(); i++) {
+            dst[pos++] = (byte) value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static int writeFixed(long mantissa, int fractionDigits, byte[] dst, int pos) {
+        long divisor = LONG_POWERS_OF_TEN[fractionDigits];
+        pos = writeLong(mantissa / divisor, dst, pos);
+        dst[pos++] = '.';
+        if (fractionDigits == 0) {
+            dst[pos++] = '0';
+            return pos;
+        }
+        return writePadded(mantissa % divisor, fractionDigits, dst, pos);
+    }
+
+    private static int writeDateHourMinute(LocalDateTime timestamp, byte[] dst, int pos) {
+        return writeDateHourMinute(timestamp.getYear(), timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+                timestamp.getHour(), timestamp.getMinute(), dst, pos);
+    }
+
+    private static int writeDateHourMinute(int year, int month, int day, int hour, int minute, byte[] dst, int pos) {
+        pos = writePadded(year, 4, dst, pos);
+        dst[pos++] = '-';
+        pos = writeTwoDigits(month, dst, pos);
+        dst[pos++] = '-';
+        pos = writeTwoDigits(day, dst, pos);
+        dst[pos++] = 'T';
+        pos = writeTwoDigits(hour, dst, pos);
+        dst[pos++] = ':';
+        return writeTwoDigits(minute, dst, pos);
+    }
+
+    private static boolean isFourDigitYear(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        return year >= 0 && year <= 9999;
+    }
+
+    private static int writeTwoDigits(int value, byte[] dst, int pos) {
+        dst[pos++] = (byte) ('0' + value / 10);
+        dst[pos++] = (byte) ('0' + value % 10);
+        return pos;
+    }
+
+    private static int writePadded(long value, int width, byte[] dst, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            dst[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
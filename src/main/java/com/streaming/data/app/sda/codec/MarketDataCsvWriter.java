@@ -0,0 +1,166 @@
+package com.streaming.data.app.sda.codec;
+
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Purpose-built CSV encoder for {@link MarketData} export rows.
+ *
+ * Produces byte-for-byte the UTF-8 output of OpenCSV's default
+ * {@code CSVWriter} writing {@link MarketData#toCsvArray()}: every field
+ * quoted, embedded quotes doubled, null fields left empty and rows ended by a
+ * newline. Numbers and the timestamp are formatted straight into a reusable
+ * scratch array, so steady-state encoding allocates nothing; only symbols
+ * that need escaping or are not ASCII go through a {@code String}. Rows of a
+ * {@link TickBatch} are encoded straight from its columns, with the same
+ * output as the equivalent ticks.
+ *
+ * Instances are not thread-safe; use one per writing thread.
+ */
+public class MarketDataCsvWriter {
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte LINE_END = '\n';
+
+    /** Quotes, separators, three numbers, a timestamp and the line end, excluding the symbol. */
+    private static final int FIXED_SIZE = 16 + 3 * AsciiFormat.MAX_DOUBLE_LENGTH + AsciiFormat.MAX_TIMESTAMP_LENGTH;
+
+    private byte[] scratch = new byte[FIXED_SIZE + 32];
+    private ByteBuffer view = ByteBuffer.wrap(scratch);
+
+    /**
+     * Encode a tick as a CSV row.
+     *
+     * @param data the market data to encode
+     * @return the row, valid until the next call on this writer
+     */
+    public ByteBuffer format(MarketData data) {
+        String symbol = data.getSymbol();
+        ensureCapacity(FIXED_SIZE + (symbol == null ? 0 : symbol.length() * 6));
+        byte[] dst = scratch;
+
+        int pos = 0;
+        LocalDateTime timestamp = data.getTimestamp();
+        if (timestamp != null) {
+            dst[pos++] = QUOTE;
+            pos = AsciiFormat.writeLocalDateTime(timestamp, dst, pos);
+            dst[pos++] = QUOTE;
+        }
+        dst[pos++] = SEPARATOR;
+        pos = writeField(symbol, dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(data.getBid(), dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(data.getAsk(), dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(data.getVolume(), dst, pos);
+        dst[pos++] = LINE_END;
+        return row(pos);
+    }
+
+    /**
+     * Encode a row of a columnar batch as a CSV row.
+     *
+     * @param batch the batch holding the tick
+     * @param row the tick's row in the batch
+     * @return the row, valid until the next call on this writer
+     */
+    public ByteBuffer format(TickBatch batch, int row) {
+        String symbol = batch.getSymbol(row);
+        ensureCapacity(FIXED_SIZE + (symbol == null ? 0 : symbol.length() * 6));
+        byte[] dst = scratch;
+
+        int pos = 0;
+        dst[pos++] = QUOTE;
+        pos = AsciiFormat.writeLocalDateTime(batch.getEpochNanos(row), dst, pos);
+        dst[pos++] = QUOTE;
+        dst[pos++] = SEPARATOR;
+        pos = writeField(symbol, dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(batch.getBid(row), dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(batch.getAsk(row), dst, pos);
+        dst[pos++] = SEPARATOR;
+        pos = writeNumber(batch.getVolume(row), dst, pos);
+        dst[pos++] = LINE_END;
+        return row(pos);
+    }
+
+    /**
+     * Encode arbitrary fields as a CSV row, such as a header.
+     *
+     * @param fields the fields to encode; null fields are left empty
+     * @return the row, valid until the next call on this writer
+     */
+    public ByteBuffer format(String... fields) {
+        int needed = 1;
+        for (String field : fields) {
+            needed += 3 + (field == null ? 0 : field.length() * 6);
+        }
+        ensureCapacity(needed);
+
+        int pos = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                scratch[pos++] = SEPARATOR;
+            }
+            pos = writeField(fields[i], scratch, pos);
+        }
+        scratch[pos++] = LINE_END;
+        return row(pos);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (scratch.length < needed) {
+            scratch = new byte[needed];
+            view = ByteBuffer.wrap(scratch);
+        }
+    }
+
+    private ByteBuffer row(int length) {
+        view.clear();
+        view.limit(length);
+        return view;
+    }
+
+    private static int writeNumber(double value, byte[] dst, int pos) {
+        dst[pos++] = QUOTE;
+        pos = AsciiFormat.writeDouble(value, dst, pos);
+        dst[pos++] = QUOTE;
+        return pos;
+    }
+
+    /**
+     * Writes a quoted field. Printable ASCII without quotes is copied
+     * directly; anything else is escaped and encoded through a String.
+     */
+    private static int writeField(String value, byte[] dst, int pos) {
+        if (value == null) {
+            return pos;
+        }
+        dst[pos++] = QUOTE;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '"') {
+                return writeEscaped(value, dst, pos);
+            }
+            dst[pos + i] = (byte) c;
+        }
+        pos += value.length();
+        dst[pos++] = QUOTE;
+        return pos;
+    }
+
+    private static int writeEscaped(String value, byte[] dst, int pos) {
+        byte[] escaped = value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(escaped, 0, dst, pos, escaped.length);
+        pos += escaped.length;
+        dst[pos++] = QUOTE;
+        return pos;
+    }
+}
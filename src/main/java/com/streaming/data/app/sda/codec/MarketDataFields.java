@@ -0,0 +1,42 @@
+package com.streaming.data.app.sda.codec;
+
+import com.streaming.data.app.sda.model.MarketData;
+
+/**
+ * Bit mask of the quote fields carried by a delta update. Symbol and
+ * timestamp are always present; a snapshot carries {@link #ALL}.
+ */
+public final class MarketDataFields {
+
+    public static final int BID = 1;
+    public static final int ASK = 1 << 1;
+    public static final int VOLUME = 1 << 2;
+    public static final int ALL = BID | ASK | VOLUME;
+
+    private MarketDataFields() {
+    }
+
+    /**
+     * Get the fields that differ between two ticks of the same instrument.
+     *
+     * @param previous the last tick sent, or null if none was
+     * @param current the tick about to be sent
+     * @return mask of changed fields, {@link #ALL} when there is no previous tick
+     */
+    public static int changed(MarketData previous, MarketData current) {
+        if (previous == null) {
+            return ALL;
+        }
+        int mask = 0;
+        if (Double.compare(previous.getBid(), current.getBid()) != 0) {
+            mask |= BID;
+        }
+        if (Double.compare(previous.getAsk(), current.getAsk()) != 0) {
+            mask |= ASK;
+        }
+        if (Double.compare(previous.getVolume(), current.getVolume()) != 0) {
+            mask |= VOLUME;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,163 @@
+package com.streaming.data.app.sda.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streaming.data.app.sda.model.TickBatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streaming JSON decoder for batches of ticks.
+ *
+ * A batch is either an array of tick objects or an object holding that
+ * array under {@code "ticks"}. Each tick has the fields written by
+ * {@link MarketDataJsonWriter}: a symbol, bid, ask and volume, and a
+ * timestamp that may be an ISO local date-time, a number of nanoseconds
+ * since the epoch, or left out for the time of decoding. Unknown fields are
+ * skipped.
+ *
+ * Ticks are read token by token straight into the columns of a
+ * {@link TickBatch}, without a tree or an object per tick. A tick with a
+ * blank symbol or one too long for a {@link MarketDataBinaryCodec binary
+ * record}, a missing field, a negative or non-finite number or an
+ * unreadable timestamp is skipped, and so is every tick past the limit.
+ *
+ * Instances are thread-safe.
+ */
+public class MarketDataJsonReader {
+
+    private static final String TICKS_FIELD = "ticks";
+
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Read a batch, appending its valid ticks to a batch of columns.
+     *
+     * @param in the JSON batch
+     * @param batch the batch to append ticks to
+     * @param limit the most ticks to append
+     * @return the number of ticks in the JSON batch, valid or not
+     * @throws IOException if the input is not a well-formed batch
+     */
+    public int read(InputStream in, TickBatch batch, int limit) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    boolean ticks = TICKS_FIELD.equals(parser.getCurrentName());
+                    JsonToken value = parser.nextToken();
+                    if (ticks && value == JsonToken.START_ARRAY) {
+                        return readTicks(parser, batch, limit);
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of ticks");
+            }
+            return readTicks(parser, batch, limit);
+        }
+    }
+
+    /**
+     * Read the elements of the ticks array, up to its end.
+     */
+    private int readTicks(JsonParser parser, TickBatch batch, int limit) throws IOException {
+        long now = MarketDataBinaryCodec.toEpochNanos(LocalDateTime.now());
+        int added = 0;
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unterminated array of ticks");
+            }
+            count++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+            } else if (readTick(parser, batch, added < limit, now)) {
+                added++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Read one tick object, appending it if it is valid and there is room.
+     *
+     * @return true if the tick was appended
+     */
+    private static boolean readTick(JsonParser parser, TickBatch batch, boolean room, long now) throws IOException {
+        String symbol = null;
+        double bid = Double.NaN;
+        double ask = Double.NaN;
+        double volume = Double.NaN;
+        long epochNanos = now;
+        boolean valid = true;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "symbol":
+                    symbol = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    break;
+                case "bid":
+                    bid = number(parser, value);
+                    break;
+                case "ask":
+                    ask = number(parser, value);
+                    break;
+                case "volume":
+                    volume = number(parser, value);
+                    break;
+                case "timestamp":
+                    if (value == JsonToken.VALUE_STRING) {
+                        try {
+                            epochNanos = MarketDataBinaryCodec.toEpochNanos(LocalDateTime.parse(parser.getText()));
+                        } catch (DateTimeParseException e) {
+                            valid = false;
+                        }
+                    } else if (value == JsonToken.VALUE_NUMBER_INT) {
+                        epochNanos = parser.getLongValue();
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        valid = false;
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        if (!room || !valid || symbol == null || symbol.isBlank() || !fitsRecord(symbol)
+                || !(bid >= 0) || !(ask >= 0) || !(volume >= 0)
+                || Double.isInfinite(bid) || Double.isInfinite(ask) || Double.isInfinite(volume)) {
+            return false;
+        }
+        batch.add(symbol, bid, ask, volume, epochNanos);
+        return true;
+    }
+
+    private static boolean fitsRecord(String symbol) {
+        return symbol.length() * 3 <= MarketDataBinaryCodec.MAX_SYMBOL_LENGTH
+                || symbol.getBytes(StandardCharsets.UTF_8).length <= MarketDataBinaryCodec.MAX_SYMBOL_LENGTH;
+    }
+
+    /**
+     * Get a numeric field's value, or NaN if it is not a number.
+     */
+    private static double number(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        parser.skipChildren();
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,163 @@
+package com.streaming.data.app.sda.codec;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.streaming.data.app.sda.model.MarketData;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Purpose-built JSON encoder for {@link MarketData}.
+ *
+ * Produces byte-for-byte the output of the application's Jackson
+ * {@code ObjectMapper} (ISO timestamps, {@link Double#toString(double)}
+ * numbers, non-finite numbers as quoted strings) without reflection or an
+ * intermediate {@code String}. The record is formatted into a reusable scratch
+ * array and copied into the target buffer in one write, so steady-state
+ * encoding allocates nothing.
+ *
+ * {@link #writeDelta} emits the same object with only the changed quote
+ * fields, for clients that merge updates into their last known state.
+ *
+ * Instances are not thread-safe; use one per encoding thread.
+ */
+public class MarketDataJsonWriter {
+
+    private static final byte[] SYMBOL_FIELD = ascii("{\"symbol\":");
+    private static final byte[] BID_FIELD = ascii(",\"bid\":");
+    private static final byte[] ASK_FIELD = ascii(",\"ask\":");
+    private static final byte[] VOLUME_FIELD = ascii(",\"volume\":");
+    private static final byte[] TIMESTAMP_FIELD = ascii(",\"timestamp\":");
+    private static final byte[] NULL = ascii("null");
+
+    /** Field names plus three numbers and a timestamp at their longest, excluding the symbol. */
+    private static final int FIXED_SIZE = 64 + 3 * (AsciiFormat.MAX_DOUBLE_LENGTH + 2) + AsciiFormat.MAX_TIMESTAMP_LENGTH;
+
+    private byte[] scratch = new byte[FIXED_SIZE + 32];
+
+    /**
+     * Encode a tick and append it to the buffer.
+     *
+     * @param data the market data to encode
+     * @param buffer target buffer, expanded if needed
+     * @return the same buffer
+     */
+    public DataBuffer write(MarketData data, DataBuffer buffer) {
+        return writeDelta(data, MarketDataFields.ALL, buffer);
+    }
+
+    /**
+     * Encode a tick with only the given quote fields and append it to the buffer.
+     * Symbol and timestamp are always written.
+     *
+     * @param data the market data to encode
+     * @param fields {@link MarketDataFields} mask of quote fields to include
+     * @param buffer target buffer, expanded if needed
+     * @return the same buffer
+     */
+    public DataBuffer writeDelta(MarketData data, int fields, DataBuffer buffer) {
+        int length = format(data, fields);
+        buffer.ensureCapacity(length);
+        buffer.write(scratch, 0, length);
+        return buffer;
+    }
+
+    /**
+     * Encode a tick into a new byte array.
+     */
+    public byte[] toBytes(MarketData data) {
+        int length = format(data, MarketDataFields.ALL);
+        byte[] bytes = new byte[length];
+        System.arraycopy(scratch, 0, bytes, 0, length);
+        return bytes;
+    }
+
+    private int format(MarketData data, int fields) {
+        String symbol = data.getSymbol();
+        int needed = FIXED_SIZE + (symbol == null ? 0 : symbol.length() * 6);
+        if (scratch.length < needed) {
+            scratch = new byte[needed];
+        }
+        byte[] dst = scratch;
+
+        int pos = put(SYMBOL_FIELD, dst, 0);
+        pos = writeString(symbol, dst, pos);
+        if ((fields & MarketDataFields.BID) != 0) {
+            pos = put(BID_FIELD, dst, pos);
+            pos = writeNumber(data.getBid(), dst, pos);
+        }
+        if ((fields & MarketDataFields.ASK) != 0) {
+            pos = put(ASK_FIELD, dst, pos);
+            pos = writeNumber(data.getAsk(), dst, pos);
+        }
+        if ((fields & MarketDataFields.VOLUME) != 0) {
+            pos = put(VOLUME_FIELD, dst, pos);
+            pos = writeNumber(data.getVolume(), dst, pos);
+        }
+        pos = put(TIMESTAMP_FIELD, dst, pos);
+
+        LocalDateTime timestamp = data.getTimestamp();
+        if (timestamp == null) {
+            pos = put(NULL, dst, pos);
+        } else {
+            dst[pos++] = '"';
+            pos = AsciiFormat.writeIsoLocalDateTime(timestamp, dst, pos);
+            dst[pos++] = '"';
+        }
+        dst[pos++] = '}';
+        return pos;
+    }
+
+    /**
+     * Writes a number the way Jackson does, quoting NaN and infinities.
+     */
+    private static int writeNumber(double value, byte[] dst, int pos) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            dst[pos++] = '"';
+            pos = AsciiFormat.writeAscii(Double.toString(value), dst, pos);
+            dst[pos++] = '"';
+            return pos;
+        }
+        return AsciiFormat.writeDouble(value, dst, pos);
+    }
+
+    /**
+     * Writes a quoted string. Printable ASCII without quotes or backslashes is
+     * copied directly; anything else goes through Jackson's own escaping.
+     */
+    private static int writeString(String value, byte[] dst, int pos) {
+        if (value == null) {
+            return put(NULL, dst, pos);
+        }
+        dst[pos++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '"' || c == '\\') {
+                return writeEscaped(value, dst, pos - 1);
+            }
+            dst[pos + i] = (byte) c;
+        }
+        pos += value.length();
+        dst[pos++] = '"';
+        return pos;
+    }
+
+    private static int writeEscaped(String value, byte[] dst, int pos) {
+        dst[pos++] = '"';
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        System.arraycopy(escaped, 0, dst, pos, escaped.length);
+        pos += escaped.length;
+        dst[pos++] = '"';
+        return pos;
+    }
+
+    private static int put(byte[] bytes, byte[] dst, int pos) {
+        System.arraycopy(bytes, 0, dst, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
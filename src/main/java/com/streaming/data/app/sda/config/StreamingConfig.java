@@ -1,12 +1,20 @@
 package com.streaming.data.app.sda.config;
 
+import com.streaming.data.app.sda.model.MarketData;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Root configuration properties for the streaming data application.
  *
@@ -22,23 +30,43 @@ public class StreamingConfig {
     private final CsvConfig csv;
     private final ProcessingConfig processing;
     private final SimulationConfig simulation;
+    private final JournalConfig journal;
+    private final LatencyConfig latency;
+    private final IngestConfig ingest;
+    private final BarsConfig bars;
+    private final ReplayConfig replay;
 
     public StreamingConfig(
             WebSocketConfig websocket,
             CsvConfig csv,
             ProcessingConfig processing,
-            SimulationConfig simulation
+            SimulationConfig simulation,
+            JournalConfig journal,
+            LatencyConfig latency,
+            IngestConfig ingest,
+            BarsConfig bars,
+            ReplayConfig replay
     ) {
         this.websocket = websocket;
         this.csv = csv;
         this.processing = processing;
         this.simulation = simulation;
+        this.journal = journal == null ? JournalConfig.disabled() : journal;
+        this.latency = latency == null ? LatencyConfig.disabled() : latency;
+        this.ingest = ingest == null ? IngestConfig.disabled() : ingest;
+        this.bars = bars == null ? BarsConfig.disabled() : bars;
+        this.replay = replay == null ? ReplayConfig.defaults() : replay;
     }
 
     public WebSocketConfig getWebsocket() { return websocket; }
     public CsvConfig getCsv() { return csv; }
     public ProcessingConfig getProcessing() { return processing; }
     public SimulationConfig getSimulation() { return simulation; }
+    public JournalConfig getJournal() { return journal; }
+    public LatencyConfig getLatency() { return latency; }
+    public IngestConfig getIngest() { return ingest; }
+    public BarsConfig getBars() { return bars; }
+    public ReplayConfig getReplay() { return replay; }
 
     /**
      * Configuration group for WebSocket settings.
@@ -47,16 +75,56 @@ public class StreamingConfig {
     public static class WebSocketConfig {
         private final int port;
         private final String path;
+        private final int sessionQueueCapacity;
+        private final OverflowPolicy overflowPolicy;
+        private final long maxLagSeconds;
+        private final List<String> defaultSubscriptions;
+        private final boolean compression;
+        private final int maxFramePayloadLength;
 
         public WebSocketConfig(
                 @Min(1000) int port,
-                @NotBlank String path
+                @NotBlank String path,
+                @DefaultValue("256") @Min(1) int sessionQueueCapacity,
+                @DefaultValue("CONFLATE") OverflowPolicy overflowPolicy,
+                @DefaultValue("5") @Min(1) long maxLagSeconds,
+                @DefaultValue("*") List<String> defaultSubscriptions,
+                @DefaultValue("true") boolean compression,
+                @DefaultValue("65536") @Min(125) int maxFramePayloadLength
         ) {
             this.port = port;
             this.path = path;
+            this.sessionQueueCapacity = sessionQueueCapacity;
+            this.overflowPolicy = overflowPolicy;
+            this.maxLagSeconds = maxLagSeconds;
+            this.defaultSubscriptions = defaultSubscriptions == null ? List.of() : List.copyOf(defaultSubscriptions);
+            this.compression = compression;
+            this.maxFramePayloadLength = maxFramePayloadLength;
         }
+
         public int getPort() { return port; }
         public String getPath() { return path; }
+        public int getSessionQueueCapacity() { return sessionQueueCapacity; }
+        public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+        public long getMaxLagSeconds() { return maxLagSeconds; }
+        public List<String> getDefaultSubscriptions() { return defaultSubscriptions; }
+        public boolean isCompression() { return compression; }
+        public int getMaxFramePayloadLength() { return maxFramePayloadLength; }
+
+        /**
+         * What a session's outbound queue does when it is full.
+         */
+        public enum OverflowPolicy {
+            /** Keep only the latest pending tick per instrument. */
+            CONFLATE,
+            /** Evict the oldest pending tick to make room. */
+            DROP_OLDEST,
+            /**
+             * Drop new ticks, and close the session once a tick overflows
+             * while the oldest queued one is over maxLagSeconds old.
+             */
+            DISCONNECT
+        }
     }
 
     /**
@@ -67,19 +135,288 @@ public class StreamingConfig {
         private final String exportPath;
         private final long exportInterval;
         private final int batchSize;
+        private final Durability durability;
+        private final long fsyncInterval;
+        private final int writeBufferSize;
+        private final DataSize segmentSize;
+        private final RollInterval rollInterval;
+        private final boolean compressSegments;
+        private final int maxSegments;
+        private final int indexInterval;
+        private final Formatter formatter;
 
         public CsvConfig(
                 @NotBlank String exportPath,
                 @Min(1000) long exportInterval,
-                @Min(1) int batchSize
+                @Min(1) int batchSize,
+                @DefaultValue("FLUSH") Durability durability,
+                @DefaultValue("1000") @Min(1) long fsyncInterval,
+                @DefaultValue("1048576") @Min(8192) int writeBufferSize,
+                @DefaultValue("0") DataSize segmentSize,
+                @DefaultValue("NONE") RollInterval rollInterval,
+                @DefaultValue("true") boolean compressSegments,
+                @DefaultValue("0") @Min(0) int maxSegments,
+                @DefaultValue("1024") @Min(0) int indexInterval,
+                @DefaultValue("DIRECT") Formatter formatter
         ) {
             this.exportPath = exportPath;
             this.exportInterval = exportInterval;
             this.batchSize = batchSize;
+            this.durability = durability;
+            this.fsyncInterval = fsyncInterval;
+            this.writeBufferSize = writeBufferSize;
+            this.segmentSize = segmentSize == null ? DataSize.ofBytes(0) : segmentSize;
+            this.rollInterval = rollInterval;
+            this.compressSegments = compressSegments;
+            this.maxSegments = maxSegments;
+            this.indexInterval = indexInterval;
+            this.formatter = formatter == null ? Formatter.DIRECT : formatter;
         }
+
         public String getExportPath() { return exportPath; }
         public long getExportInterval() { return exportInterval; }
         public int getBatchSize() { return batchSize; }
+        public Durability getDurability() { return durability; }
+        public long getFsyncInterval() { return fsyncInterval; }
+        public int getWriteBufferSize() { return writeBufferSize; }
+        public DataSize getSegmentSize() { return segmentSize; }
+        public RollInterval getRollInterval() { return rollInterval; }
+        public boolean isCompressSegments() { return compressSegments; }
+        public int getMaxSegments() { return maxSegments; }
+        public int getIndexInterval() { return indexInterval; }
+        public Formatter getFormatter() { return formatter; }
+
+        /**
+         * How far exported rows are pushed towards the disk after each write.
+         */
+        public enum Durability {
+            /** Rows stay in the write buffer until it fills or the file is closed. */
+            NONE,
+            /** Each batch is written through to the operating system. */
+            FLUSH,
+            /** As FLUSH, and the file is forced to disk every fsyncInterval milliseconds. */
+            FSYNC
+        }
+
+        /**
+         * How export rows are turned into bytes. Both produce identical output.
+         */
+        public enum Formatter {
+            /** Rows are formatted straight into the write buffer without per-row allocation. */
+            DIRECT,
+            /** Rows go through {@code MarketData.toCsvArray()} and OpenCSV. */
+            OPENCSV
+        }
+
+        /**
+         * Time window after which the export file is rolled into a new segment.
+         */
+        public enum RollInterval {
+            NONE,
+            HOURLY,
+            DAILY
+        }
+    }
+
+    /**
+     * Configuration group for the binary tick journal.
+     */
+    @Validated
+    public static class JournalConfig {
+        private final boolean enabled;
+        private final String path;
+        private final DataSize segmentSize;
+        private final int maxSegments;
+
+        public JournalConfig(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("./data/journal") @NotBlank String path,
+                @DefaultValue("64MB") DataSize segmentSize,
+                @DefaultValue("0") @Min(0) int maxSegments
+        ) {
+            this.enabled = enabled;
+            this.path = path;
+            this.segmentSize = segmentSize;
+            this.maxSegments = maxSegments;
+        }
+
+        static JournalConfig disabled() {
+            return new JournalConfig(false, "./data/journal", DataSize.ofMegabytes(64), 0);
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public String getPath() { return path; }
+        public DataSize getSegmentSize() { return segmentSize; }
+        public int getMaxSegments() { return maxSegments; }
+    }
+
+    /**
+     * Configuration group for historical replay. Ticks are persisted in
+     * arrival order, which may trail timestamp order by up to maxSkew, so a
+     * replay reads that far past either end of its range before giving up.
+     */
+    @Validated
+    public static class ReplayConfig {
+        private final Duration maxSkew;
+
+        public ReplayConfig(@DefaultValue("5s") Duration maxSkew) {
+            this.maxSkew = maxSkew == null ? Duration.ZERO : maxSkew;
+            if (this.maxSkew.isNegative()) {
+                throw new IllegalArgumentException("maxSkew must not be negative");
+            }
+        }
+
+        static ReplayConfig defaults() {
+            return new ReplayConfig(Duration.ofSeconds(5));
+        }
+
+        public Duration getMaxSkew() { return maxSkew; }
+    }
+
+    /**
+     * Configuration group for end-to-end latency tracing.
+     */
+    @Validated
+    public static class LatencyConfig {
+        private final boolean enabled;
+        private final long snapshotInterval;
+
+        public LatencyConfig(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("10000") @Min(100) long snapshotInterval
+        ) {
+            this.enabled = enabled;
+            this.snapshotInterval = snapshotInterval;
+        }
+
+        static LatencyConfig disabled() {
+            return new LatencyConfig(false, 10000);
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public long getSnapshotInterval() { return snapshotInterval; }
+    }
+
+    /**
+     * Configuration group for OHLCV bar aggregation. A bar closes once the
+     * clock passes its end by closeDelay, leaving time for ticks still in
+     * the pipeline; closed bars are optionally appended to a CSV file.
+     */
+    @Validated
+    public static class BarsConfig {
+        private final boolean enabled;
+        private final List<Duration> intervals;
+        private final Duration closeDelay;
+        private final boolean export;
+        private final String exportPath;
+
+        public BarsConfig(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("1s,1m,5m") List<Duration> intervals,
+                @DefaultValue("250ms") Duration closeDelay,
+                @DefaultValue("false") boolean export,
+                @DefaultValue("./data/bars.csv") @NotBlank String exportPath
+        ) {
+            this.enabled = enabled;
+            this.intervals = intervals == null ? List.of() : List.copyOf(intervals);
+            this.closeDelay = closeDelay == null ? Duration.ZERO : closeDelay;
+            this.export = export;
+            this.exportPath = exportPath;
+            for (Duration interval : this.intervals) {
+                if (interval.toMillis() < 1 || interval.toNanos() % 1_000_000 != 0) {
+                    throw new IllegalArgumentException("Bar intervals must be a positive whole number of milliseconds: " + interval);
+                }
+            }
+            if (this.closeDelay.isNegative()) {
+                throw new IllegalArgumentException("closeDelay must not be negative");
+            }
+        }
+
+        static BarsConfig disabled() {
+            return new BarsConfig(false, List.of(), Duration.ZERO, false, "./data/bars.csv");
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public List<Duration> getIntervals() { return intervals; }
+        public Duration getCloseDelay() { return closeDelay; }
+        public boolean isExport() { return export; }
+        public String getExportPath() { return exportPath; }
+    }
+
+    /**
+     * Configuration group for ingest from external feeds. The WebSocket
+     * endpoint is switched on by enabled; credit is the number of ticks a
+     * producer may have sent to it but not yet had acknowledged, per session.
+     * The raw TCP listener is configured and enabled on its own.
+     */
+    @Validated
+    public static class IngestConfig {
+        private final boolean enabled;
+        private final int credit;
+        private final TcpConfig tcp;
+
+        public IngestConfig(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("8192") @Min(1) int credit,
+                TcpConfig tcp
+        ) {
+            this.enabled = enabled;
+            this.credit = credit;
+            this.tcp = tcp == null ? TcpConfig.disabled() : tcp;
+        }
+
+        static IngestConfig disabled() {
+            return new IngestConfig(false, 8192, null);
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public int getCredit() { return credit; }
+        public TcpConfig getTcp() { return tcp; }
+    }
+
+    /**
+     * Configuration group for the raw TCP ingest listener. Port 0 binds any
+     * free port; ioThreads 0 means one per available core. maxFrameLength
+     * bounds a single length-prefixed batch.
+     */
+    @Validated
+    public static class TcpConfig {
+        private final boolean enabled;
+        private final String host;
+        private final int port;
+        private final int ioThreads;
+        private final DataSize maxFrameLength;
+
+        public TcpConfig(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("127.0.0.1") @NotBlank String host,
+                @DefaultValue("9100") @Min(0) int port,
+                @DefaultValue("0") @Min(0) int ioThreads,
+                @DefaultValue("1MB") DataSize maxFrameLength
+        ) {
+            this.enabled = enabled;
+            this.host = host;
+            this.port = port;
+            this.ioThreads = ioThreads;
+            this.maxFrameLength = maxFrameLength;
+        }
+
+        static TcpConfig disabled() {
+            return new TcpConfig(false, "127.0.0.1", 9100, 0, DataSize.ofMegabytes(1));
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public String getHost() { return host; }
+        public int getPort() { return port; }
+        public int getIoThreads() { return ioThreads; }
+        public DataSize getMaxFrameLength() { return maxFrameLength; }
+
+        /**
+         * Get the number of I/O threads to run, resolving 0 to the number of cores
+         */
+        public int getEffectiveIoThreads() {
+            return ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+        }
     }
 
     /**
@@ -89,29 +426,132 @@ public class StreamingConfig {
     public static class ProcessingConfig {
         private final int bufferSize;
         private final String backpressureStrategy;
+        private final BackpressureStrategy strategy;
+        private final long blockTimeout;
+        private final EventBus eventBus;
+        private final TickLayout tickLayout;
 
         public ProcessingConfig(
                 @Min(1) int bufferSize,
-                @NotBlank String backpressureStrategy
+                @NotBlank String backpressureStrategy,
+                @DefaultValue("1000") @Min(0) long blockTimeout,
+                @DefaultValue("SINK") EventBus eventBus,
+                @DefaultValue("OBJECT") TickLayout tickLayout
         ) {
             this.bufferSize = bufferSize;
             this.backpressureStrategy = backpressureStrategy;
+            this.strategy = BackpressureStrategy.parse(backpressureStrategy);
+            this.blockTimeout = blockTimeout;
+            this.eventBus = eventBus == null ? EventBus.SINK : eventBus;
+            this.tickLayout = tickLayout == null ? TickLayout.OBJECT : tickLayout;
         }
+
         public int getBufferSize() { return bufferSize; }
         public String getBackpressureStrategy() { return backpressureStrategy; }
+        public BackpressureStrategy getStrategy() { return strategy; }
+        public long getBlockTimeout() { return blockTimeout; }
+        public EventBus getEventBus() { return eventBus; }
+        public TickLayout getTickLayout() { return tickLayout; }
+
+        /**
+         * How processed ticks are handed to their consumers.
+         */
+        public enum EventBus {
+            /** A Reactor multicast sink, with a worker-thread hop per consumer. */
+            SINK,
+            /** A pre-allocated ring buffer read by each consumer at its own sequence. */
+            RING
+        }
+
+        /**
+         * How generated ticks travel to the export sinks.
+         */
+        public enum TickLayout {
+            /** One object per tick, collected into lists for export. */
+            OBJECT,
+            /**
+             * Pooled columnar batches, written to CSV and the journal straight
+             * from their columns; tick objects are made only for the stream.
+             */
+            COLUMNAR
+        }
+
+        /**
+         * What happens to ticks a consumer cannot keep up with.
+         */
+        public enum BackpressureStrategy {
+            /** Each consumer buffers up to bufferSize ticks and drops new ones when full. */
+            DROP_LATEST,
+            /** Each consumer buffers up to bufferSize ticks and drops its oldest when full. */
+            DROP_OLDEST,
+            /** Each consumer keeps only the newest tick it has not yet taken. */
+            KEEP_LATEST,
+            /** A consumer whose buffer of bufferSize ticks overflows is terminated with an error. */
+            ERROR,
+            /**
+             * Producers wait up to blockTimeout milliseconds for the slowest
+             * consumer to make room in the shared buffer, then drop the tick.
+             */
+            BOUNDED_BLOCKING;
+
+            /**
+             * Parse a strategy name, ignoring case, allowing dashes for
+             * underscores and an optional {@code BUFFER_OVERFLOW_} prefix.
+             * A missing name means {@link #DROP_LATEST}.
+             *
+             * @throws IllegalArgumentException if the name is not a strategy
+             */
+            public static BackpressureStrategy parse(String name) {
+                if (name == null || name.isBlank()) {
+                    return DROP_LATEST;
+                }
+                String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+                if (normalized.startsWith("BUFFER_OVERFLOW_")) {
+                    normalized = normalized.substring("BUFFER_OVERFLOW_".length());
+                }
+                try {
+                    return valueOf(normalized);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown backpressure strategy: " + name, e);
+                }
+            }
+        }
     }
 
     /**
      * Configuration group for simulated market data generation.
+     *
+     * By default every instrument ticks once per dataGenerationInterval. A
+     * positive ticksPerSecond switches to burst mode instead: the generator
+     * emits that many ticks per second in total, in one batch per
+     * burstQuantum, regardless of the interval. A load profile takes over
+     * the rate in burst mode from there, and adds changes in volatility and
+     * instrument activity over time.
+     *
+     * A seed makes the simulated prices and volumes reproducible. Runs with the
+     * same seed, instruments and shard count produce the same sequence of
+     * ticks per instrument; timestamps and batch boundaries still follow the
+     * clock.
      */
     @Validated
     public static class SimulationConfig {
+        /** Finer quanta than this cost more in wake-ups than they gain in smoothness. */
+        public static final Duration MIN_BURST_QUANTUM = Duration.ofNanos(50_000);
+
         private final long dataGenerationInterval;
         private final double initialBid;
         private final double initialAsk;
         private final double maxPriceChange;
         private final int minVolume;
         private final int maxVolume;
+        private final List<String> symbols;
+        private final int instrumentCount;
+        private final String symbolPrefix;
+        private final int shards;
+        private final long ticksPerSecond;
+        private final Duration burstQuantum;
+        private final Long seed;
+        private final ProfileConfig profile;
 
         public SimulationConfig(
                 @Min(10) long dataGenerationInterval,
@@ -119,7 +559,15 @@ public class StreamingConfig {
                 @DecimalMin(value = "0.0", inclusive = true) double initialAsk,
                 @DecimalMin(value = "0.0", inclusive = true) double maxPriceChange,
                 @Min(1) int minVolume,
-                @Min(1) int maxVolume
+                @Min(1) int maxVolume,
+                @DefaultValue List<String> symbols,
+                @DefaultValue("1") @Min(1) int instrumentCount,
+                @DefaultValue(MarketData.DEFAULT_SYMBOL) @NotBlank String symbolPrefix,
+                @DefaultValue("0") @Min(0) int shards,
+                @DefaultValue("0") @Min(0) long ticksPerSecond,
+                @DefaultValue("1ms") Duration burstQuantum,
+                Long seed,
+                ProfileConfig profile
         ) {
             this.dataGenerationInterval = dataGenerationInterval;
             this.initialBid = initialBid;
@@ -127,9 +575,20 @@ public class StreamingConfig {
             this.maxPriceChange = maxPriceChange;
             this.minVolume = minVolume;
             this.maxVolume = maxVolume;
+            this.symbols = symbols == null ? List.of() : List.copyOf(symbols);
+            this.instrumentCount = instrumentCount;
+            this.symbolPrefix = symbolPrefix;
+            this.shards = shards;
+            this.ticksPerSecond = ticksPerSecond;
+            this.burstQuantum = burstQuantum == null ? Duration.ofMillis(1) : burstQuantum;
+            this.seed = seed;
+            this.profile = profile == null ? ProfileConfig.disabled() : profile;
             if (maxVolume < minVolume) {
                 throw new IllegalArgumentException("maxVolume must be >= minVolume");
             }
+            if (this.burstQuantum.compareTo(MIN_BURST_QUANTUM) < 0) {
+                throw new IllegalArgumentException("burstQuantum must be at least " + MIN_BURST_QUANTUM);
+            }
         }
 
         public long getDataGenerationInterval() { return dataGenerationInterval; }
@@ -138,5 +597,134 @@ public class StreamingConfig {
         public double getMaxPriceChange() { return maxPriceChange; }
         public int getMinVolume() { return minVolume; }
         public int getMaxVolume() { return maxVolume; }
+        public List<String> getSymbols() { return symbols; }
+        public int getInstrumentCount() { return instrumentCount; }
+        public String getSymbolPrefix() { return symbolPrefix; }
+        public int getShards() { return shards; }
+        public long getTicksPerSecond() { return ticksPerSecond; }
+        public Duration getBurstQuantum() { return burstQuantum; }
+        public Long getSeed() { return seed; }
+        public ProfileConfig getProfile() { return profile; }
+
+        /**
+         * Check if the generator runs at an aggregate tick rate, fixed or set
+         * by a load profile, in batches per quantum, instead of one tick per
+         * instrument per interval
+         */
+        public boolean isBurst() {
+            return ticksPerSecond > 0 || profile.isEnabled();
+        }
+
+        /**
+         * Get the simulated instrument universe: the explicit symbols if any
+         * are configured, otherwise instrumentCount symbols derived from the
+         * prefix (just the prefix itself for a single instrument).
+         */
+        public List<String> getInstrumentUniverse() {
+            if (!symbols.isEmpty()) {
+                return symbols;
+            }
+            if (instrumentCount == 1) {
+                return List.of(symbolPrefix);
+            }
+            int width = String.valueOf(instrumentCount - 1).length();
+            List<String> universe = new ArrayList<>(instrumentCount);
+            for (int i = 0; i < instrumentCount; i++) {
+                universe.add(symbolPrefix + String.format("%0" + width + "d", i));
+            }
+            return universe;
+        }
+
+        /**
+         * Get the number of generator shards: the configured value, or one per
+         * available core when 0, never more than the number of instruments.
+         */
+        public int getEffectiveShards(int instruments) {
+            int requested = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+            return Math.max(1, Math.min(requested, instruments));
+        }
+    }
+
+    /**
+     * Configuration group for a simulator load profile: a timeline of phases,
+     * given inline or in a JSON file, which the generator plays from start
+     * and then repeats or holds at its last phase.
+     */
+    @Validated
+    public static class ProfileConfig {
+        private final String file;
+        private final boolean loop;
+        private final List<PhaseConfig> phases;
+
+        public ProfileConfig(
+                @DefaultValue("") String file,
+                @DefaultValue("true") boolean loop,
+                @DefaultValue List<PhaseConfig> phases
+        ) {
+            this.file = file == null ? "" : file;
+            this.loop = loop;
+            this.phases = phases == null ? List.of() : List.copyOf(phases);
+        }
+
+        static ProfileConfig disabled() {
+            return new ProfileConfig("", true, List.of());
+        }
+
+        /** Path of a JSON profile; when set, it replaces the inline phases. */
+        public String getFile() { return file; }
+        public boolean isLoop() { return loop; }
+        public List<PhaseConfig> getPhases() { return phases; }
+
+        public boolean isEnabled() {
+            return !file.isBlank() || !phases.isEmpty();
+        }
+    }
+
+    /**
+     * One phase of a load profile. The rate moves linearly from rate to
+     * endRate over the phase, so a phase with only a rate is flat and one
+     * with both is a ramp. Volatility scales maxPriceChange; activity is the
+     * share of each shard's instruments that tick during the phase.
+     */
+    @Validated
+    public static class PhaseConfig {
+        private final String name;
+        private final Duration duration;
+        private final double rate;
+        private final double endRate;
+        private final double volatility;
+        private final double activity;
+
+        public PhaseConfig(
+                @DefaultValue("") String name,
+                Duration duration,
+                @DecimalMin(value = "0.0", inclusive = true) double rate,
+                Double endRate,
+                @DefaultValue("1.0") @DecimalMin(value = "0.0", inclusive = true) double volatility,
+                @DefaultValue("1.0") double activity
+        ) {
+            if (duration == null || duration.isZero() || duration.isNegative()) {
+                throw new IllegalArgumentException("Profile phase " + name + " needs a positive duration");
+            }
+            if (rate < 0 || (endRate != null && endRate < 0) || volatility < 0) {
+                throw new IllegalArgumentException("Profile phase " + name + " needs rates and volatility >= 0");
+            }
+            if (!(activity > 0 && activity <= 1)) {
+                throw new IllegalArgumentException("Profile phase " + name + " needs an activity in (0, 1]: " + activity);
+            }
+            this.name = name == null ? "" : name;
+            this.duration = duration;
+            this.rate = rate;
+            this.endRate = endRate == null ? rate : endRate;
+            this.volatility = volatility;
+            this.activity = activity;
+        }
+
+        public String getName() { return name; }
+        public Duration getDuration() { return duration; }
+        public double getRate() { return rate; }
+        public double getEndRate() { return endRate; }
+        public double getVolatility() { return volatility; }
+        public double getActivity() { return activity; }
     }
 }
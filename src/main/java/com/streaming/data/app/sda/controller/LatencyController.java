@@ -0,0 +1,38 @@
+package com.streaming.data.app.sda.controller;
+
+import com.streaming.data.app.sda.service.LatencySnapshot;
+import com.streaming.data.app.sda.service.LatencyTracker;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * HTTP endpoint serving the latest end-to-end latency snapshot.
+ *
+ * Example: {@code GET /api/latency}. The response holds p50, p99, p99.9,
+ * max and mean latency in microseconds from tick creation to each pipeline
+ * stage, for the last snapshot interval and since start-up.
+ */
+@RestController
+public class LatencyController {
+
+    private final LatencyTracker latencyTracker;
+
+    public LatencyController(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * Get the snapshot taken at the end of the last interval.
+     *
+     * @return the latest snapshot
+     */
+    @GetMapping("/api/latency")
+    public LatencySnapshot latency() {
+        if (!latencyTracker.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Latency tracing is disabled");
+        }
+        return latencyTracker.getLatestSnapshot();
+    }
+}
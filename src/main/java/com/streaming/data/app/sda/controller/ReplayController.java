@@ -0,0 +1,53 @@
+package com.streaming.data.app.sda.controller;
+
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.ReplayRequest;
+import com.streaming.data.app.sda.service.ReplayService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+/**
+ * HTTP endpoint replaying persisted ticks as newline-delimited JSON.
+ *
+ * Example: {@code GET /api/replay?from=2024-03-01T12:00:00&to=2024-03-01T13:00:00&symbol=EURUSD&speed=10x}.
+ * All parameters are optional; speed is {@code max} unless given as a factor
+ * such as {@code 1x} or {@code 10x}. The response is streamed as the client
+ * reads it.
+ */
+@RestController
+public class ReplayController {
+
+    private final ReplayService replayService;
+
+    public ReplayController(ReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * Streams the persisted ticks matching the query.
+     *
+     * @param from ISO local date-time of the first tick
+     * @param to ISO local date-time of the last tick
+     * @param symbol symbol to replay, all if absent
+     * @param speed replay pace, e.g. 1x, 10x or max
+     * @return the matching ticks
+     */
+    @GetMapping(value = "/api/replay", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MarketData> replay(@RequestParam(required = false) String from,
+                                   @RequestParam(required = false) String to,
+                                   @RequestParam(required = false) String symbol,
+                                   @RequestParam(required = false) String speed) {
+        ReplayRequest request;
+        try {
+            request = ReplayRequest.parse(from, to, symbol, speed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return replayService.replay(request);
+    }
+}
@@ -0,0 +1,116 @@
+package com.streaming.data.app.sda.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Open, high, low, close and volume of one instrument over one interval.
+ *
+ * Prices are taken from the mid, halfway between a tick's bid and ask, and
+ * volume is the sum of the ticks' volumes. A bar covers ticks timestamped
+ * from its start, inclusive, to its end, exclusive; start is a whole
+ * multiple of the interval since the epoch, so every instrument's bars line
+ * up.
+ */
+public class Bar {
+
+    private final String symbol;
+    private final String interval;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final double volume;
+    private final long ticks;
+
+    public Bar(String symbol, String interval, LocalDateTime start, LocalDateTime end,
+               double open, double high, double low, double close, double volume, long ticks) {
+        this.symbol = symbol;
+        this.interval = interval;
+        this.start = start;
+        this.end = end;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Get the short label of an interval, such as {@code 1s}, {@code 5m} or
+     * {@code 250ms}, in the largest unit that divides it exactly.
+     */
+    public static String label(Duration interval) {
+        long millis = interval.toMillis();
+        if (millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        }
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis % 1000 == 0) {
+            return millis / 1000 + "s";
+        }
+        return millis + "ms";
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Get the label of the bar's interval, see {@link #label(Duration)}
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * Get the number of ticks aggregated into the bar
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public String toCsvRow() {
+        return symbol + ',' + interval + ',' + start + ',' + end + ',' + open + ',' + high + ','
+                + low + ',' + close + ',' + volume + ',' + ticks;
+    }
+
+    @Override
+    public String toString() {
+        return "Bar{symbol=" + symbol + ", interval=" + interval + ", start=" + start + ", open=" + open
+                + ", high=" + high + ", low=" + low + ", close=" + close + ", volume=" + volume + ", ticks=" + ticks + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.streaming.data.app.sda.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
@@ -8,20 +9,52 @@ import java.util.Objects;
 /**
  * Market data model representing bid, ask, and volume information
  * with timestamp for a financial instrument.
+ *
+ * Besides its wall-clock timestamp, each tick carries the
+ * {@link System#nanoTime()} at which it was created in this process, so the
+ * pipeline can measure how long the tick took to reach each stage. The
+ * creation time is not part of the tick's value: it is not serialized and
+ * does not take part in equality.
  */
 public class MarketData {
 
+    /**
+     * Symbol assigned to ticks created without an explicit instrument.
+     */
+    public static final String DEFAULT_SYMBOL = "SIM";
+
+    private final String symbol;
     @JsonProperty("timestamp")
     private final LocalDateTime timestamp;
     private final double bid;
     private final double ask;
     private final double volume;
+    @JsonIgnore
+    private final long createdNanos;
 
-    public MarketData(double bid, double ask, double volume, LocalDateTime timestamp) {
+    public MarketData(String symbol, double bid, double ask, double volume, LocalDateTime timestamp) {
+        this(symbol, bid, ask, volume, timestamp, System.nanoTime());
+    }
+
+    /**
+     * Creates a tick that keeps the creation time of the tick it was
+     * unpacked from, such as a row of a {@link TickBatch}.
+     */
+    MarketData(String symbol, double bid, double ask, double volume, LocalDateTime timestamp, long createdNanos) {
+        this.symbol = symbol;
         this.bid = bid;
         this.ask = ask;
         this.volume = volume;
         this.timestamp = timestamp;
+        this.createdNanos = createdNanos;
+    }
+
+    public MarketData(double bid, double ask, double volume, LocalDateTime timestamp) {
+        this(DEFAULT_SYMBOL, bid, ask, volume, timestamp);
+    }
+
+    public String getSymbol() {
+        return symbol;
     }
 
     public double getVolume() {
@@ -40,9 +73,18 @@ public class MarketData {
         return timestamp;
     }
 
+    /**
+     * Get the monotonic {@link System#nanoTime()} at which this tick was created
+     */
+    @JsonIgnore
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
     public String[] toCsvArray() {
         return new String[]{
                 timestamp.toString(),
+                symbol,
                 String.valueOf(bid),
                 String.valueOf(ask),
                 String.valueOf(volume)
@@ -57,17 +99,18 @@ public class MarketData {
         return Double.compare(bid, that.bid) == 0
                 && Double.compare(ask, that.ask) == 0
                 && Double.compare(volume, that.volume) == 0
+                && symbol.equals(that.symbol)
                 && timestamp.equals(that.timestamp);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(bid, ask, volume, timestamp);
+        return Objects.hash(symbol, bid, ask, volume, timestamp);
     }
 
     @Override
     public String toString() {
-        return "MarketData{ts=" + timestamp + ", bid=" + bid + ", ask=" + ask + ", volume=" + volume + "}";
+        return "MarketData{symbol=" + symbol + ", ts=" + timestamp + ", bid=" + bid + ", ask=" + ask + ", volume=" + volume + "}";
     }
 
 }
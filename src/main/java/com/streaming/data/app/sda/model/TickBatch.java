@@ -0,0 +1,230 @@
+package com.streaming.data.app.sda.model;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+
+/**
+ * A batch of ticks stored column by column in parallel primitive arrays.
+ *
+ * Row {@code i} of the batch is the tick made of {@code symbols[i]},
+ * {@code bids[i]}, {@code asks[i]} and so on. Timestamps are held as
+ * nanoseconds since 1970-01-01T00:00, local time read as UTC, as in
+ * {@link MarketDataBinaryCodec#toEpochNanos(LocalDateTime)}, so a row costs
+ * no objects beyond its symbol, which is shared with the instrument universe.
+ * The columns grow as rows are added and keep their size when the batch is
+ * cleared, so a reused batch stops allocating once it has seen its largest
+ * size.
+ *
+ * A batch taken from a {@link TickBatchPool} goes back to it on
+ * {@link #release()}; the rows must not be read after that. Batches are not
+ * thread-safe: one thread fills a batch, then hands it over to the thread
+ * that reads and releases it.
+ */
+public final class TickBatch {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final TickBatchPool pool;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private String[] symbols;
+    private long[] epochNanos;
+    private double[] bids;
+    private double[] asks;
+    private double[] volumes;
+    private long[] createdNanos;
+    private int size;
+
+    public TickBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TickBatch(int capacity) {
+        this(capacity, null);
+    }
+
+    TickBatch(int capacity, TickBatchPool pool) {
+        int initial = Math.max(1, capacity);
+        this.pool = pool;
+        this.symbols = new String[initial];
+        this.epochNanos = new long[initial];
+        this.bids = new double[initial];
+        this.asks = new double[initial];
+        this.volumes = new double[initial];
+        this.createdNanos = new long[initial];
+    }
+
+    /**
+     * Append a tick created now.
+     *
+     * @param epochNanos the tick's timestamp, in nanoseconds since the epoch
+     */
+    public void add(String symbol, double bid, double ask, double volume, long epochNanos) {
+        add(symbol, bid, ask, volume, epochNanos, System.nanoTime());
+    }
+
+    /**
+     * Append a tick, keeping its creation time.
+     */
+    public void add(MarketData data) {
+        add(data.getSymbol(), data.getBid(), data.getAsk(), data.getVolume(),
+                MarketDataBinaryCodec.toEpochNanos(data.getTimestamp()), data.getCreatedNanos());
+    }
+
+    private void add(String symbol, double bid, double ask, double volume, long epochNanos, long createdNanos) {
+        if (size == symbols.length) {
+            grow();
+        }
+        int i = size++;
+        this.symbols[i] = symbol;
+        this.epochNanos[i] = epochNanos;
+        this.bids[i] = bid;
+        this.asks[i] = ask;
+        this.volumes[i] = volume;
+        this.createdNanos[i] = createdNanos;
+    }
+
+    private void grow() {
+        int capacity = symbols.length * 2;
+        symbols = Arrays.copyOf(symbols, capacity);
+        epochNanos = Arrays.copyOf(epochNanos, capacity);
+        bids = Arrays.copyOf(bids, capacity);
+        asks = Arrays.copyOf(asks, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        createdNanos = Arrays.copyOf(createdNanos, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of rows the batch holds before its columns grow
+     */
+    public int capacity() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int row) {
+        return symbols[checkRow(row)];
+    }
+
+    /**
+     * Get a row's timestamp in nanoseconds since 1970-01-01T00:00, local time read as UTC
+     */
+    public long getEpochNanos(int row) {
+        return epochNanos[checkRow(row)];
+    }
+
+    public double getBid(int row) {
+        return bids[checkRow(row)];
+    }
+
+    public double getAsk(int row) {
+        return asks[checkRow(row)];
+    }
+
+    public double getVolume(int row) {
+        return volumes[checkRow(row)];
+    }
+
+    /**
+     * Get the monotonic {@link System#nanoTime()} at which a row's tick was created
+     */
+    public long getCreatedNanos(int row) {
+        return createdNanos[checkRow(row)];
+    }
+
+    /**
+     * Unpack a row into a tick object with the same creation time.
+     */
+    public MarketData toMarketData(int row) {
+        checkRow(row);
+        return new MarketData(symbols[row], bids[row], asks[row], volumes[row],
+                MarketDataBinaryCodec.fromEpochNanos(epochNanos[row]), createdNanos[row]);
+    }
+
+    /**
+     * Get a row as the fields {@link MarketData#toCsvArray()} would give for its tick.
+     */
+    public String[] toCsvArray(int row) {
+        checkRow(row);
+        return new String[]{
+                MarketDataBinaryCodec.fromEpochNanos(epochNanos[row]).toString(),
+                symbols[row],
+                String.valueOf(bids[row]),
+                String.valueOf(asks[row]),
+                String.valueOf(volumes[row])
+        };
+    }
+
+    /**
+     * Keep only the rows a predicate accepts, in their original order. The
+     * predicate is called once per row, in order, and may read the row it is
+     * given; rows are moved down only after they have been tested.
+     *
+     * @param keep tests a row index
+     * @return the number of rows kept, which is the new size
+     */
+    public int retainIf(IntPredicate keep) {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (!keep.test(row)) {
+                continue;
+            }
+            if (kept != row) {
+                symbols[kept] = symbols[row];
+                epochNanos[kept] = epochNanos[row];
+                bids[kept] = bids[row];
+                asks[kept] = asks[row];
+                volumes[kept] = volumes[row];
+                createdNanos[kept] = createdNanos[row];
+            }
+            kept++;
+        }
+        Arrays.fill(symbols, kept, size, null);
+        size = kept;
+        return kept;
+    }
+
+    /**
+     * Remove every row, keeping the columns for reuse.
+     */
+    public void clear() {
+        Arrays.fill(symbols, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Return the batch to the pool it was taken from, if any. Releasing a
+     * batch more than once has no further effect until it is taken again.
+     */
+    public void release() {
+        if (pool != null && released.compareAndSet(false, true)) {
+            clear();
+            pool.offer(this);
+        }
+    }
+
+    /**
+     * Mark a batch taken from the pool as in use again.
+     */
+    void acquired() {
+        released.set(false);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+        }
+        return row;
+    }
+}
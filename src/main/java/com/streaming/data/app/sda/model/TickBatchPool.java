@@ -0,0 +1,74 @@
+package com.streaming.data.app.sda.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of reusable {@link TickBatch}es.
+ *
+ * {@link #acquire()} hands out an empty batch, reusing a released one when
+ * the pool has any, and {@link TickBatch#release()} returns it. At most
+ * {@code maxPooled} idle batches are kept; batches released beyond that are
+ * left to the garbage collector. Safe for use from any thread.
+ */
+public final class TickBatchPool {
+
+    private final Queue<TickBatch> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final int maxPooled;
+    private final int initialCapacity;
+
+    /**
+     * @param maxPooled the most idle batches to keep
+     * @param initialCapacity the rows a new batch holds before its columns grow
+     */
+    public TickBatchPool(int maxPooled, int initialCapacity) {
+        if (maxPooled < 0 || initialCapacity < 1) {
+            throw new IllegalArgumentException("Pool needs maxPooled >= 0 and initialCapacity >= 1");
+        }
+        this.maxPooled = maxPooled;
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Take an empty batch from the pool, or create one if none is idle.
+     */
+    public TickBatch acquire() {
+        TickBatch batch = idle.poll();
+        if (batch == null) {
+            createdCount.increment();
+            return new TickBatch(initialCapacity, this);
+        }
+        idleCount.decrementAndGet();
+        batch.acquired();
+        return batch;
+    }
+
+    /**
+     * Keep a released batch if the pool has room.
+     */
+    void offer(TickBatch batch) {
+        if (idleCount.incrementAndGet() <= maxPooled) {
+            idle.offer(batch);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of batches waiting to be reused
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Get the number of batches the pool has created since it was built
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+}
@@ -0,0 +1,334 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.Bar;
+import com.streaming.data.app.sda.model.MarketData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the processed tick stream into OHLCV {@link Bar}s per
+ * instrument and configured interval.
+ *
+ * Each instrument keeps one running bar per interval, so a tick costs a map
+ * lookup and a few comparisons per interval, whatever the tick rate. Ticks
+ * fall into bars by their own timestamp. A bar is emitted when it closes:
+ * as soon as a tick of the same instrument arrives for a later bar, or once
+ * the clock has passed its end by the configured close delay, whichever
+ * comes first, so quiet instruments still get their bars on time. Ticks for
+ * a bar that has already been emitted are counted as late and left out.
+ * Intervals with no ticks produce no bar.
+ *
+ * Ticks and close checks are merged into one serialized stream, so the bar
+ * state is only ever touched by one thread at a time and takes no locks.
+ * Closed bars are published on {@link #getBars()} and, when export is
+ * enabled, appended to a CSV file.
+ */
+@Service
+public class BarAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(BarAggregator.class);
+
+    static final String CSV_HEADER = "symbol,interval,start,end,open,high,low,close,volume,ticks";
+
+    /** Longest wait between checks for bars to close. */
+    private static final long MAX_SWEEP_MILLIS = 100;
+    /** Signal merged into the tick stream to check for bars to close. */
+    private static final Object SWEEP = new Object();
+
+    private final StreamingConfig.BarsConfig config;
+    private final DataProcessingService dataProcessingService;
+    private final long[] intervalNanos;
+    private final String[] labels;
+    private final long closeDelayNanos;
+    /** Per interval, the start of the earliest bar the sweep has not closed; bars before it are closed. */
+    private final long[] sweptUpTo;
+    private final Map<String, BarState[]> states = new HashMap<>();
+    private final Sinks.Many<Bar> barSink = Sinks.many().multicast().directBestEffort();
+    private final Counter[] emittedCounters;
+    private final Counter lateCounter;
+
+    private Disposable subscription;
+    private BufferedWriter exportWriter;
+    private boolean exportDirty;
+
+    public BarAggregator(StreamingConfig streamingConfig, DataProcessingService dataProcessingService) {
+        this(streamingConfig, dataProcessingService, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public BarAggregator(StreamingConfig streamingConfig,
+                         DataProcessingService dataProcessingService,
+                         MeterRegistry meterRegistry) {
+        this.config = streamingConfig.getBars();
+        this.dataProcessingService = dataProcessingService;
+        List<Duration> intervals = config.getIntervals();
+        this.intervalNanos = new long[intervals.size()];
+        this.labels = new String[intervals.size()];
+        this.sweptUpTo = new long[intervals.size()];
+        this.emittedCounters = new Counter[intervals.size()];
+        this.closeDelayNanos = config.getCloseDelay().toNanos();
+        for (int i = 0; i < intervals.size(); i++) {
+            intervalNanos[i] = intervals.get(i).toNanos();
+            labels[i] = Bar.label(intervals.get(i));
+            sweptUpTo[i] = Long.MIN_VALUE;
+            emittedCounters[i] = Counter.builder("sda.bars.emitted")
+                    .description("Bars closed and published")
+                    .tag("interval", labels[i])
+                    .register(meterRegistry);
+        }
+        this.lateCounter = Counter.builder("sda.bars.late")
+                .description("Ticks that arrived after their bar was closed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the export file and subscribes to the processed stream, merged
+     * with a timer that closes bars whose interval has ended.
+     * @throws IOException if the export file cannot be opened
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        if (config.isExport()) {
+            openExport(Paths.get(config.getExportPath()));
+        }
+        long smallest = Long.MAX_VALUE;
+        for (long nanos : intervalNanos) {
+            smallest = Math.min(smallest, nanos);
+        }
+        Duration sweepPeriod = Duration.ofMillis(Math.max(1, Math.min(MAX_SWEEP_MILLIS, smallest / 1_000_000)));
+
+        this.subscription = Flux.merge(
+                        dataProcessingService.getProcessedDataStream(),
+                        Flux.interval(sweepPeriod).onBackpressureDrop().map(tick -> SWEEP))
+                .subscribe(
+                        this::handle,
+                        error -> logger.error("Error in bar aggregation stream", error)
+                );
+        logger.info("Bar aggregation enabled for intervals {}, closing {} ms after each interval ends",
+                List.of(labels), config.getCloseDelay().toMillis());
+    }
+
+    /**
+     * Cancels the subscription and closes the export file before bean destruction.
+     */
+    @PreDestroy
+    public synchronized void cleanup() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (exportWriter != null) {
+            try {
+                exportWriter.close();
+            } catch (IOException e) {
+                logger.warn("Error closing bar export", e);
+            }
+            exportWriter = null;
+        }
+        barSink.tryEmitComplete();
+    }
+
+    /**
+     * Check if bars are enabled for at least one interval
+     */
+    public boolean isEnabled() {
+        return config.isEnabled() && intervalNanos.length > 0;
+    }
+
+    /**
+     * Get the bars as they close, for every instrument and interval. Bars
+     * closed while there is no subscriber are not kept, and a subscriber
+     * that cannot keep up misses bars rather than delaying aggregation.
+     */
+    public Flux<Bar> getBars() {
+        return barSink.asFlux();
+    }
+
+    /**
+     * Get the labels of the configured intervals, in configuration order
+     */
+    public List<String> getIntervalLabels() {
+        return List.of(labels);
+    }
+
+    private void handle(Object signal) {
+        try {
+            if (signal == SWEEP) {
+                closeUpTo(MarketDataBinaryCodec.toEpochNanos(LocalDateTime.now()));
+            } else {
+                accept((MarketData) signal);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error aggregating bars for {}", signal, e);
+        }
+    }
+
+    /**
+     * Add a tick to the running bars of its instrument, closing any it has
+     * moved past. Must only be called from one thread at a time.
+     */
+    public void accept(MarketData data) {
+        BarState[] bars = states.get(data.getSymbol());
+        if (bars == null) {
+            bars = new BarState[intervalNanos.length];
+            for (int i = 0; i < bars.length; i++) {
+                bars[i] = new BarState();
+            }
+            states.put(data.getSymbol(), bars);
+        }
+        long epochNanos = MarketDataBinaryCodec.toEpochNanos(data.getTimestamp());
+        double mid = (data.getBid() + data.getAsk()) / 2;
+        for (int i = 0; i < bars.length; i++) {
+            BarState bar = bars[i];
+            long start = Math.floorDiv(epochNanos, intervalNanos[i]) * intervalNanos[i];
+            if (bar.ticks > 0 && start == bar.start) {
+                bar.add(mid, data.getVolume());
+            } else if (start > bar.start && start >= sweptUpTo[i]) {
+                if (bar.ticks > 0) {
+                    emit(data.getSymbol(), i, bar);
+                }
+                bar.open(start, mid, data.getVolume());
+            } else {
+                lateCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Close every bar whose interval ended at least the close delay before
+     * the given time. Each interval's bars are only scanned once the time
+     * passes the end of another of its intervals. Must only be called from
+     * one thread at a time.
+     *
+     * @param epochNanos the time now, in nanoseconds since 1970-01-01T00:00 (local time read as UTC)
+     */
+    public void closeUpTo(long epochNanos) {
+        for (int i = 0; i < intervalNanos.length; i++) {
+            // Bars starting before this have ended at least closeDelay ago
+            long closable = Math.floorDiv(epochNanos - closeDelayNanos, intervalNanos[i]) * intervalNanos[i];
+            if (closable <= sweptUpTo[i]) {
+                continue;
+            }
+            sweptUpTo[i] = closable;
+            for (Map.Entry<String, BarState[]> entry : states.entrySet()) {
+                BarState bar = entry.getValue()[i];
+                if (bar.ticks > 0 && bar.start < closable) {
+                    emit(entry.getKey(), i, bar);
+                }
+            }
+        }
+        flushExport();
+    }
+
+    private void emit(String symbol, int interval, BarState state) {
+        Bar bar = new Bar(symbol, labels[interval],
+                MarketDataBinaryCodec.fromEpochNanos(state.start),
+                MarketDataBinaryCodec.fromEpochNanos(state.start + intervalNanos[interval]),
+                state.open, state.high, state.low, state.close, state.volume, state.ticks);
+        state.ticks = 0;
+        emittedCounters[interval].increment();
+        export(bar);
+        barSink.tryEmitNext(bar);
+    }
+
+    private synchronized void openExport(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+        exportWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (fresh) {
+            exportWriter.write(CSV_HEADER);
+            exportWriter.newLine();
+        }
+        logger.info("Exporting bars to {}", path);
+    }
+
+    private synchronized void export(Bar bar) {
+        if (exportWriter == null) {
+            return;
+        }
+        try {
+            exportWriter.write(bar.toCsvRow());
+            exportWriter.newLine();
+            exportDirty = true;
+        } catch (IOException e) {
+            logger.error("Error exporting bar {}", bar, e);
+        }
+    }
+
+    private synchronized void flushExport() {
+        if (exportWriter == null || !exportDirty) {
+            return;
+        }
+        try {
+            exportWriter.flush();
+            exportDirty = false;
+        } catch (IOException e) {
+            logger.error("Error flushing bar export", e);
+        }
+    }
+
+    /**
+     * The running bar of one instrument over one interval. It holds ticks
+     * while {@code ticks > 0}; {@code start} is kept after it is emitted, so
+     * that ticks for it are recognised as late.
+     */
+    private static final class BarState {
+        long start = Long.MIN_VALUE;
+        double open;
+        double high;
+        double low;
+        double close;
+        double volume;
+        long ticks;
+
+        void open(long start, double price, double volume) {
+            this.start = start;
+            this.open = price;
+            this.high = price;
+            this.low = price;
+            this.close = price;
+            this.volume = volume;
+            this.ticks = 1;
+        }
+
+        void add(double price, double volume) {
+            if (price > high) {
+                high = price;
+            } else if (price < low) {
+                low = price;
+            }
+            close = price;
+            this.volume += volume;
+            ticks++;
+        }
+    }
+}
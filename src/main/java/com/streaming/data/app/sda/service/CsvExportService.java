@@ -2,61 +2,341 @@ package com.streaming.data.app.sda.service;
 
 import com.opencsv.CSVWriter;
 import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.CsvConfig.Durability;
+import com.streaming.data.app.sda.config.StreamingConfig.CsvConfig.Formatter;
+import com.streaming.data.app.sda.config.StreamingConfig.CsvConfig.RollInterval;
+import com.streaming.data.app.sda.codec.MarketDataCsvWriter;
 import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service responsible for exporting market data to CSV files
  * with configurable paths and thread-safe operations.
+ *
+ * The file is opened once and appended to through a large write buffer.
+ * Rows are formatted by a {@link MarketDataCsvWriter} straight into that
+ * buffer without per-row allocation, or by OpenCSV when the {@code OPENCSV}
+ * formatter is configured; both produce the same bytes.
+ * Batches arrive either as lists of ticks or as columnar {@link TickBatch}es,
+ * which are written straight from their columns; lists are copied into
+ * pooled batches first, so both take the same write path.
+ * Concurrent {@link #exportBatch} callers are group-committed: each queues its
+ * batch, and whichever caller holds the write lock writes every queued batch
+ * in one pass, so waiting callers usually find their rows already written.
+ * How far rows are pushed towards the disk is set by the configured
+ * {@link Durability}. The file is flushed, forced and closed on shutdown.
+ *
+ * When a segment size or roll interval is configured, the file is rolled:
+ * once it grows past the size or its time window ends, it is closed, moved
+ * aside as a timestamped segment and replaced by a new file with its own
+ * header. Closed segments are compressed and pruned by a
+ * {@link CsvSegmentArchiver} in the background.
+ *
+ * Unless disabled, a sparse {@link CsvOffsetIndex} is kept next to the file,
+ * costing one flush and one 16-byte write every {@code indexInterval} rows.
+ *
+ * The size of each exported batch and the time its caller spends in
+ * {@link #exportBatch}, including any wait for another caller's commit, are
+ * recorded as the {@code sda.csv.batch.size} and {@code sda.csv.write} meters.
+ * Each row's latency from tick creation is recorded with the
+ * {@link LatencyTracker} once the row is as durable as configured: written,
+ * flushed or forced to disk.
  */
 @Service
 public class CsvExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvExportService.class);
 
-    private static final String[] CSV_HEADERS = {"Timestamp", "Bid", "Ask", "Volume"};
+    private static final String[] CSV_HEADERS = {"Timestamp", "Symbol", "Bid", "Ask", "Volume"};
 
     private final StreamingConfig config;
     private final ReentrantLock writeLock = new ReentrantLock();
+    private final Queue<TickBatch> pendingBatches = new ConcurrentLinkedQueue<>();
+    /** Columnar copies of exported lists. */
+    private final TickBatchPool listBatches = new TickBatchPool(16, 256);
+    private final DistributionSummary batchSize;
+    private final Timer writeTimer;
+    private final LatencyTracker latencyTracker;
+    /** Rows written but not yet as durable as configured; guarded by the write lock. */
+    private final LatencyTracker.Pending unsyncedLatencies = new LatencyTracker.Pending();
+    /** Rows being forced by the fsync thread. */
+    private final LatencyTracker.Pending syncingLatencies = new LatencyTracker.Pending();
 
     private Path csvFilePath;
     private boolean headerWritten = false;
+    private FileChannel channel;
+    private CSVWriter csvWriter;
+    private MarketDataCsvWriter rowWriter;
+    private ByteBuffer writeBuffer;
+    private CsvOffsetIndex offsetIndex;
+    private ScheduledExecutorService fsyncScheduler;
+    private volatile boolean unsynced;
+    private boolean closed;
+    private CsvSegmentArchiver archiver;
+    private volatile LocalDateTime segmentOpenedAt;
+    private LocalDateTime segmentWindowEnd;
 
     public CsvExportService(StreamingConfig config) {
+        this(config, new SimpleMeterRegistry(), LatencyTracker.disabled());
+    }
+
+    @Autowired
+    public CsvExportService(StreamingConfig config, MeterRegistry meterRegistry, LatencyTracker latencyTracker) {
         this.config = config;
+        this.latencyTracker = latencyTracker;
+        this.batchSize = DistributionSummary.builder("sda.csv.batch.size")
+                .description("Records per exported CSV batch")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("sda.csv.write")
+                .description("Time to write an exported batch, including waiting for the write lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
-     * Initializes the CSV export file after bean creation.
+     * Opens the CSV export file after bean creation, writing headers if it is new.
      * @throws IOException if directory creation or file operations fail
      */
     @PostConstruct
     public void initialize() throws IOException {
-        this.csvFilePath = Paths.get(config.getCsv().getExportPath());
+        StreamingConfig.CsvConfig csvConfig = config.getCsv();
+        this.csvFilePath = Paths.get(csvConfig.getExportPath());
 
         // Create directories if they don't exist
-        Files.createDirectories(csvFilePath.getParent());
+        Files.createDirectories(csvFilePath.toAbsolutePath().getParent());
+
+        this.closed = false;
+        if (csvConfig.getFormatter() == Formatter.DIRECT) {
+            rowWriter = new MarketDataCsvWriter();
+            writeBuffer = ByteBuffer.allocate(csvConfig.getWriteBufferSize());
+        }
+        openSegment();
+
+        if (csvConfig.getSegmentSize().toBytes() > 0 || csvConfig.getRollInterval() != RollInterval.NONE) {
+            archiver = new CsvSegmentArchiver(csvFilePath, csvConfig.isCompressSegments(), csvConfig.getMaxSegments());
+            archiver.resumePending();
+        }
+
+        if (csvConfig.getDurability() == Durability.FSYNC) {
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "csv-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncScheduler.scheduleWithFixedDelay(this::sync,
+                    csvConfig.getFsyncInterval(), csvConfig.getFsyncInterval(), TimeUnit.MILLISECONDS);
+        }
+
+        logger.info("CSV export initialized. File path: {}, durability: {}, formatter: {}",
+                csvFilePath.toAbsolutePath(), csvConfig.getDurability(), csvConfig.getFormatter());
+    }
 
-        // Initialize CSV file with headers if it doesn't exist
-        if (!Files.exists(csvFilePath)) {
+    /**
+     * Opens the active file for appending. A new file gets headers; an
+     * existing non-empty file is assumed to have its headers already.
+     */
+    private void openSegment() throws IOException {
+        this.channel = FileChannel.open(csvFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (rowWriter == null) {
+            this.csvWriter = new CSVWriter(new BufferedWriter(
+                    new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8),
+                    config.getCsv().getWriteBufferSize()));
+        }
+
+        if (channel.size() == 0) {
+            segmentOpenedAt = LocalDateTime.now();
             writeHeaders();
         } else {
-            // File exists, assume headers are already written
+            FileTime created = Files.readAttributes(csvFilePath, BasicFileAttributes.class).creationTime();
+            segmentOpenedAt = LocalDateTime.ofInstant(created.toInstant(), ZoneId.systemDefault());
             headerWritten = true;
         }
+        segmentWindowEnd = windowEnd(segmentOpenedAt, config.getCsv().getRollInterval());
+
+        if (config.getCsv().getIndexInterval() > 0) {
+            try {
+                offsetIndex = CsvOffsetIndex.open(csvFilePath, config.getCsv().getIndexInterval());
+            } catch (IOException e) {
+                logger.error("Error opening CSV index for {}, exporting without it", csvFilePath, e);
+                offsetIndex = null;
+            }
+        }
+    }
 
-        logger.info("CSV export initialized. File path: {}", csvFilePath.toAbsolutePath());
+    /**
+     * Adds an index entry for the row about to be written if one is due. The
+     * writer is flushed first so the file size is the row's offset. Index
+     * errors are logged and stop indexing rather than failing the export.
+     * Must be called with the write lock held.
+     */
+    private void indexRow(TickBatch batch, int row) throws IOException {
+        if (offsetIndex == null || !offsetIndex.rowStarting()) {
+            return;
+        }
+        flushWriter();
+        try {
+            offsetIndex.append(batch.getEpochNanos(row), channel.size());
+        } catch (IOException e) {
+            logger.error("Error writing CSV index for {}, exporting without it", csvFilePath, e);
+            closeIndex();
+        }
+    }
+
+    /**
+     * Appends a tick row to the write buffer.
+     */
+    private void writeRow(TickBatch batch, int row) throws IOException {
+        if (rowWriter == null) {
+            csvWriter.writeNext(batch.toCsvArray(row));
+        } else {
+            buffer(rowWriter.format(batch, row));
+        }
+    }
+
+    /**
+     * Appends a row of plain fields, such as the header, to the write buffer.
+     */
+    private void writeRow(String[] fields) throws IOException {
+        if (rowWriter == null) {
+            csvWriter.writeNext(fields);
+        } else {
+            buffer(rowWriter.format(fields));
+        }
+    }
+
+    /**
+     * Copies a formatted row into the write buffer, draining the buffer to the
+     * file first if the row does not fit. A row larger than the whole buffer
+     * is written straight through.
+     */
+    private void buffer(ByteBuffer row) throws IOException {
+        if (row.remaining() > writeBuffer.remaining()) {
+            drainWriteBuffer();
+        }
+        if (row.remaining() > writeBuffer.remaining()) {
+            writeFully(row);
+        } else {
+            writeBuffer.put(row);
+        }
+    }
+
+    private void drainWriteBuffer() throws IOException {
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Pushes buffered rows to the file.
+     */
+    private void flushWriter() throws IOException {
+        if (rowWriter == null) {
+            csvWriter.flush();
+        } else {
+            drainWriteBuffer();
+        }
+    }
+
+    /**
+     * Closes the file. Buffered rows must have been flushed.
+     */
+    private void closeWriter() throws IOException {
+        if (rowWriter == null) {
+            csvWriter.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    private void closeIndex() {
+        if (offsetIndex == null) {
+            return;
+        }
+        try {
+            offsetIndex.close();
+        } catch (IOException e) {
+            logger.warn("Error closing CSV index for {}", csvFilePath, e);
+        }
+        offsetIndex = null;
+    }
+
+    /**
+     * Get the end of the roll window containing a time, or null if files are not rolled by time
+     */
+    private static LocalDateTime windowEnd(LocalDateTime time, RollInterval interval) {
+        switch (interval) {
+            case HOURLY:
+                return time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            case DAILY:
+                return time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            case NONE:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Closes the active file, hands it to the archiver and opens a new one.
+     * Must be called with the write lock held.
+     */
+    private void roll() throws IOException {
+        flushWriter();
+        if (config.getCsv().getDurability() == Durability.FSYNC) {
+            channel.force(false);
+            unsyncedLatencies.recordAll(latencyTracker, LatencyTracker.Stage.CSV);
+        }
+        closeWriter();
+        closeIndex();
+        try {
+            Path segment = archiver.archive(csvFilePath, segmentOpenedAt);
+            logger.info("Rolled CSV export to segment {}", segment);
+        } finally {
+            openSegment();
+        }
     }
 
     /**
@@ -69,28 +349,99 @@ public class CsvExportService {
             return;
         }
 
+        TickBatch batch = listBatches.acquire();
+        try {
+            for (MarketData data : marketDataBatch) {
+                batch.add(data);
+            }
+            exportBatch(batch);
+        } finally {
+            batch.release();
+        }
+    }
+
+    /**
+     * Export a columnar batch of market data to CSV file. The batch has been
+     * written by the time this returns, and stays owned by the caller.
+     *
+     * @param tickBatch the ticks to export
+     */
+    public void exportBatch(TickBatch tickBatch) {
+        if (tickBatch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        pendingBatches.add(tickBatch);
         writeLock.lock();
-        try (CSVWriter csvWriter = new CSVWriter(new FileWriter(csvFilePath.toFile(), true))) {
+        try {
+            commitPending();
+        } finally {
+            writeLock.unlock();
+        }
+        writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(tickBatch.size());
+    }
+
+    /**
+     * Writes every queued batch and applies the durability policy once for all of them.
+     * Must be called with the write lock held.
+     */
+    private void commitPending() {
+        if (pendingBatches.isEmpty()) {
+            return;
+        }
+        if (closed) {
+            int dropped = 0;
+            for (TickBatch batch; (batch = pendingBatches.poll()) != null; ) {
+                dropped += batch.size();
+            }
+            logger.warn("CSV export is closed, dropping {} market data records", dropped);
+            return;
+        }
+
+        int batches = 0;
+        int records = 0;
+        try {
+            if (segmentWindowEnd != null && !LocalDateTime.now().isBefore(segmentWindowEnd)) {
+                roll();
+            }
 
             // Write headers if not written yet
             if (!headerWritten) {
-                csvWriter.writeNext(CSV_HEADERS);
+                writeRow(CSV_HEADERS);
                 headerWritten = true;
             }
 
-            // Write market data
-            for (MarketData data : marketDataBatch) {
-                csvWriter.writeNext(data.toCsvArray());
+            for (TickBatch batch; (batch = pendingBatches.poll()) != null; ) {
+                for (int row = 0; row < batch.size(); row++) {
+                    indexRow(batch, row);
+                    writeRow(batch, row);
+                    if (latencyTracker.isEnabled()) {
+                        unsyncedLatencies.add(batch.getCreatedNanos(row));
+                    }
+                }
+                batches++;
+                records += batch.size();
             }
 
-            csvWriter.flush();
+            if (config.getCsv().getDurability() != Durability.NONE) {
+                flushWriter();
+            }
+            if (config.getCsv().getDurability() != Durability.FSYNC) {
+                unsyncedLatencies.recordAll(latencyTracker, LatencyTracker.Stage.CSV);
+            }
+            unsynced = true;
 
-            logger.info("Exported {} market data records to CSV", marketDataBatch.size());
+            logger.info("Exported {} market data records in {} batches to CSV", records, batches);
+
+            long segmentSize = config.getCsv().getSegmentSize().toBytes();
+            if (segmentSize > 0 && channel.size() >= segmentSize) {
+                roll();
+            }
 
         } catch (IOException e) {
             logger.error("Error writing to CSV file: {}", csvFilePath, e);
-        } finally {
-            writeLock.unlock();
         }
     }
 
@@ -103,14 +454,88 @@ public class CsvExportService {
         exportBatch(List.of(marketData));
     }
 
+    /**
+     * Forces rows written since the last sync to disk. The flush happens under
+     * the write lock; the slower force does not hold up writers.
+     */
+    private void sync() {
+        if (!unsynced) {
+            return;
+        }
+        FileChannel segmentChannel;
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            unsynced = false;
+            flushWriter();
+            unsyncedLatencies.moveTo(syncingLatencies);
+            segmentChannel = channel;
+        } catch (IOException e) {
+            logger.error("Error flushing CSV file: {}", csvFilePath, e);
+            return;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            segmentChannel.force(false);
+            syncingLatencies.recordAll(latencyTracker, LatencyTracker.Stage.CSV);
+        } catch (ClosedChannelException e) {
+            // Rolled meanwhile; a rolled segment is forced before it is closed
+            syncingLatencies.recordAll(latencyTracker, LatencyTracker.Stage.CSV);
+        } catch (IOException e) {
+            logger.error("Error syncing CSV file: {}", csvFilePath, e);
+        }
+    }
+
+    /**
+     * Writes anything still queued or buffered, forces it to disk and closes
+     * the file before bean destruction.
+     */
+    @PreDestroy
+    public void close() {
+        if (fsyncScheduler != null) {
+            // Not shutdownNow: interrupting a force would close the channel
+            fsyncScheduler.shutdown();
+            try {
+                fsyncScheduler.awaitTermination(config.getCsv().getFsyncInterval(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            if (closed || channel == null) {
+                return;
+            }
+            commitPending();
+            closed = true;
+            flushWriter();
+            channel.force(false);
+            unsyncedLatencies.recordAll(latencyTracker, LatencyTracker.Stage.CSV);
+            closeWriter();
+            closeIndex();
+            logger.info("CSV export closed. File path: {}", csvFilePath.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Error closing CSV file: {}", csvFilePath, e);
+        } finally {
+            writeLock.unlock();
+        }
+        if (archiver != null) {
+            archiver.close(30, TimeUnit.SECONDS);
+        }
+    }
+
     /**
      * Write Headers to CSV file
-     * @throws IOException if file not found
+     * @throws IOException if the file cannot be written
      */
     private void writeHeaders() throws IOException {
         writeLock.lock();
-        try (CSVWriter csvWriter = new CSVWriter(new FileWriter(csvFilePath.toFile()))) {
-            csvWriter.writeNext(CSV_HEADERS);
+        try {
+            writeRow(CSV_HEADERS);
+            flushWriter();
             headerWritten = true;
             logger.info("CSV headers written to file");
         } finally {
@@ -125,6 +550,29 @@ public class CsvExportService {
         return csvFilePath;
     }
 
+    /**
+     * Get the closed segments of the export, oldest first
+     */
+    public List<Path> getSegments() {
+        return archiver == null ? List.of() : archiver.listSegments();
+    }
+
+    /**
+     * Get when a closed segment was opened, to the second, as recorded in its name
+     *
+     * @return the opened-at time, or null if it cannot be told from the name
+     */
+    public LocalDateTime getSegmentStart(Path segment) {
+        return archiver == null ? null : archiver.segmentStart(segment);
+    }
+
+    /**
+     * Get when the active file was opened
+     */
+    public LocalDateTime getSegmentOpenedAt() {
+        return segmentOpenedAt;
+    }
+
     /**
      * Check if CSV file exists and has data
      */
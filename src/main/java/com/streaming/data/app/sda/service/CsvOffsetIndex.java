@@ -0,0 +1,313 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Sparse index from tick timestamps to byte offsets in a CSV export file,
+ * kept next to it as {@code <file>.idx}.
+ *
+ * Every {@code interval}-th data row gets a 16-byte entry: the row's
+ * timestamp as epoch nanoseconds, then the byte offset where the row starts,
+ * both big-endian. Entries are appended as the file is written, so a range
+ * reader can binary search the index and seek to within about two
+ * {@code interval}s of rows before the first row it wants instead of
+ * scanning the whole file.
+ *
+ * The export is written in processing order, which is close to but not
+ * strictly timestamp order. A seek starts one entry before the last entry
+ * earlier than the requested time, so rows slightly out of order around that
+ * entry are not skipped; rows more than an interval out of order may be,
+ * unless the reader asks for a time earlier by its own skew margin, as
+ * {@link ReplayService} does.
+ *
+ * A gzip-compressed segment keeps an index too: the segment is compressed as
+ * one gzip member per index entry, and the entry's offset is where its
+ * member starts, so a reader can seek there and decompress from that point.
+ *
+ * When the index is opened for writing, entries pointing
+ * past the end of the data are dropped and rows after the last entry are
+ * indexed from the data file, so a missing or stale index is rebuilt.
+ */
+public class CsvOffsetIndex implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvOffsetIndex.class);
+
+    /** Size in bytes of an index entry. */
+    public static final int ENTRY_SIZE = 16;
+
+    private static final String SUFFIX = ".idx";
+
+    private final FileChannel channel;
+    private final int interval;
+    private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+    private int rowsSinceEntry;
+
+    private CsvOffsetIndex(FileChannel channel, int interval, int rowsSinceEntry) {
+        this.channel = channel;
+        this.interval = interval;
+        this.rowsSinceEntry = rowsSinceEntry;
+    }
+
+    /**
+     * Get the index file of a data file
+     */
+    public static Path pathFor(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Opens the index of a data file for appending, first bringing it up to
+     * date with the rows already in the file.
+     *
+     * @param dataFile the CSV export file
+     * @param interval number of rows per index entry
+     * @return the open index
+     * @throws IOException if either file cannot be read or the index written
+     */
+    static CsvOffsetIndex open(Path dataFile, int interval) throws IOException {
+        FileChannel channel = FileChannel.open(pathFor(dataFile),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long dataSize = Files.size(dataFile);
+            long entries = channel.size() / ENTRY_SIZE;
+            long resumeOffset = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+            while (entries > 0) {
+                long offset = readOffset(channel, entries - 1, buffer);
+                if (offset < dataSize) {
+                    resumeOffset = offset;
+                    break;
+                }
+                entries--;
+            }
+            channel.truncate(entries * ENTRY_SIZE);
+            channel.position(entries * ENTRY_SIZE);
+
+            CsvOffsetIndex index = new CsvOffsetIndex(channel, interval, interval);
+            int added = index.indexRows(dataFile, resumeOffset, entries > 0);
+            if (added > 0) {
+                logger.info("Rebuilt {} CSV index entries for {} from offset {}", added, dataFile, resumeOffset);
+            }
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Scans the rows of the data file from an offset, adding the entries the
+     * writer would have added. If the first row is already indexed it is
+     * counted but not added again.
+     */
+    private int indexRows(Path dataFile, long start, boolean firstIndexed) throws IOException {
+        int added = 0;
+        boolean skipEntry = firstIndexed;
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            data.position(start);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(data), 1 << 16);
+            byte[] line = new byte[256];
+            long offset = start;
+            while (true) {
+                int length = 0;
+                int read;
+                while ((read = in.read()) >= 0 && read != '\n') {
+                    if (length < line.length) {
+                        line[length] = (byte) read;
+                    }
+                    length++;
+                }
+                if (read < 0) {
+                    // A trailing partial row is indexed once it is complete
+                    break;
+                }
+                long epochNanos = parseEpochNanos(line, Math.min(length, line.length));
+                if (epochNanos != Long.MIN_VALUE) {
+                    if (skipEntry) {
+                        skipEntry = false;
+                        rowsSinceEntry = 1;
+                    } else if (rowStarting()) {
+                        append(epochNanos, offset);
+                        added++;
+                    }
+                }
+                offset += length + 1;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Parses the timestamp at the start of an exported row, or returns
+     * {@link Long#MIN_VALUE} for headers and rows that do not start with one.
+     */
+    private static long parseEpochNanos(byte[] line, int length) {
+        int start = length > 0 && line[0] == '"' ? 1 : 0;
+        int end = start;
+        while (end < length && line[end] != '"' && line[end] != ',') {
+            end++;
+        }
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(new String(line, start, end - start, StandardCharsets.US_ASCII));
+            return MarketDataBinaryCodec.toEpochNanos(timestamp);
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Counts a row about to be written and tells whether it gets an entry.
+     * The first row after opening a new file always does.
+     *
+     * @return true if {@link #append} should be called for this row
+     */
+    boolean rowStarting() {
+        if (rowsSinceEntry >= interval) {
+            rowsSinceEntry = 1;
+            return true;
+        }
+        rowsSinceEntry++;
+        return false;
+    }
+
+    /**
+     * Appends an entry.
+     *
+     * @param epochNanos timestamp of the row
+     * @param offset byte offset where the row starts
+     * @throws IOException if the index cannot be written
+     */
+    void append(long epochNanos, long offset) throws IOException {
+        entry.clear();
+        entry.putLong(epochNanos).putLong(offset).flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds where a reader should start to see every row at or after a time.
+     * Returns the offset of the indexed row one entry before the last one
+     * strictly before the time, so rows sharing the timestamp or written
+     * slightly out of order just before that entry are not skipped, or 0 if
+     * there is none or the file has no index.
+     *
+     * @param dataFile the CSV export file
+     * @param epochNanos the earliest timestamp wanted
+     * @return byte offset to start reading from
+     * @throws IOException if the index cannot be read
+     */
+    public static long seek(Path dataFile, long epochNanos) throws IOException {
+        Path indexFile = pathFor(dataFile);
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+        long dataSize = Files.size(dataFile);
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+            long low = 0;
+            long high = channel.size() / ENTRY_SIZE - 1;
+            long found = -1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                readEntry(channel, mid, buffer);
+                if (buffer.getLong(0) < epochNanos) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (found < 1) {
+                return 0;
+            }
+            long offset = readOffset(channel, found - 1, buffer);
+            return offset < dataSize ? offset : 0;
+        }
+    }
+
+    /**
+     * Reads every entry of a data file's index.
+     *
+     * @param dataFile the CSV export file
+     * @return the entries as {timestamps, offsets}, both empty if the file has no index
+     * @throws IOException if the index cannot be read
+     */
+    static long[][] readEntries(Path dataFile) throws IOException {
+        Path indexFile = pathFor(dataFile);
+        if (!Files.exists(indexFile)) {
+            return new long[][]{new long[0], new long[0]};
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            int count = (int) (channel.size() / ENTRY_SIZE);
+            long[] timestamps = new long[count];
+            long[] offsets = new long[count];
+            ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+            for (int i = 0; i < count; i++) {
+                readEntry(channel, i, buffer);
+                timestamps[i] = buffer.getLong(0);
+                offsets[i] = buffer.getLong(8);
+            }
+            return new long[][]{timestamps, offsets};
+        }
+    }
+
+    /**
+     * Writes a complete index for a data file, replacing any it had.
+     *
+     * @param dataFile the file the offsets point into
+     * @param timestamps entry timestamps, in entry order
+     * @param offsets entry offsets, in entry order
+     * @param count number of entries to write
+     * @throws IOException if the index cannot be written
+     */
+    static void writeEntries(Path dataFile, long[] timestamps, long[] offsets, int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathFor(dataFile), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(count * ENTRY_SIZE);
+            for (int i = 0; i < count; i++) {
+                buffer.putLong(timestamps[i]).putLong(offsets[i]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static long readOffset(FileChannel channel, long entryIndex, ByteBuffer buffer) throws IOException {
+        readEntry(channel, entryIndex, buffer);
+        return buffer.getLong(8);
+    }
+
+    private static void readEntry(FileChannel channel, long entryIndex, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        long position = entryIndex * ENTRY_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated CSV index entry " + entryIndex);
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.streaming.data.app.sda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Turns closed CSV export segments into archived files next to the active one.
+ *
+ * A segment of {@code market-data.csv} opened at 2024-03-01 12:00:00 is
+ * renamed to {@code market-data-20240301-120000.csv}, so segment names sort
+ * by age; a second segment opened in the same second gets a {@code -1}
+ * suffix, and so on. Gzip compression and retention run on a single
+ * background thread, leaving the export write path with only the rename.
+ * A segment's {@link CsvOffsetIndex} goes with it, and is rewritten to point
+ * at gzip member boundaries when the segment is compressed.
+ */
+class CsvSegmentArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvSegmentArchiver.class);
+
+    private static final DateTimeFormatter SEGMENT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int SEGMENT_STAMP_LENGTH = "yyyyMMdd-HHmmss".length();
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final Path directory;
+    private final String baseName;
+    private final String extension;
+    private final boolean compress;
+    private final int maxSegments;
+    private final ExecutorService executor;
+
+    /**
+     * @param activeFile path of the file being written
+     * @param compress whether closed segments are gzip-compressed
+     * @param maxSegments number of closed segments to keep, 0 to keep all
+     */
+    CsvSegmentArchiver(Path activeFile, boolean compress, int maxSegments) {
+        Path absolute = activeFile.toAbsolutePath();
+        String fileName = absolute.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        this.directory = absolute.getParent();
+        this.baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        this.extension = dot > 0 ? fileName.substring(dot) : "";
+        this.compress = compress;
+        this.maxSegments = maxSegments;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "csv-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Moves a closed active file aside as a segment and schedules its
+     * compression and the retention sweep.
+     *
+     * @param activeFile the closed file
+     * @param openedAt when the segment was started, used in its name
+     * @return the segment path before compression
+     * @throws IOException if the file cannot be renamed
+     */
+    Path archive(Path activeFile, LocalDateTime openedAt) throws IOException {
+        String stamp = baseName + "-" + SEGMENT_STAMP.format(openedAt);
+        Path segment = directory.resolve(stamp + extension);
+        for (int n = 1; Files.exists(segment) || Files.exists(gzipPath(segment)); n++) {
+            segment = directory.resolve(stamp + "-" + n + extension);
+        }
+        Files.move(activeFile, segment, StandardCopyOption.ATOMIC_MOVE);
+        moveIndex(activeFile, segment);
+
+        Path closed = segment;
+        executor.execute(() -> {
+            if (compress) {
+                compress(closed);
+            }
+            applyRetention();
+        });
+        return segment;
+    }
+
+    /**
+     * Keeps the offset index of a segment with it. A segment to be compressed
+     * has its index rewritten against the compressed file by {@link #compress}.
+     */
+    private void moveIndex(Path activeFile, Path segment) throws IOException {
+        Path index = CsvOffsetIndex.pathFor(activeFile);
+        if (Files.exists(index)) {
+            Files.move(index, CsvOffsetIndex.pathFor(segment), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Schedules compression of segments left uncompressed by an earlier run.
+     * They are listed up front, so a segment archived meanwhile is left to
+     * its own task rather than compressed before its index has moved.
+     */
+    void resumePending() {
+        if (!compress) {
+            return;
+        }
+        List<Path> pending = listSegments();
+        executor.execute(() -> {
+            for (Path segment : pending) {
+                if (!segment.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+                    compress(segment);
+                }
+            }
+            applyRetention();
+        });
+    }
+
+    /**
+     * Get the closed segments, oldest first
+     */
+    List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        String glob = baseName + "-*" + extension + "{," + GZIP_SUFFIX + "}";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            logger.error("Error listing CSV segments in {}", directory, e);
+        }
+        segments.sort(Comparator.comparing(this::segmentStamp).thenComparingInt(this::segmentCounter));
+        return segments;
+    }
+
+    /**
+     * The opened-at stamp of a segment name, {@code yyyyMMdd-HHmmss}.
+     */
+    private String segmentStamp(Path segment) {
+        String name = segment.getFileName().toString();
+        int start = baseName.length() + 1;
+        return name.substring(start, Math.min(name.length(), start + SEGMENT_STAMP_LENGTH));
+    }
+
+    /**
+     * Get when a segment was opened, to the second, from its name
+     *
+     * @return the opened-at time, or null if the name carries no valid stamp
+     */
+    LocalDateTime segmentStart(Path segment) {
+        try {
+            return LocalDateTime.parse(segmentStamp(segment), SEGMENT_STAMP);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The collision counter of a segment name, 0 for the first segment with a stamp.
+     */
+    private int segmentCounter(Path segment) {
+        String name = segment.getFileName().toString();
+        int start = baseName.length() + 1 + SEGMENT_STAMP_LENGTH;
+        if (name.length() <= start || name.charAt(start) != '-') {
+            return 0;
+        }
+        int end = name.indexOf('.', start);
+        try {
+            return Integer.parseInt(name.substring(start + 1, end < 0 ? name.length() : end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Waits for scheduled compression to finish.
+     */
+    void close(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                logger.warn("CSV segment compression still running after {} {}", timeout, unit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gzips a segment into one member per index entry, plus one for the rows
+     * before the first entry, and writes an index of where each member starts.
+     * A segment without an index becomes a single member.
+     */
+    private void compress(Path segment) {
+        if (!Files.exists(segment)) {
+            // Pruned by retention while queued
+            return;
+        }
+        Path target = gzipPath(segment);
+        Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+        long[] timestamps;
+        long[] memberOffsets;
+        int entries = 0;
+        try (FileChannel output = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(output), 1 << 16);
+             InputStream in = new BufferedInputStream(Files.newInputStream(segment), 1 << 16)) {
+            long[][] index = CsvOffsetIndex.readEntries(segment);
+            timestamps = index[0];
+            long[] rowOffsets = index[1];
+            memberOffsets = new long[rowOffsets.length];
+            long size = Files.size(segment);
+            long position = 0;
+            for (int i = 0; i <= rowOffsets.length; i++) {
+                long end = i < rowOffsets.length ? rowOffsets[i] : size;
+                if (end <= position || end > size) {
+                    // Empty or stale entry; its rows stay in the current member
+                    continue;
+                }
+                writeMember(in, out, end - position);
+                position = end;
+                if (i < rowOffsets.length) {
+                    timestamps[entries] = timestamps[i];
+                    memberOffsets[entries] = output.position();
+                    entries++;
+                }
+            }
+            if (position == 0) {
+                // An empty segment still becomes a valid gzip file
+                writeMember(in, out, 0);
+            }
+        } catch (IOException e) {
+            logger.error("Error compressing CSV segment {}", segment, e);
+            return;
+        }
+        try {
+            if (entries > 0) {
+                CsvOffsetIndex.writeEntries(target, timestamps, memberOffsets, entries);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+            Files.deleteIfExists(CsvOffsetIndex.pathFor(segment));
+            logger.info("Compressed CSV segment {}", target);
+        } catch (IOException e) {
+            logger.error("Error replacing CSV segment {} with {}", segment, target, e);
+        }
+    }
+
+    /**
+     * Compresses the next length bytes of the input as one complete gzip
+     * member, leaving the output open and flushed so its position is where
+     * the next member starts.
+     */
+    private static void writeMember(InputStream in, OutputStream out, long length) throws IOException {
+        OutputStream shield = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+        try (GZIPOutputStream member = new GZIPOutputStream(shield, 1 << 16)) {
+            byte[] chunk = new byte[1 << 16];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (read < 0) {
+                    throw new IOException("CSV segment ended " + remaining + " bytes early");
+                }
+                member.write(chunk, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private void applyRetention() {
+        if (maxSegments <= 0) {
+            return;
+        }
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+                Files.deleteIfExists(CsvOffsetIndex.pathFor(segments.get(i)));
+                logger.info("Deleted CSV segment {} past retention", segments.get(i));
+            } catch (IOException e) {
+                logger.error("Error deleting CSV segment {}", segments.get(i), e);
+            }
+        }
+    }
+
+    private static Path gzipPath(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + GZIP_SUFFIX);
+    }
+}
@@ -1,93 +1,422 @@
 package com.streaming.data.app.sda.service;
 
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
 import com.streaming.data.app.sda.config.StreamingConfig;
 import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
 
 /**
  * Service responsible for generating realistic market data simulation
  * with configurable parameters for bid/ask prices and volume.
+ *
+ * The instrument universe is split into shards. Each shard owns the price
+ * state and random source of its instruments and ticks on its own
+ * {@link Flux#interval} worker, so the aggregate tick rate scales with
+ * the number of cores. Every tick emitted is counted by the
+ * {@code sda.generator.ticks} meter.
+ *
+ * Ticks come either as one {@link MarketData} object each or, from
+ * {@link #generateTickBatchStream(TickBatchPool)}, as one pooled columnar
+ * {@link TickBatch} per shard and interval.
+ *
+ * In burst mode, set by a positive {@code ticksPerSecond}, the interval is
+ * ignored. Each shard runs on a thread of its own and, once per burst
+ * quantum, emits as many ticks as its share of the rate has made due since
+ * it started, cycling through its instruments. Pacing by elapsed time keeps
+ * the long-run rate exact even though a thread wakes up late. A shard that
+ * falls more than {@value #MAX_CATCH_UP_QUANTA} quanta behind, because the
+ * pipeline holds it up, skips the excess ticks rather than bursting them.
+ * Those ticks are counted by the {@code sda.generator.skipped} meter.
+ *
+ * The rate in burst mode follows the configured {@link LoadProfile}, a
+ * constant ticksPerSecond unless phases are given. A phase also scales the
+ * price moves by its volatility and narrows each shard to the share of its
+ * instruments given by its activity. The current target rate is published
+ * as the {@code sda.generator.rate.target} gauge. With a seed, every call
+ * to a generator with the same configuration produces the same prices and
+ * volumes per instrument.
  */
 @Service
 public class DataGenerator {
 
     private  static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
     private final StreamingConfig streamingConfig;
-    private final Random random;
+    private final SplittableRandom seedSource;
+    private final Counter generatedTicks;
+    private final Counter skippedTicks;
+    private final LoadProfile loadProfile;
+    private volatile double targetRate;
 
-    private volatile double currentBid;
-    private volatile double currentAsk;
+    /** Quanta of ticks a burst shard may catch up on at once after falling behind. */
+    private static final int MAX_CATCH_UP_QUANTA = 10;
 
     public DataGenerator(StreamingConfig streamingConfig) {
+        this(streamingConfig, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public DataGenerator(StreamingConfig streamingConfig, MeterRegistry meterRegistry) {
         this.streamingConfig = streamingConfig;
-        this.random = new Random();
-        this.currentBid = streamingConfig.getSimulation().getInitialBid();
-        this.currentAsk = streamingConfig.getSimulation().getInitialAsk();
+        StreamingConfig.SimulationConfig simulation = streamingConfig.getSimulation();
+        this.loadProfile = LoadProfile.of(simulation);
+        Long seed = loadProfile.getSeed() != null ? loadProfile.getSeed() : simulation.getSeed();
+        this.seedSource = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        this.generatedTicks = Counter.builder("sda.generator.ticks")
+                .description("Ticks emitted by the market data generator")
+                .register(meterRegistry);
+        this.skippedTicks = Counter.builder("sda.generator.skipped")
+                .description("Ticks the burst generator skipped after falling behind its rate")
+                .register(meterRegistry);
+        Gauge.builder("sda.generator.rate.target", this, generator -> generator.targetRate)
+                .description("Tick rate the burst generator's load profile currently targets, per second")
+                .register(meterRegistry);
 
-        logger.info("DataGenerator initialized with bid={}, ask={}",
-                currentBid, currentAsk);
+        int instruments = simulation.getInstrumentUniverse().size();
+        logger.info("DataGenerator initialized with {} instruments on {} shards, bid={}, ask={}",
+                instruments, simulation.getEffectiveShards(instruments),
+                simulation.getInitialBid(), simulation.getInitialAsk());
+        if (simulation.getProfile().isEnabled()) {
+            logger.info("Burst mode: load profile of {} phases in quanta of {}, {}",
+                    loadProfile.getPhases().size(), simulation.getBurstQuantum(),
+                    simulation.getProfile().isLoop() ? "looping" : "holding the last rate");
+        } else if (simulation.isBurst()) {
+            logger.info("Burst mode: {} ticks/s in quanta of {}", simulation.getTicksPerSecond(), simulation.getBurstQuantum());
+        }
+        if (seed != null) {
+            logger.info("Simulation seed: {}", seed);
+        }
     }
 
     /**
      * Creates an infinite stream of market data with realistic price movements
-     * and random volume generation.
+     * and random volume generation. Every interval, each instrument in the
+     * universe produces one tick. Each call starts from fresh price state.
      *
      * @return Flux of MarketData objects
      */
     public Flux<MarketData> generateMarketDataStream() {
-        return Flux.interval(Duration.ofMillis(streamingConfig.getSimulation().getDataGenerationInterval()))
-                .map(tick -> generateNextMarketData())
-                .doOnNext(data -> logger.debug("Generated: {}", data))
+        Duration interval = Duration.ofMillis(streamingConfig.getSimulation().getDataGenerationInterval());
+
+        List<Flux<MarketData>> shardStreams = new ArrayList<>();
+        for (InstrumentShard shard : createShards()) {
+            shardStreams.add(streamingConfig.getSimulation().isBurst()
+                    ? paceBursts(shard, shardStreams.isEmpty()).map(shard::nextTicks).concatMapIterable(ticks -> ticks)
+                    : Flux.interval(interval).concatMapIterable(tick -> shard.nextTicks()));
+        }
+
+        return Flux.merge(shardStreams)
+                .doOnNext(data -> {
+                    generatedTicks.increment();
+                    logger.debug("Generated: {}", data);
+                })
+                .doOnError(error -> logger.error("Error generating market data", error));
+    }
+
+    /**
+     * Creates an infinite stream of columnar batches with the same price
+     * movements as {@link #generateMarketDataStream()}: every interval, each
+     * shard fills one batch from the pool with a row per instrument. Each
+     * batch belongs to the subscriber, which must release it when done.
+     *
+     * @param pool the pool batches are taken from
+     * @return Flux of filled batches
+     */
+    public Flux<TickBatch> generateTickBatchStream(TickBatchPool pool) {
+        Duration interval = Duration.ofMillis(streamingConfig.getSimulation().getDataGenerationInterval());
+
+        List<Flux<TickBatch>> shardStreams = new ArrayList<>();
+        for (InstrumentShard shard : createShards()) {
+            shardStreams.add(streamingConfig.getSimulation().isBurst()
+                    ? paceBursts(shard, shardStreams.isEmpty()).map(burst -> shard.nextBatch(pool.acquire(), burst))
+                    : Flux.interval(interval).map(tick -> shard.nextBatch(pool.acquire())));
+        }
+
+        return Flux.merge(shardStreams)
+                .doOnNext(batch -> generatedTicks.increment(batch.size()))
+                .doOnDiscard(TickBatch.class, TickBatch::release)
                 .doOnError(error -> logger.error("Error generating market data", error));
     }
 
     /**
-     * Generates next stream of market data
-     * @return MarketData object
+     * Paces a shard in burst mode: emits, once per quantum, the number of
+     * ticks due from the shard since it started, by its share of the load
+     * profile. Runs on a thread of its own that stops when the subscription
+     * is cancelled; while downstream has no demand the shard waits and its
+     * ticks fall due meanwhile.
+     *
+     * @param reporting whether this shard logs phase changes and sets the target rate gauge
+     * @return bursts, one per quantum with ticks due
      */
-    private MarketData generateNextMarketData() {
-        updatePrices();
-        long volume = generateVolume();
-
-        return new MarketData(
-                currentBid,
-                currentAsk,
-                volume,
-                LocalDateTime.now()
-        );
+    private Flux<Burst> paceBursts(InstrumentShard shard, boolean reporting) {
+        StreamingConfig.SimulationConfig simulation = streamingConfig.getSimulation();
+        double share = (double) shard.size() / simulation.getInstrumentUniverse().size();
+        long quantumNanos = simulation.getBurstQuantum().toNanos();
+        double quantaPerSecond = 1e9 / quantumNanos;
+
+        return Flux.<Burst>create(sink -> {
+            Scheduler pacer = Schedulers.newSingle("burst-generator", true);
+            sink.onDispose(pacer);
+            pacer.schedule(() -> {
+                long start = System.nanoTime();
+                long emitted = 0;
+                int phaseIndex = -1;
+                while (!sink.isCancelled() && !Thread.currentThread().isInterrupted()) {
+                    long now = System.nanoTime();
+                    long elapsed = now - start;
+                    double rate = loadProfile.rateAt(elapsed);
+                    if (reporting) {
+                        targetRate = rate;
+                        int index = loadProfile.phaseIndexAt(elapsed);
+                        if (index != phaseIndex && loadProfile.getPhases().size() > 1) {
+                            StreamingConfig.PhaseConfig phase = loadProfile.getPhases().get(index);
+                            logger.info("Load profile phase {} '{}': {} -> {} ticks/s for {}, volatility {}, activity {}",
+                                    index, phase.getName(), phase.getRate(), phase.getEndRate(),
+                                    phase.getDuration(), phase.getVolatility(), phase.getActivity());
+                        }
+                        phaseIndex = index;
+                    }
+                    long due = (long) (loadProfile.ticksDueAt(elapsed) * share) - emitted;
+                    if (due > 0 && sink.requestedFromDownstream() > 0) {
+                        long maxBurst = Math.max(1, (long) Math.ceil(rate * share / quantaPerSecond)) * MAX_CATCH_UP_QUANTA;
+                        if (due > maxBurst) {
+                            skippedTicks.increment(due - maxBurst);
+                            emitted += due - maxBurst;
+                            due = maxBurst;
+                        }
+                        emitted += due;
+                        sink.next(new Burst((int) due, loadProfile.phaseAt(elapsed)));
+                    }
+                    LockSupport.parkNanos(quantumNanos - (System.nanoTime() - now));
+                }
+            });
+        });
     }
 
     /**
-     * Updates the bid and ask prices through range values
-     * while maintaining bid < ask relationship
+     * The ticks one shard is due in a quantum, and the profile phase they fall in.
      */
-    private void updatePrices() {
-        double maxChange = streamingConfig.getSimulation().getMaxPriceChange();
+    private static final class Burst {
+        private final int count;
+        private final StreamingConfig.PhaseConfig phase;
 
-        double bidChange = (random.nextDouble() - 0.5) * 2 * maxChange;
-        double askChange = (random.nextDouble() - 0.5) * 2 * maxChange;
+        private Burst(int count, StreamingConfig.PhaseConfig phase) {
+            this.count = count;
+            this.phase = phase;
+        }
+    }
 
-        double newBid = Math.max(0.01, currentBid + bidChange);
-        double newAsk = Math.max(newBid + 0.01, currentAsk + askChange);
+    /**
+     * Creates fresh shards without scheduling them. Each source produces one
+     * tick per instrument of its shard per call, as one interval would.
+     * Used to measure tick production on its own.
+     *
+     * @return one tick source per shard
+     */
+    List<Supplier<List<MarketData>>> createTickSources() {
+        List<Supplier<List<MarketData>>> sources = new ArrayList<>();
+        for (InstrumentShard shard : createShards()) {
+            sources.add(shard::nextTicks);
+        }
+        return sources;
+    }
 
-        currentBid = Math.round(newBid * 100.0) / 100.0;
-        currentAsk = Math.round(newAsk * 100.0) / 100.0;
+    /**
+     * Creates fresh shards without scheduling them, filling columnar batches.
+     * Each source fills the given batch with one row per instrument of its
+     * shard, as one interval would, and returns it.
+     *
+     * @return one batch filler per shard
+     */
+    List<UnaryOperator<TickBatch>> createBatchSources() {
+        List<UnaryOperator<TickBatch>> sources = new ArrayList<>();
+        for (InstrumentShard shard : createShards()) {
+            sources.add(shard::nextBatch);
+        }
+        return sources;
     }
 
     /**
-     * Generates volume using range values
-     * @return Volume in long format
+     * Splits the instrument universe round-robin across shards.
+     * @return shards, each with its own price state and random source
      */
-    private long generateVolume() {
-        int min = streamingConfig.getSimulation().getMinVolume();
-        int max = streamingConfig.getSimulation().getMaxVolume();
-        return min + random.nextInt(max - min + 1);
+    private List<InstrumentShard> createShards() {
+        List<String> universe = streamingConfig.getSimulation().getInstrumentUniverse();
+        int shardCount = streamingConfig.getSimulation().getEffectiveShards(universe.size());
+
+        List<List<String>> assignments = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int i = 0; i < universe.size(); i++) {
+            assignments.get(i % shardCount).add(universe.get(i));
+        }
+
+        List<InstrumentShard> shards = new ArrayList<>(shardCount);
+        synchronized (seedSource) {
+            for (List<String> symbols : assignments) {
+                shards.add(new InstrumentShard(symbols, seedSource.split()));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * A subset of instruments whose state is only touched by one interval worker.
+     */
+    private final class InstrumentShard {
+        private final String[] symbols;
+        private final double[] bids;
+        private final double[] asks;
+        private final SplittableRandom random;
+        private int cursor;
+        private int active;
+        private double volatility = 1.0;
+
+        private InstrumentShard(List<String> symbols, SplittableRandom random) {
+            this.symbols = symbols.toArray(new String[0]);
+            this.bids = new double[this.symbols.length];
+            this.asks = new double[this.symbols.length];
+            this.random = random;
+            this.active = this.symbols.length;
+            for (int i = 0; i < this.symbols.length; i++) {
+                bids[i] = streamingConfig.getSimulation().getInitialBid();
+                asks[i] = streamingConfig.getSimulation().getInitialAsk();
+            }
+        }
+
+        private int size() {
+            return symbols.length;
+        }
+
+        /**
+         * Generates next market data for every instrument in the shard
+         * @return one MarketData object per instrument
+         */
+        private List<MarketData> nextTicks() {
+            return nextTicks(symbols.length);
+        }
+
+        /**
+         * Generates the ticks of a burst, in its phase
+         * @return one MarketData object per tick due
+         */
+        private List<MarketData> nextTicks(Burst burst) {
+            applyPhase(burst.phase);
+            return nextTicks(burst.count);
+        }
+
+        /**
+         * Generates the next ticks, continuing round the active instruments from
+         * where the previous call stopped
+         * @return count MarketData objects
+         */
+        private List<MarketData> nextTicks(int count) {
+            LocalDateTime now = LocalDateTime.now();
+            List<MarketData> ticks = new ArrayList<>(count);
+            for (int n = 0; n < count; n++) {
+                int i = nextInstrument();
+                updatePrices(i);
+                ticks.add(new MarketData(symbols[i], bids[i], asks[i], generateVolume(), now));
+            }
+            return ticks;
+        }
+
+        /**
+         * Appends next market data for every instrument in the shard to a batch
+         * @return the batch
+         */
+        private TickBatch nextBatch(TickBatch batch) {
+            return nextBatch(batch, symbols.length);
+        }
+
+        /**
+         * Appends the ticks of a burst, in its phase, to a batch
+         * @return the batch
+         */
+        private TickBatch nextBatch(TickBatch batch, Burst burst) {
+            applyPhase(burst.phase);
+            return nextBatch(batch, burst.count);
+        }
+
+        /**
+         * Appends the next ticks to a batch, continuing round the active
+         * instruments from where the previous call stopped
+         * @return the batch
+         */
+        private TickBatch nextBatch(TickBatch batch, int count) {
+            long now = MarketDataBinaryCodec.toEpochNanos(LocalDateTime.now());
+            for (int n = 0; n < count; n++) {
+                int i = nextInstrument();
+                updatePrices(i);
+                batch.add(symbols[i], bids[i], asks[i], generateVolume(), now);
+            }
+            return batch;
+        }
+
+        private int nextInstrument() {
+            int i = cursor;
+            cursor = i + 1 >= active ? 0 : i + 1;
+            return i;
+        }
+
+        /**
+         * Scales price moves by the phase's volatility and limits ticks to
+         * the first instruments of the shard, by the phase's activity
+         */
+        private void applyPhase(StreamingConfig.PhaseConfig phase) {
+            volatility = phase.getVolatility();
+            active = Math.max(1, (int) Math.round(phase.getActivity() * symbols.length));
+            if (cursor >= active) {
+                cursor = 0;
+            }
+        }
+
+        /**
+         * Updates the bid and ask prices through range values
+         * while maintaining bid < ask relationship
+         */
+        private void updatePrices(int i) {
+            double maxChange = streamingConfig.getSimulation().getMaxPriceChange() * volatility;
+
+            double bidChange = (random.nextDouble() - 0.5) * 2 * maxChange;
+            double askChange = (random.nextDouble() - 0.5) * 2 * maxChange;
+
+            double newBid = Math.max(0.01, bids[i] + bidChange);
+            double newAsk = Math.max(newBid + 0.01, asks[i] + askChange);
+
+            bids[i] = Math.round(newBid * 100.0) / 100.0;
+            asks[i] = Math.round(newAsk * 100.0) / 100.0;
+        }
+
+        /**
+         * Generates volume using range values
+         * @return Volume in long format
+         */
+        private long generateVolume() {
+            int min = streamingConfig.getSimulation().getMinVolume();
+            int max = streamingConfig.getSimulation().getMaxVolume();
+            return min + random.nextInt(max - min + 1);
+        }
     }
 }
@@ -1,37 +1,133 @@
 package com.streaming.data.app.sda.service;
 
 import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.BackpressureStrategy;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.EventBus;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.TickLayout;
 import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Scannable;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Service that processes incoming market data using reactive streams
  * with configurable backpressure handling and buffering strategies.
+ *
+ * Ticks are emitted into a shared multicast sink. With the dropping
+ * strategies, each subscriber of {@link #getProcessedDataStream()} gets its
+ * own overflow buffer ahead of its worker thread, so a slow consumer loses
+ * ticks without holding back the others. The worker takes one tick at a time
+ * from the buffer, so a stalled subscriber holds at most buffer-size ticks
+ * plus the one its worker is handing over. With
+ * {@link BackpressureStrategy#BOUNDED_BLOCKING} there is no per-subscriber
+ * buffer: the slowest consumer fills the shared sink and producers wait for
+ * room, up to the configured timeout.
+ *
+ * With the {@code RING} event bus the sink is replaced by a
+ * {@link TickRingBuffer} of buffer-size slots: each subscriber reads the ring
+ * at its own sequence on its own thread. DROP_LATEST and BOUNDED_BLOCKING
+ * make the ring refuse ticks while its slowest consumer is a ring behind;
+ * DROP_OLDEST, KEEP_LATEST and ERROR let the producer lap slow consumers,
+ * which then skip ahead or fail.
+ *
+ * With the {@code COLUMNAR} tick layout the generator fills pooled
+ * {@link TickBatch}es instead of making a list of objects per export. Each
+ * batch is unpacked into tick objects for the processed stream, compacted to
+ * the ticks the event bus accepted, and queued for a single export worker
+ * that writes it to the CSV file and the journal straight from its columns,
+ * then returns it to the pool. Single ticks emitted by hand are collected
+ * into a pending batch that is queued once it reaches the CSV batch size or
+ * the CSV export interval passes. The export queue holds up to buffer-size
+ * ticks; a batch that does not fit is rejected, after waiting up to the block
+ * timeout under bounded blocking.
+ *
+ * Ticks dropped by a subscriber's buffer, ticks the sink did not accept and
+ * ticks rejected by the export queue are counted separately. All three
+ * counts, the accepted tick rate and the number of ticks waiting in the bus
+ * and subscriber buffers are published as meters.
  */
 @Service
 public class DataProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(DataProcessingService.class);
 
+    /** How long a blocked producer sleeps between attempts to emit. */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /**
+     * Ticks a subscriber's worker takes from its overflow buffer ahead of
+     * need. Kept at one so the overflow buffer, not the worker's queue, decides
+     * what a slow subscriber loses.
+     */
+    private static final int WORKER_PREFETCH = 1;
+    /** Idle columnar batches kept for reuse. */
+    private static final int BATCH_POOL_SIZE = 64;
+
     private final StreamingConfig streamingConfig;
     private final CsvExportService csvExportService;
     private final DataGenerator marketDataGenerator;
+    private final TickJournal tickJournal;
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    /** Ticks held in subscriber overflow buffers and hand-off queues, summed over subscribers. */
+    private final LongAdder bufferedCount = new LongAdder();
+    private final LongAdder exportRejectedCount = new LongAdder();
+    /** Ticks in columnar batches waiting for the export worker. */
+    private final AtomicLong queuedExportTicks = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter acceptedTicks;
 
     private Sinks.Many<MarketData> marketDataSink;
+    private TickRingBuffer ringBuffer;
     private Flux<MarketData> processedDataStream;
+    private TickBatchPool batchPool;
+    private Sinks.Many<TickBatch> exportSink;
+    /** Accepted single ticks waiting to be queued for export together; guarded by itself. */
+    private final Object pendingLock = new Object();
+    private TickBatch pendingBatch;
+    private Disposable pendingFlush;
 
     public DataProcessingService(StreamingConfig streamingConfig,
                                  CsvExportService csvExportService,
-                                 DataGenerator marketDataGenerator) {
+                                 DataGenerator marketDataGenerator,
+                                 TickJournal tickJournal) {
+        this(streamingConfig, csvExportService, marketDataGenerator, tickJournal, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public DataProcessingService(StreamingConfig streamingConfig,
+                                 CsvExportService csvExportService,
+                                 DataGenerator marketDataGenerator,
+                                 TickJournal tickJournal,
+                                 MeterRegistry meterRegistry) {
         this.streamingConfig = streamingConfig;
         this.csvExportService = csvExportService;
         this.marketDataGenerator = marketDataGenerator;
+        this.tickJournal = tickJournal;
+        this.meterRegistry = meterRegistry;
+        this.acceptedTicks = Counter.builder("sda.processing.ticks")
+                .description("Ticks accepted by the event bus")
+                .register(meterRegistry);
     }
 
     /**
@@ -39,26 +135,110 @@ public class DataProcessingService {
      */
     @PostConstruct
     public void initialize() {
-        logger.info("Initializing DataProcessingService");
+        StreamingConfig.ProcessingConfig processing = streamingConfig.getProcessing();
+        logger.info("Initializing DataProcessingService with {} backpressure", processing.getStrategy());
 
-        this.marketDataSink = Sinks.many()
-                .multicast()
-                .onBackpressureBuffer(streamingConfig.getProcessing().getBufferSize());
+        if (processing.getEventBus() == EventBus.RING) {
+            this.ringBuffer = new TickRingBuffer(processing.getBufferSize(), ringMode(processing.getStrategy()), droppedCount);
+            this.processedDataStream = ringBuffer.asFlux();
+        } else {
+            this.marketDataSink = Sinks.many()
+                    .multicast()
+                    .onBackpressureBuffer(processing.getBufferSize());
 
-        this.processedDataStream = marketDataSink.asFlux()
-                .publishOn(Schedulers.boundedElastic())
-                .doOnNext(marketData -> logger.info("Processing market data: {}", marketData.toString()))
-                .onBackpressureBuffer(streamingConfig.getProcessing().getBufferSize(), this::handleBufferOverflow);
+            // Overflow drops are discarded too, so the discard hook balances every tick that is not delivered
+            this.processedDataStream = applyBackpressure(
+                    marketDataSink.asFlux().doOnNext(marketData -> bufferedCount.increment()), processing)
+                    .publishOn(Schedulers.boundedElastic(), WORKER_PREFETCH)
+                    .doOnNext(marketData -> bufferedCount.decrement())
+                    .doOnDiscard(MarketData.class, marketData -> bufferedCount.decrement())
+                    .doOnNext(marketData -> logger.trace("Processing market data: {}", marketData));
+        }
+
+        if (processing.getTickLayout() == TickLayout.COLUMNAR) {
+            this.batchPool = new TickBatchPool(BATCH_POOL_SIZE, streamingConfig.getCsv().getBatchSize());
+            this.exportSink = Sinks.many().unicast().onBackpressureBuffer(Queues.<TickBatch>unboundedMultiproducer().get());
+        }
 
+        registerMeters(processing);
         startDataProcessing();
         logger.info("DataProcessingService initialized");
     }
 
     /**
-     * Handles dropped data when buffer overflows.
+     * Puts the configured overflow buffer between the sink and each subscriber.
+     * The buffer requests everything from the sink, so the sink only fills
+     * under {@link BackpressureStrategy#BOUNDED_BLOCKING}.
+     */
+    private Flux<MarketData> applyBackpressure(Flux<MarketData> ticks, StreamingConfig.ProcessingConfig processing) {
+        int bufferSize = processing.getBufferSize();
+        switch (processing.getStrategy()) {
+            case DROP_OLDEST:
+                return ticks.onBackpressureBuffer(bufferSize, this::handleBufferOverflow, BufferOverflowStrategy.DROP_OLDEST);
+            case KEEP_LATEST:
+                return ticks.onBackpressureBuffer(1, this::handleBufferOverflow, BufferOverflowStrategy.DROP_OLDEST);
+            case ERROR:
+                return ticks.onBackpressureBuffer(bufferSize, this::handleBufferOverflow, BufferOverflowStrategy.ERROR);
+            case BOUNDED_BLOCKING:
+                return ticks;
+            case DROP_LATEST:
+            default:
+                return ticks.onBackpressureBuffer(bufferSize, this::handleBufferOverflow, BufferOverflowStrategy.DROP_LATEST);
+        }
+    }
+
+    /**
+     * Publishes the overflow counts, buffer occupancy and subscriber count.
+     */
+    private void registerMeters(StreamingConfig.ProcessingConfig processing) {
+        String bus = processing.getEventBus().name();
+        FunctionCounter.builder("sda.processing.overflow", this, DataProcessingService::getDroppedCount)
+                .description("Ticks dropped by subscriber buffers")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.processing.overflow", this, DataProcessingService::getRejectedCount)
+                .description("Ticks the event bus did not accept")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.processing.overflow", this, DataProcessingService::getExportRejectedCount)
+                .description("Ticks the columnar export queue did not accept")
+                .tag("outcome", "export_rejected")
+                .register(meterRegistry);
+        Gauge.builder("sda.processing.buffered", this, DataProcessingService::getBufferedCount)
+                .description("Ticks waiting in the event bus and subscriber buffers")
+                .tag("bus", bus)
+                .register(meterRegistry);
+        Gauge.builder("sda.processing.buffer.capacity", processing, StreamingConfig.ProcessingConfig::getBufferSize)
+                .description("Configured size of the event bus and of each subscriber buffer")
+                .tag("bus", bus)
+                .register(meterRegistry);
+        Gauge.builder("sda.processing.subscribers", this, DataProcessingService::getSubscriberCount)
+                .description("Subscribers of the processed data stream")
+                .tag("bus", bus)
+                .register(meterRegistry);
+    }
+
+    private static TickRingBuffer.Mode ringMode(BackpressureStrategy strategy) {
+        switch (strategy) {
+            case DROP_OLDEST:
+                return TickRingBuffer.Mode.DROP_OLDEST;
+            case KEEP_LATEST:
+                return TickRingBuffer.Mode.KEEP_LATEST;
+            case ERROR:
+                return TickRingBuffer.Mode.ERROR;
+            case DROP_LATEST:
+            case BOUNDED_BLOCKING:
+            default:
+                return TickRingBuffer.Mode.GATING;
+        }
+    }
+
+    /**
+     * Counts a tick dropped by a subscriber's overflow buffer.
      */
     private void handleBufferOverflow(MarketData droppedData) {
-        logger.warn("Buffer overflow - dropping market data: {}", droppedData);
+        droppedCount.increment();
+        logger.debug("Buffer overflow - dropping market data: {}", droppedData);
     }
 
     /**
@@ -70,9 +250,264 @@ public class DataProcessingService {
 
     /**
      * Manually emit market data (useful for testing or external data sources)
+     *
+     * @return true if the tick was accepted, false if it was rejected and counted
+     */
+    public boolean emitMarketData(MarketData marketData) {
+        boolean accepted = emit(marketData);
+        if (accepted && exportSink != null) {
+            addPending(marketData);
+        }
+        return accepted;
+    }
+
+    /**
+     * Emit every tick of a columnar batch. With the columnar layout the batch
+     * is then compacted to the accepted ticks and queued for export, so
+     * rejected ticks are not persisted; otherwise ticks reach the export
+     * through the processed stream. Either way the batch is released once
+     * done with, so the caller must not use it afterwards.
+     *
+     * @return the number of ticks the event bus accepted
+     */
+    public int emitBatch(TickBatch batch) {
+        int accepted = batch.retainIf(row -> emit(batch.toMarketData(row)));
+        if (exportSink != null && accepted > 0) {
+            queueForExport(batch);
+        } else {
+            batch.release();
+        }
+        return accepted;
+    }
+
+    /**
+     * Adds an accepted single tick to the pending export batch, queueing the
+     * batch once it reaches the CSV batch size.
+     */
+    private void addPending(MarketData marketData) {
+        TickBatch full = null;
+        synchronized (pendingLock) {
+            if (pendingBatch == null) {
+                pendingBatch = batchPool.acquire();
+            }
+            pendingBatch.add(marketData);
+            if (pendingBatch.size() >= streamingConfig.getCsv().getBatchSize()) {
+                full = pendingBatch;
+                pendingBatch = null;
+            }
+        }
+        if (full != null) {
+            queueForExport(full);
+        }
+    }
+
+    /**
+     * Queues the pending export batch, if it has any ticks.
+     */
+    private void flushPending() {
+        TickBatch batch;
+        synchronized (pendingLock) {
+            batch = pendingBatch;
+            pendingBatch = null;
+        }
+        if (batch != null) {
+            queueForExport(batch);
+        }
+    }
+
+    /**
+     * Get the pool the columnar pipeline takes its batches from, or null with
+     * the object tick layout
+     */
+    public TickBatchPool getBatchPool() {
+        return batchPool;
+    }
+
+    /**
+     * Get the number of ticks dropped by subscriber buffers. A tick dropped
+     * by several subscribers is counted once for each.
      */
-    public void emitMarketData(MarketData marketData) {
-        marketDataSink.tryEmitNext(marketData);
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Get the number of ticks the sink did not accept: overflowing under
+     * bounded blocking after the timeout, refused by a full gating ring, or
+     * emitted after shutdown.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Get the number of ticks in columnar batches the export queue did not accept
+     */
+    public long getExportRejectedCount() {
+        return exportRejectedCount.sum();
+    }
+
+    /**
+     * Get the number of ticks waiting to be delivered: for the ring, how far
+     * the slowest consumer is behind; for the sink, the ticks in the shared
+     * sink plus those in every subscriber's buffer. Ticks queued for the
+     * columnar export are added to either.
+     */
+    public long getBufferedCount() {
+        long exportQueue = queuedExportTicks.get();
+        if (ringBuffer != null) {
+            return ringBuffer.getBacklog() + exportQueue;
+        }
+        if (marketDataSink == null) {
+            return exportQueue;
+        }
+        Integer shared = marketDataSink.scan(Scannable.Attr.BUFFERED);
+        return (shared == null ? 0 : shared) + bufferedCount.sum() + exportQueue;
+    }
+
+    /**
+     * Get the number of subscribers currently reading the event bus
+     */
+    public int getSubscriberCount() {
+        if (ringBuffer != null) {
+            return ringBuffer.getConsumerCount();
+        }
+        return marketDataSink == null ? 0 : marketDataSink.currentSubscriberCount();
+    }
+
+    /**
+     * Emits a tick into the sink. Concurrent emitters are retried rather
+     * than dropped; under bounded blocking an overflow is retried until the
+     * block timeout passes.
+     */
+    private boolean emit(MarketData marketData) {
+        if (ringBuffer != null) {
+            return publish(marketData);
+        }
+        long deadline = 0;
+        while (true) {
+            Sinks.EmitResult result = marketDataSink.tryEmitNext(marketData);
+            switch (result) {
+                case OK:
+                    acceptedTicks.increment();
+                    return true;
+                case FAIL_NON_SERIALIZED:
+                    Thread.onSpinWait();
+                    continue;
+                case FAIL_OVERFLOW:
+                    if (streamingConfig.getProcessing().getStrategy() == BackpressureStrategy.BOUNDED_BLOCKING) {
+                        long now = System.nanoTime();
+                        if (deadline == 0) {
+                            deadline = now + TimeUnit.MILLISECONDS.toNanos(streamingConfig.getProcessing().getBlockTimeout());
+                        }
+                        if (now - deadline < 0) {
+                            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                            continue;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            rejectedCount.increment();
+            logger.debug("Market data rejected by sink ({}): {}", result, marketData);
+            return false;
+        }
+    }
+
+    /**
+     * Publishes a tick to the ring. A full gating ring is retried until the
+     * block timeout passes under bounded blocking, and refuses the tick otherwise.
+     */
+    private boolean publish(MarketData marketData) {
+        long deadline = 0;
+        while (!ringBuffer.publish(marketData)) {
+            if (streamingConfig.getProcessing().getStrategy() == BackpressureStrategy.BOUNDED_BLOCKING) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + TimeUnit.MILLISECONDS.toNanos(streamingConfig.getProcessing().getBlockTimeout());
+                }
+                if (now - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    continue;
+                }
+            }
+            rejectedCount.increment();
+            logger.debug("Market data rejected by ring buffer: {}", marketData);
+            return false;
+        }
+        acceptedTicks.increment();
+        return true;
+    }
+
+    /**
+     * Queues a columnar batch for the export worker if the queue has room
+     * for it. A batch is always let into an empty queue, however large.
+     * A rejected batch is counted and released.
+     */
+    private boolean queueForExport(TickBatch batch) {
+        int size = batch.size();
+        long deadline = 0;
+        while (true) {
+            long queued = queuedExportTicks.get();
+            if (queued == 0 || queued + size <= streamingConfig.getProcessing().getBufferSize()) {
+                if (queuedExportTicks.compareAndSet(queued, queued + size)) {
+                    break;
+                }
+                continue;
+            }
+            if (streamingConfig.getProcessing().getStrategy() == BackpressureStrategy.BOUNDED_BLOCKING) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + TimeUnit.MILLISECONDS.toNanos(streamingConfig.getProcessing().getBlockTimeout());
+                }
+                if (now - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    continue;
+                }
+            }
+            return rejectExport(batch, "queue full");
+        }
+
+        while (true) {
+            Sinks.EmitResult result = exportSink.tryEmitNext(batch);
+            if (result == Sinks.EmitResult.OK) {
+                return true;
+            }
+            if (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            queuedExportTicks.addAndGet(-size);
+            return rejectExport(batch, result.name());
+        }
+    }
+
+    private boolean rejectExport(TickBatch batch, String reason) {
+        exportRejectedCount.add(batch.size());
+        logger.debug("Columnar batch of {} ticks rejected by export queue ({})", batch.size(), reason);
+        batch.release();
+        return false;
+    }
+
+    /**
+     * Writes a columnar batch to the CSV file and the journal, then returns
+     * it to the pool. Runs on the single export worker.
+     */
+    private void export(TickBatch batch) {
+        queuedExportTicks.addAndGet(-batch.size());
+        try {
+            csvExportService.exportBatch(batch);
+            if (tickJournal.isEnabled()) {
+                try {
+                    tickJournal.append(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Error appending batch of {} ticks to tick journal", batch.size(), e);
+                }
+            }
+        } finally {
+            batch.release();
+        }
     }
 
     /**
@@ -84,24 +519,41 @@ public class DataProcessingService {
         if (marketDataSink != null) {
             marketDataSink.tryEmitComplete();
         }
+        if (ringBuffer != null) {
+            ringBuffer.complete();
+        }
+        completeExport();
     }
 
     /**
-     * Starts data generation and CSV export subscriptions.
+     * Stops the pending batch timer, queues what is pending and completes the export queue.
+     */
+    private void completeExport() {
+        if (exportSink == null) {
+            return;
+        }
+        if (pendingFlush != null) {
+            pendingFlush.dispose();
+        }
+        flushPending();
+        exportSink.tryEmitComplete();
+    }
+
+    /**
+     * Starts data generation, CSV export and journal subscriptions.
      */
     private void startDataProcessing() {
+        if (exportSink != null) {
+            startColumnarProcessing();
+            return;
+        }
+
         // Subscribe market data generator to the sink
         marketDataGenerator.generateMarketDataStream()
                 .subscribe(
-                        data -> marketDataSink.tryEmitNext(data),
-                        error -> {
-                            logger.error("Error in data generation stream", error);
-                            marketDataSink.tryEmitError(error);
-                        },
-                        () -> {
-                            logger.info("Data generation stream completed");
-                            marketDataSink.tryEmitComplete();
-                        }
+                        this::emit,
+                        this::failStream,
+                        this::completeStream
                 );
 
         // Subscribe CSV export service to processed data
@@ -115,5 +567,74 @@ public class DataProcessingService {
                         csvExportService::exportBatch,
                         error -> logger.error("Error in processing pipeline", error)
                 );
+
+        // Subscribe the tick journal, which appends from this single subscription's thread
+        if (tickJournal.isEnabled()) {
+            processedDataStream.subscribe(
+                    this::journal,
+                    error -> logger.error("Error in journal pipeline", error)
+            );
+        }
+    }
+
+    /**
+     * Starts columnar generation and the export worker, which writes each
+     * batch to the CSV file and the journal in turn.
+     */
+    private void startColumnarProcessing() {
+        exportSink.asFlux()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnDiscard(TickBatch.class, batch -> {
+                    queuedExportTicks.addAndGet(-batch.size());
+                    batch.release();
+                })
+                .subscribe(
+                        this::export,
+                        error -> logger.error("Error in export pipeline", error)
+                );
+
+        // Queue single ticks that have not filled a batch once per export interval
+        this.pendingFlush = Flux.interval(java.time.Duration.ofMillis(streamingConfig.getCsv().getExportInterval()),
+                        Schedulers.boundedElastic())
+                .subscribe(tick -> flushPending());
+
+        marketDataGenerator.generateTickBatchStream(batchPool)
+                .subscribe(
+                        this::emitBatch,
+                        this::failStream,
+                        this::completeStream
+                );
+    }
+
+    private void failStream(Throwable error) {
+        logger.error("Error in data generation stream", error);
+        if (ringBuffer != null) {
+            ringBuffer.error(error);
+        } else {
+            marketDataSink.tryEmitError(error);
+        }
+        completeExport();
+    }
+
+    private void completeStream() {
+        logger.info("Data generation stream completed");
+        if (ringBuffer != null) {
+            ringBuffer.complete();
+        } else {
+            marketDataSink.tryEmitComplete();
+        }
+        completeExport();
+    }
+
+    /**
+     * Appends a tick to the journal, logging failures so one bad write
+     * does not end the journal subscription.
+     */
+    private void journal(MarketData marketData) {
+        try {
+            tickJournal.append(marketData);
+        } catch (RuntimeException e) {
+            logger.error("Error appending to tick journal: {}", marketData, e);
+        }
     }
 }
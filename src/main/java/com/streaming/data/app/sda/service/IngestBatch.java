@@ -0,0 +1,43 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.model.TickBatch;
+
+/**
+ * One batch of ticks received from an external feed, decoded and waiting to
+ * be ingested: the valid ticks, how many ticks the batch held in all, and
+ * why decoding stopped early, if it did.
+ */
+public final class IngestBatch {
+
+    private final TickBatch ticks;
+    private final int received;
+    private final String error;
+
+    IngestBatch(TickBatch ticks, int received, String error) {
+        this.ticks = ticks;
+        this.received = received;
+        this.error = error;
+    }
+
+    /**
+     * Get the decoded ticks, which belong to the batch until it is ingested or released
+     */
+    public TickBatch getTicks() { return ticks; }
+
+    /**
+     * Get the number of ticks received, including invalid ones and those past the limit
+     */
+    public int getReceived() { return received; }
+
+    /**
+     * Get the reason the batch could not be decoded in full, or null
+     */
+    public String getError() { return error; }
+
+    /**
+     * Returns the decoded ticks to their pool without ingesting them
+     */
+    public void release() {
+        ticks.release();
+    }
+}
@@ -0,0 +1,155 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.codec.MarketDataJsonReader;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Ingests batches of ticks pushed by external feed handlers.
+ *
+ * Batches arrive as JSON, read by {@link MarketDataJsonReader}, or as
+ * {@link MarketDataBinaryCodec} records back to back. Either way they are
+ * decoded straight into a pooled {@link TickBatch} and emitted through
+ * {@link DataProcessingService#emitBatch(TickBatch)}, so they take the same
+ * path as generated ticks. Decoding and ingesting are separate steps, so
+ * transports can decode on their I/O thread and ingest, which may wait under
+ * bounded blocking, on a worker.
+ *
+ * Ticks ingested and rejected, whether invalid or refused by the event bus,
+ * are counted by the {@code sda.ingest.ticks} meter, and batches by
+ * {@code sda.ingest.batches}.
+ */
+@Service
+public class IngestService {
+    private static final Logger logger = LoggerFactory.getLogger(IngestService.class);
+
+    /** Idle ingest batches kept for reuse. */
+    private static final int BATCH_POOL_SIZE = 64;
+    private static final int BATCH_CAPACITY = 256;
+
+    private final DataProcessingService dataProcessingService;
+    private final MarketDataJsonReader jsonReader = new MarketDataJsonReader();
+    private final TickBatchPool batchPool = new TickBatchPool(BATCH_POOL_SIZE, BATCH_CAPACITY);
+    private final Counter acceptedTicks;
+    private final Counter rejectedTicks;
+    private final Counter batches;
+
+    public IngestService(DataProcessingService dataProcessingService) {
+        this(dataProcessingService, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public IngestService(DataProcessingService dataProcessingService, MeterRegistry meterRegistry) {
+        this.dataProcessingService = dataProcessingService;
+        this.acceptedTicks = Counter.builder("sda.ingest.ticks")
+                .description("Ticks received from external feeds")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.rejectedTicks = Counter.builder("sda.ingest.ticks")
+                .description("Ticks received from external feeds")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.batches = Counter.builder("sda.ingest.batches")
+                .description("Tick batches received from external feeds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decode a batch of binary records, back to back up to the buffer's
+     * limit. A truncated record ends the batch with an error and counts as
+     * one more tick received.
+     *
+     * @param buffer the records, read from its position
+     * @param limit the most ticks to decode; records past it are counted but skipped
+     * @return the decoded batch, which the caller must ingest or release
+     */
+    public IngestBatch decodeBinary(ByteBuffer buffer, int limit) {
+        TickBatch ticks = batchPool.acquire();
+        int received = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                received++;
+                if (ticks.size() < limit) {
+                    MarketDataBinaryCodec.decode(buffer, ticks);
+                } else {
+                    skipRecord(buffer);
+                }
+            }
+            return new IngestBatch(ticks, received, null);
+        } catch (IllegalArgumentException e) {
+            return new IngestBatch(ticks, received, e.getMessage());
+        }
+    }
+
+    /**
+     * Decode a JSON batch. A batch that is not well-formed keeps no ticks and
+     * counts as one tick received.
+     *
+     * @param in the JSON batch
+     * @param limit the most ticks to decode; ticks past it are counted but skipped
+     * @return the decoded batch, which the caller must ingest or release
+     */
+    public IngestBatch decodeJson(InputStream in, int limit) {
+        TickBatch ticks = batchPool.acquire();
+        try {
+            return new IngestBatch(ticks, jsonReader.read(in, ticks, limit), null);
+        } catch (IOException e) {
+            ticks.clear();
+            return new IngestBatch(ticks, 1, e.getMessage());
+        }
+    }
+
+    /**
+     * Emit the decoded ticks of a batch and release it. May wait for room
+     * under bounded blocking, so must not run on an I/O thread.
+     *
+     * @return the number of ticks the event bus accepted; the rest of those received were rejected
+     */
+    public int ingest(IngestBatch batch) {
+        int accepted;
+        if (batch.getTicks().isEmpty()) {
+            batch.release();
+            accepted = 0;
+        } else {
+            accepted = dataProcessingService.emitBatch(batch.getTicks());
+        }
+        batches.increment();
+        acceptedTicks.increment(accepted);
+        rejectedTicks.increment(batch.getReceived() - accepted);
+        if (batch.getError() != null) {
+            logger.debug("Ingested batch with error after {} of {} ticks: {}", accepted, batch.getReceived(), batch.getError());
+        }
+        return accepted;
+    }
+
+    /**
+     * Get the pool ingest batches are taken from
+     */
+    public TickBatchPool getBatchPool() {
+        return batchPool;
+    }
+
+    private static void skipRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < MarketDataBinaryCodec.HEADER_SIZE) {
+            throw new IllegalArgumentException("Truncated market data record: " + buffer.remaining() + " bytes");
+        }
+        int symbolLength = buffer.get(buffer.position() + MarketDataBinaryCodec.HEADER_SIZE - 1) & 0xFF;
+        int length = MarketDataBinaryCodec.HEADER_SIZE + symbolLength;
+        if (buffer.remaining() < length) {
+            throw new IllegalArgumentException("Truncated market data symbol: expected " + symbolLength + " bytes");
+        }
+        buffer.position(buffer.position() + length);
+    }
+}
@@ -0,0 +1,99 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.service.LatencyTracker.Stage;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latency percentiles per pipeline stage for one snapshot interval, and
+ * for everything recorded since start-up. Latencies are in microseconds
+ * from tick creation.
+ */
+public class LatencySnapshot {
+
+    private final Instant intervalStart;
+    private final Instant intervalEnd;
+    private final Map<Stage, StageLatency> interval;
+    private final Map<Stage, StageLatency> total;
+
+    public LatencySnapshot(Instant intervalStart, Instant intervalEnd,
+                           Map<Stage, StageLatency> interval, Map<Stage, StageLatency> total) {
+        this.intervalStart = intervalStart;
+        this.intervalEnd = intervalEnd;
+        this.interval = Collections.unmodifiableMap(interval);
+        this.total = Collections.unmodifiableMap(total);
+    }
+
+    static LatencySnapshot empty(Instant start) {
+        Map<Stage, StageLatency> none = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            none.put(stage, StageLatency.NONE);
+        }
+        return new LatencySnapshot(start, start, none, none);
+    }
+
+    public Instant getIntervalStart() { return intervalStart; }
+    public Instant getIntervalEnd() { return intervalEnd; }
+    public Map<Stage, StageLatency> getInterval() { return interval; }
+    public Map<Stage, StageLatency> getTotal() { return total; }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{" + intervalStart + " - " + intervalEnd + ", interval=" + interval + "}";
+    }
+
+    /**
+     * Latency distribution of the ticks that reached one stage.
+     */
+    public static class StageLatency {
+
+        static final StageLatency NONE = new StageLatency(0, 0, 0, 0, 0, 0);
+
+        private static final double NANOS_PER_MICRO = 1_000.0;
+
+        private final long count;
+        private final double p50;
+        private final double p99;
+        private final double p999;
+        private final double max;
+        private final double mean;
+
+        public StageLatency(long count, double p50, double p99, double p999, double max, double mean) {
+            this.count = count;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        static StageLatency of(Histogram nanos) {
+            if (nanos.getTotalCount() == 0) {
+                return NONE;
+            }
+            return new StageLatency(nanos.getTotalCount(),
+                    nanos.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                    nanos.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                    nanos.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                    nanos.getMaxValue() / NANOS_PER_MICRO,
+                    nanos.getMean() / NANOS_PER_MICRO);
+        }
+
+        public long getCount() { return count; }
+        public double getP50() { return p50; }
+        public double getP99() { return p99; }
+        public double getP999() { return p999; }
+        public double getMax() { return max; }
+        public double getMean() { return mean; }
+
+        @Override
+        public String toString() {
+            return String.format("{count=%d, p50=%.1fus, p99=%.1fus, p99.9=%.1fus, max=%.1fus}",
+                    count, p50, p99, p999, max);
+        }
+    }
+}
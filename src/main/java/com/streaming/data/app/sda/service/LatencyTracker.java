@@ -0,0 +1,220 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long ticks take to travel from creation to each pipeline
+ * stage, using the monotonic creation time every {@link MarketData} carries.
+ *
+ * Each {@link Stage} has an HdrHistogram {@link Recorder}: recording is
+ * wait-free and allocation-free, and any number of threads may record at
+ * once. Every snapshot interval the recorders are swapped for fresh interval
+ * histograms, from which a {@link LatencySnapshot} of percentiles is taken,
+ * both for the interval just ended and for everything since start-up.
+ *
+ * When tracing is disabled nothing is recorded and no snapshots are taken.
+ */
+@Service
+public class LatencyTracker {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyTracker.class);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Points in the pipeline at which a tick's age is recorded.
+     */
+    public enum Stage {
+        /** Delivered by the event bus to the WebSocket broadcaster. */
+        BROADCAST,
+        /** Written to a WebSocket session's socket, once per session. */
+        WEBSOCKET,
+        /** Written to the CSV export as durably as its durability setting promises. */
+        CSV,
+        /** Appended to the binary journal. */
+        JOURNAL
+    }
+
+    private final boolean enabled;
+    private final long snapshotInterval;
+    private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram> intervals = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram> totals = new EnumMap<>(Stage.class);
+
+    private ScheduledExecutorService snapshotScheduler;
+    private Instant intervalStart = Instant.now();
+    private volatile LatencySnapshot latestSnapshot;
+
+    public LatencyTracker(StreamingConfig config) {
+        this.enabled = config.getLatency().isEnabled();
+        this.snapshotInterval = config.getLatency().getSnapshotInterval();
+        for (Stage stage : Stage.values()) {
+            recorders.put(stage, new Recorder(SIGNIFICANT_DIGITS));
+            totals.put(stage, new Histogram(SIGNIFICANT_DIGITS));
+        }
+        this.latestSnapshot = LatencySnapshot.empty(intervalStart);
+    }
+
+    /**
+     * Get a tracker that records nothing, for components created outside the application context
+     */
+    public static LatencyTracker disabled() {
+        return new LatencyTracker(new StreamingConfig(null, null, null, null, null, null, null, null, null));
+    }
+
+    /**
+     * Starts taking snapshots after bean creation.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latency-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleAtFixedRate(this::publishSnapshot,
+                snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+        logger.info("Latency tracing enabled, snapshot every {} ms", snapshotInterval);
+    }
+
+    /**
+     * Stops taking snapshots before bean destruction.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the age of a tick reaching a stage now.
+     */
+    public void record(Stage stage, MarketData data) {
+        record(stage, data.getCreatedNanos());
+    }
+
+    /**
+     * Records the age of a tick created at the given {@link System#nanoTime()} reaching a stage now.
+     */
+    public void record(Stage stage, long createdNanos) {
+        if (enabled) {
+            record(stage, createdNanos, System.nanoTime());
+        }
+    }
+
+    private void record(Stage stage, long createdNanos, long nowNanos) {
+        recorders.get(stage).recordValue(Math.max(0, nowNanos - createdNanos));
+    }
+
+    /**
+     * Get the snapshot taken at the end of the last interval
+     */
+    public LatencySnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    private void publishSnapshot() {
+        try {
+            LatencySnapshot snapshot = snapshot();
+            logger.debug("Latency snapshot: {}", snapshot);
+        } catch (RuntimeException e) {
+            logger.error("Error taking latency snapshot", e);
+        }
+    }
+
+    /**
+     * Ends the current interval and takes a snapshot of it, which becomes the latest.
+     */
+    public synchronized LatencySnapshot snapshot() {
+        Instant intervalEnd = Instant.now();
+        Map<Stage, LatencySnapshot.StageLatency> interval = new EnumMap<>(Stage.class);
+        Map<Stage, LatencySnapshot.StageLatency> total = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            Histogram histogram = recorders.get(stage).getIntervalHistogram(intervals.get(stage));
+            intervals.put(stage, histogram);
+            totals.get(stage).add(histogram);
+            interval.put(stage, LatencySnapshot.StageLatency.of(histogram));
+            total.put(stage, LatencySnapshot.StageLatency.of(totals.get(stage)));
+        }
+        LatencySnapshot snapshot = new LatencySnapshot(intervalStart, intervalEnd, interval, total);
+        intervalStart = intervalEnd;
+        latestSnapshot = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Creation times of ticks that reach a stage together, such as rows
+     * waiting for the same flush. Not thread-safe; guard it as the rows it
+     * tracks are guarded.
+     */
+    public static final class Pending {
+        private long[] createdNanos = new long[256];
+        private int size;
+
+        /**
+         * Adds a tick that has not reached the stage yet.
+         */
+        public void add(MarketData data) {
+            add(data.getCreatedNanos());
+        }
+
+        /**
+         * Adds a tick created at the given {@link System#nanoTime()} that has not reached the stage yet.
+         */
+        public void add(long created) {
+            if (size == createdNanos.length) {
+                createdNanos = Arrays.copyOf(createdNanos, size * 2);
+            }
+            createdNanos[size++] = created;
+        }
+
+        /**
+         * Moves every pending tick to another set, leaving this one empty.
+         */
+        public void moveTo(Pending other) {
+            for (int i = 0; i < size; i++) {
+                if (other.size == other.createdNanos.length) {
+                    other.createdNanos = Arrays.copyOf(other.createdNanos, other.size * 2);
+                }
+                other.createdNanos[other.size++] = createdNanos[i];
+            }
+            size = 0;
+        }
+
+        /**
+         * Records every pending tick as reaching the stage now, leaving the set empty.
+         */
+        public void recordAll(LatencyTracker tracker, Stage stage) {
+            if (tracker.enabled) {
+                long now = System.nanoTime();
+                for (int i = 0; i < size; i++) {
+                    tracker.record(stage, createdNanos[i], now);
+                }
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.streaming.data.app.sda.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.PhaseConfig;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The simulator's load over time: target tick rate, volatility and
+ * instrument activity as functions of the time since a stream started.
+ *
+ * A profile is a timeline of {@link PhaseConfig phases}, played from the
+ * start and then repeated, or held at the last phase's final rate when it
+ * does not loop. Within a phase the rate moves linearly from its start to its
+ * end value, and the ticks due at any moment are the rate integrated up to
+ * then, so a pacer that falls behind knows exactly how many to catch up on.
+ *
+ * A profile file is JSON, with durations as in properties:
+ * <pre>
+ * {
+ *   "seed": 42,
+ *   "loop": true,
+ *   "phases": [
+ *     {"name": "pre-open", "duration": "20s", "rate": 2000, "activity": 0.2},
+ *     {"name": "open", "duration": "5s", "rate": 2000, "endRate": 500000, "volatility": 4},
+ *     {"name": "session", "duration": "60s", "rate": 50000}
+ *   ]
+ * }
+ * </pre>
+ */
+public final class LoadProfile {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final List<PhaseConfig> phases;
+    private final boolean loop;
+    private final Long seed;
+    private final long[] phaseStarts;
+    private final double[] ticksBefore;
+    private final long cycleNanos;
+    private final double ticksPerCycle;
+
+    LoadProfile(List<PhaseConfig> phases, boolean loop, Long seed) {
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException("A load profile needs at least one phase");
+        }
+        this.phases = List.copyOf(phases);
+        this.loop = loop;
+        this.seed = seed;
+        this.phaseStarts = new long[phases.size()];
+        this.ticksBefore = new double[phases.size()];
+        long start = 0;
+        double ticks = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            phaseStarts[i] = start;
+            ticksBefore[i] = ticks;
+            long duration = phases.get(i).getDuration().toNanos();
+            ticks += ticksWithin(phases.get(i), duration);
+            start += duration;
+        }
+        this.cycleNanos = start;
+        this.ticksPerCycle = ticks;
+    }
+
+    /**
+     * A single endless phase at a fixed rate.
+     */
+    static LoadProfile constant(double ticksPerSecond) {
+        return new LoadProfile(List.of(new PhaseConfig("constant", Duration.ofSeconds(1), ticksPerSecond, null, 1.0, 1.0)),
+                true, null);
+    }
+
+    /**
+     * The profile configured for a simulation: its profile file or inline
+     * phases, or a constant ticksPerSecond when it has neither.
+     *
+     * @throws IllegalArgumentException if the profile file cannot be read or is invalid
+     */
+    public static LoadProfile of(StreamingConfig.SimulationConfig simulation) {
+        StreamingConfig.ProfileConfig profile = simulation.getProfile();
+        if (!profile.getFile().isBlank()) {
+            try {
+                return load(Paths.get(profile.getFile()), profile.isLoop());
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException("Cannot load profile " + profile.getFile() + ": " + e.getMessage(), e);
+            }
+        }
+        if (!profile.getPhases().isEmpty()) {
+            return new LoadProfile(profile.getPhases(), profile.isLoop(), null);
+        }
+        return constant(simulation.getTicksPerSecond());
+    }
+
+    /**
+     * Read a profile from a JSON file.
+     *
+     * @param loop whether to repeat the timeline if the file does not say
+     */
+    public static LoadProfile load(Path file, boolean loop) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(Files.readString(file));
+        List<PhaseConfig> phases = new ArrayList<>();
+        for (JsonNode phase : root.path("phases")) {
+            String name = phase.path("name").asText("");
+            if (!phase.hasNonNull("duration") || !phase.hasNonNull("rate")) {
+                throw new IllegalArgumentException("Profile phase " + name + " needs a duration and a rate");
+            }
+            phases.add(new PhaseConfig(
+                    name,
+                    DurationStyle.detectAndParse(phase.get("duration").asText()),
+                    phase.get("rate").asDouble(),
+                    phase.hasNonNull("endRate") ? phase.get("endRate").asDouble() : null,
+                    phase.path("volatility").asDouble(1.0),
+                    phase.path("activity").asDouble(1.0)));
+        }
+        Long seed = root.hasNonNull("seed") ? root.get("seed").asLong() : null;
+        return new LoadProfile(phases, root.path("loop").asBoolean(loop), seed);
+    }
+
+    /**
+     * Get the seed given by the profile file, or null
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public List<PhaseConfig> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Get the index of the phase in effect at a time since the stream
+     * started. Past the end of a profile that does not loop, the last phase.
+     */
+    public int phaseIndexAt(long elapsedNanos) {
+        long t = positionInCycle(elapsedNanos);
+        int i = phases.size() - 1;
+        while (i > 0 && phaseStarts[i] > t) {
+            i--;
+        }
+        return i;
+    }
+
+    public PhaseConfig phaseAt(long elapsedNanos) {
+        return phases.get(phaseIndexAt(elapsedNanos));
+    }
+
+    /**
+     * Get the target rate in ticks per second at a time since the stream started
+     */
+    public double rateAt(long elapsedNanos) {
+        if (!loop && elapsedNanos >= cycleNanos) {
+            return phases.get(phases.size() - 1).getEndRate();
+        }
+        int i = phaseIndexAt(elapsedNanos);
+        PhaseConfig phase = phases.get(i);
+        double progress = (double) (positionInCycle(elapsedNanos) - phaseStarts[i]) / phase.getDuration().toNanos();
+        return phase.getRate() + (phase.getEndRate() - phase.getRate()) * progress;
+    }
+
+    /**
+     * Get the number of ticks due in total by a time since the stream started:
+     * the integral of the rate up to then.
+     */
+    public double ticksDueAt(long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        if (!loop && elapsedNanos >= cycleNanos) {
+            double held = phases.get(phases.size() - 1).getEndRate();
+            return ticksPerCycle + held * (elapsedNanos - cycleNanos) / NANOS_PER_SECOND;
+        }
+        long cycles = elapsedNanos / cycleNanos;
+        long t = elapsedNanos % cycleNanos;
+        int i = phaseIndexAt(t);
+        return cycles * ticksPerCycle + ticksBefore[i] + ticksWithin(phases.get(i), t - phaseStarts[i]);
+    }
+
+    private long positionInCycle(long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return loop ? elapsedNanos % cycleNanos : Math.min(elapsedNanos, cycleNanos - 1);
+    }
+
+    /**
+     * Ticks due in the first {@code nanos} of a phase, with its rate moving linearly.
+     */
+    private static double ticksWithin(PhaseConfig phase, long nanos) {
+        double seconds = nanos / NANOS_PER_SECOND;
+        double durationSeconds = phase.getDuration().toNanos() / NANOS_PER_SECOND;
+        return seconds * phase.getRate() + (phase.getEndRate() - phase.getRate()) * seconds * seconds / (2 * durationSeconds);
+    }
+}
@@ -0,0 +1,87 @@
+package com.streaming.data.app.sda.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * A request to replay persisted ticks: an inclusive time range, an optional
+ * symbol and the pace at which to send them.
+ */
+public class ReplayRequest {
+
+    /** Speed factor meaning "as fast as the client reads". */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String symbol;
+    private final double speed;
+
+    public ReplayRequest(LocalDateTime from, LocalDateTime to, String symbol, double speed) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Replay range ends before it starts: " + from + " to " + to);
+        }
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.from = from == null ? LocalDateTime.MIN : from;
+        this.to = to == null ? LocalDateTime.MAX : to;
+        this.symbol = symbol == null || symbol.isBlank() ? null : symbol;
+        this.speed = speed;
+    }
+
+    /**
+     * Build a request from query parameter values.
+     *
+     * @param from ISO local date-time of the first tick, or null for the beginning
+     * @param to ISO local date-time of the last tick, or null for the end
+     * @param symbol symbol to replay, or null for all
+     * @param speed pace such as {@code 1x} or {@code 10x}, or {@code max}; null means max
+     * @throws IllegalArgumentException if a value cannot be parsed
+     */
+    public static ReplayRequest parse(String from, String to, String symbol, String speed) {
+        return new ReplayRequest(parseTime(from), parseTime(to), symbol, parseSpeed(speed));
+    }
+
+    /**
+     * Parse a replay speed: {@code max}, or a positive factor with an optional {@code x} suffix
+     */
+    public static double parseSpeed(String speed) {
+        if (speed == null || speed.isBlank() || "max".equalsIgnoreCase(speed)) {
+            return MAX_SPEED;
+        }
+        String factor = speed.toLowerCase(Locale.ROOT);
+        if (factor.endsWith("x")) {
+            factor = factor.substring(0, factor.length() - 1);
+        }
+        try {
+            return Double.parseDouble(factor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid replay speed: " + speed, e);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid replay time: " + value, e);
+        }
+    }
+
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public String getSymbol() { return symbol; }
+    public double getSpeed() { return speed; }
+
+    /**
+     * Check if ticks are sent without pacing
+     */
+    public boolean isMaxSpeed() {
+        return Double.isInfinite(speed);
+    }
+}
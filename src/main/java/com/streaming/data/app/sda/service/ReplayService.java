@@ -0,0 +1,329 @@
+package com.streaming.data.app.sda.service;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays persisted ticks for a time range.
+ *
+ * Ticks are read from the {@link TickJournal} when it is enabled, and
+ * otherwise from the CSV export and its closed segments. Either way records
+ * are read one at a time as the subscriber requests them, on a bounded
+ * elastic thread, so a replay holds only a small read buffer however much
+ * history it covers. Journal segments are memory-mapped; segments that end
+ * before the requested range are skipped without being read. CSV files are
+ * entered through their {@link CsvOffsetIndex} where one exists.
+ *
+ * Ticks are persisted in arrival order, which from sharded generation and
+ * ingest feeds is close to but not strictly timestamp order. A replay
+ * therefore filters on the range rather than stopping at the first tick past
+ * it, and only gives up on a journal segment or CSV file once it reads a tick
+ * more than the configured max skew past the end of the range. Journal and
+ * CSV segments that start that far past the range are not opened at all, nor
+ * are segments whose successor starts that far before it.
+ *
+ * Ticks are replayed in the order they were persisted. A paced replay keeps
+ * the original spacing between tick timestamps, divided by the speed factor.
+ */
+@Service
+public class ReplayService {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayService.class);
+
+    /** Segment names carry their opening time truncated to the second. */
+    private static final long SEGMENT_STAMP_PRECISION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TickJournal tickJournal;
+    private final CsvExportService csvExportService;
+    private final long maxSkewNanos;
+
+    public ReplayService(StreamingConfig config, TickJournal tickJournal, CsvExportService csvExportService) {
+        this.tickJournal = tickJournal;
+        this.csvExportService = csvExportService;
+        this.maxSkewNanos = config.getReplay().getMaxSkew().toNanos();
+    }
+
+    /**
+     * Replay the persisted ticks matching a request.
+     *
+     * @param request time range, symbol and speed of the replay
+     * @return the matching ticks, paced as requested
+     */
+    public Flux<MarketData> replay(ReplayRequest request) {
+        Flux<MarketData> ticks = tickJournal.isEnabled() ? readJournal(request) : readCsv(request);
+        if (request.getSymbol() != null) {
+            ticks = ticks.filter(data -> request.getSymbol().equals(data.getSymbol()));
+        }
+        ticks = ticks.subscribeOn(Schedulers.boundedElastic());
+        return request.isMaxSpeed() ? ticks : pace(ticks, request.getSpeed());
+    }
+
+    /**
+     * Delays each tick so that the gaps between ticks are the gaps between
+     * their timestamps divided by the speed. Ticks that are already due are
+     * passed on immediately, so a slow reader catches up rather than drifting.
+     */
+    private static Flux<MarketData> pace(Flux<MarketData> ticks, double speed) {
+        return Flux.defer(() -> {
+            long[] origin = new long[2];
+            boolean[] started = new boolean[1];
+            return ticks.concatMap(tick -> {
+                long tickNanos = MarketDataBinaryCodec.toEpochNanos(tick.getTimestamp());
+                if (!started[0]) {
+                    started[0] = true;
+                    origin[0] = tickNanos;
+                    origin[1] = System.nanoTime();
+                    return Mono.just(tick);
+                }
+                long due = origin[1] + (long) ((tickNanos - origin[0]) / speed);
+                long wait = due - System.nanoTime();
+                return wait <= 0 ? Mono.just(tick) : Mono.delay(Duration.ofNanos(wait)).thenReturn(tick);
+            });
+        });
+    }
+
+    private Flux<MarketData> readJournal(ReplayRequest request) {
+        long fromNanos = boundNanos(request.getFrom());
+        long toNanos = boundNanos(request.getTo());
+        long stopNanos = saturatedAdd(toNanos, maxSkewNanos);
+        return Flux.defer(() -> {
+            List<Path> segments;
+            try {
+                segments = TickJournal.listSegments(tickJournal.getDirectory());
+            } catch (IOException e) {
+                return Flux.error(new UncheckedIOException(e));
+            }
+            return Flux.fromIterable(segmentsFrom(segments, saturatedAdd(fromNanos, -maxSkewNanos)))
+                    .takeWhile(segment -> firstEpochNanos(segment) <= stopNanos)
+                    .concatMap(segment -> readSegment(segment, fromNanos, toNanos, stopNanos), 1);
+        });
+    }
+
+    /**
+     * Drops leading segments whose successor starts before the range less
+     * the max skew, since all their ticks are earlier than the range.
+     */
+    private static List<Path> segmentsFrom(List<Path> segments, long earliestNanos) {
+        int first = 0;
+        while (first + 1 < segments.size() && firstEpochNanos(segments.get(first + 1)) < earliestNanos) {
+            first++;
+        }
+        return segments.subList(first, segments.size());
+    }
+
+    private static long firstEpochNanos(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(TickJournal.RECORD_SIZE);
+            while (record.hasRemaining() && channel.read(record) >= 0) {
+                // Read the whole first record
+            }
+            if (record.hasRemaining() || !TickJournal.isCommitted(record, 0)) {
+                return Long.MAX_VALUE;
+            }
+            return TickJournal.readEpochNanos(record, 0);
+        } catch (NoSuchFileException e) {
+            // Deleted by retention since it was listed; nothing in it to replay
+            return Long.MIN_VALUE;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Flux<MarketData> readSegment(Path segment, long fromNanos, long toNanos, long stopNanos) {
+        return Flux.defer(() -> {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                return Flux.empty();
+            } catch (IOException e) {
+                return Flux.error(new UncheckedIOException(e));
+            }
+            int limit = buffer.capacity() / TickJournal.RECORD_SIZE * TickJournal.RECORD_SIZE;
+            return Flux.<MarketData, Integer>generate(() -> 0, (start, sink) -> {
+                int offset = start;
+                while (offset < limit && TickJournal.isCommitted(buffer, offset)) {
+                    long epochNanos = TickJournal.readEpochNanos(buffer, offset);
+                    if (epochNanos > stopNanos) {
+                        break;
+                    }
+                    if (epochNanos >= fromNanos && epochNanos <= toNanos) {
+                        sink.next(TickJournal.readRecord(buffer, offset));
+                        return offset + TickJournal.RECORD_SIZE;
+                    }
+                    offset += TickJournal.RECORD_SIZE;
+                }
+                sink.complete();
+                return offset;
+            });
+        });
+    }
+
+    private Flux<MarketData> readCsv(ReplayRequest request) {
+        long fromNanos = boundNanos(request.getFrom());
+        long seekNanos = saturatedAdd(fromNanos, -maxSkewNanos);
+        LocalDateTime stop = request.getTo().getYear() > 2261
+                ? request.getTo()
+                : request.getTo().plusNanos(maxSkewNanos);
+        return Flux.defer(() -> Flux.fromIterable(csvFilesFor(fromNanos, boundNanos(request.getTo())))
+                .filter(Files::exists)
+                .concatMap(file -> readCsvFile(file, seekNanos)
+                        .takeWhile(data -> !data.getTimestamp().isAfter(stop)), 1)
+                .filter(data -> !data.getTimestamp().isBefore(request.getFrom())
+                        && !data.getTimestamp().isAfter(request.getTo())));
+    }
+
+    /**
+     * Lists the CSV segments that may hold ticks in a range, then the active
+     * file. A segment's rows were written before the next segment was opened,
+     * so a segment is skipped when the next one opened more than the max skew
+     * before the range; the list ends at the first segment opened more than
+     * the max skew after it. Opening times come from the segment names, to
+     * the second, so each bound is widened by a second.
+     */
+    private List<Path> csvFilesFor(long fromNanos, long toNanos) {
+        long margin = maxSkewNanos + SEGMENT_STAMP_PRECISION_NANOS;
+        long earliestNanos = saturatedAdd(fromNanos, -margin);
+        long stopNanos = saturatedAdd(toNanos, maxSkewNanos);
+        List<Path> segments = csvExportService.getSegments();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            long startNanos = openedNanos(csvExportService.getSegmentStart(segments.get(i)), Long.MIN_VALUE);
+            if (startNanos > stopNanos) {
+                return files;
+            }
+            LocalDateTime next = i + 1 < segments.size()
+                    ? csvExportService.getSegmentStart(segments.get(i + 1))
+                    : csvExportService.getSegmentOpenedAt();
+            if (openedNanos(next, Long.MAX_VALUE) >= earliestNanos) {
+                files.add(segments.get(i));
+            }
+        }
+        files.add(csvExportService.getCsvFilePath());
+        return files;
+    }
+
+    private static long openedNanos(LocalDateTime openedAt, long unknown) {
+        return openedAt == null ? unknown : MarketDataBinaryCodec.toEpochNanos(openedAt);
+    }
+
+    private Flux<MarketData> readCsvFile(Path file, long fromNanos) {
+        return Flux.using(
+                () -> openCsv(file, fromNanos),
+                reader -> Flux.generate(sink -> {
+                    try {
+                        for (String[] row; (row = reader.readNext()) != null; ) {
+                            MarketData data = parseRow(row);
+                            if (data != null) {
+                                sink.next(data);
+                                return;
+                            }
+                        }
+                        sink.complete();
+                    } catch (IOException | CsvValidationException e) {
+                        sink.error(e);
+                    }
+                }),
+                reader -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        logger.warn("Error closing CSV file {}", file, e);
+                    }
+                });
+    }
+
+    /**
+     * Opens a CSV file for reading, positioned using its offset index, if
+     * any, near the first row at or after the range. The index of a
+     * compressed segment points at gzip member boundaries, from which the
+     * rest of the file decompresses on its own.
+     */
+    private static CSVReader openCsv(Path file, long fromNanos) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        InputStream in;
+        try {
+            channel.position(CsvOffsetIndex.seek(file, fromNanos));
+            in = Channels.newInputStream(channel);
+            if (file.getFileName().toString().endsWith(".gz")) {
+                in = new GZIPInputStream(in, 1 << 16);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CSVReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    /**
+     * Parses an exported row, or returns null for headers and rows that are
+     * incomplete, such as one still being written. Rows written before
+     * symbols were exported have four columns and get the default symbol.
+     */
+    private static MarketData parseRow(String[] row) {
+        try {
+            if (row.length == 5) {
+                return new MarketData(row[1], Double.parseDouble(row[2]), Double.parseDouble(row[3]),
+                        Double.parseDouble(row[4]), LocalDateTime.parse(row[0]));
+            }
+            if (row.length == 4) {
+                return new MarketData(Double.parseDouble(row[1]), Double.parseDouble(row[2]),
+                        Double.parseDouble(row[3]), LocalDateTime.parse(row[0]));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            logger.debug("Skipping unparseable CSV row: {}", String.join(",", row));
+        }
+        return null;
+    }
+
+    private static long saturatedAdd(long nanos, long delta) {
+        long sum = nanos + delta;
+        // Overflow only when both operands share a sign the sum does not
+        if (((nanos ^ sum) & (delta ^ sum)) < 0) {
+            return nanos < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    /**
+     * Converts a range bound to epoch nanoseconds, saturating outside the representable years.
+     */
+    private static long boundNanos(LocalDateTime time) {
+        if (time.getYear() < 1678) {
+            return Long.MIN_VALUE;
+        }
+        if (time.getYear() > 2261) {
+            return Long.MAX_VALUE;
+        }
+        return MarketDataBinaryCodec.toEpochNanos(time);
+    }
+}
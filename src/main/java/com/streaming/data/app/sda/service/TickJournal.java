@@ -0,0 +1,378 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only binary journal of processed ticks.
+ *
+ * Ticks are written as fixed-width records into segment files that are sized
+ * up front and memory-mapped, so an append is a handful of stores into the
+ * page cache with no system call. Once stored, a record survives a JVM crash,
+ * since the operating system owns the mapped pages; the current segment is
+ * also forced to disk on shutdown.
+ *
+ * Record layout, {@value #RECORD_SIZE} bytes, big-endian:
+ * <pre>
+ *  offset  size  field
+ *   0       4    commit marker, {@value #COMMITTED} once the record is complete, 0 if empty
+ *   4       1    symbol length n (0-{@value #MAX_SYMBOL_LENGTH})
+ *   5      27    symbol, UTF-8, zero padded
+ *  32       8    timestamp, nanoseconds since 1970-01-01T00:00 (local time read as UTC)
+ *  40       8    bid
+ *  48       8    ask
+ *  56       8    volume
+ * </pre>
+ * The marker is stored last with release semantics, so a reader that sees it
+ * with acquire semantics sees the whole record, and a record torn by a crash
+ * reads as the end of the journal.
+ *
+ * When the journal rolls to a new segment, the oldest segments beyond the
+ * configured maximum are deleted. A replay that already mapped a deleted
+ * segment keeps reading it.
+ *
+ * Appends must come from a single thread; they take no locks.
+ */
+@Service
+public class TickJournal {
+    private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+
+    public static final int RECORD_SIZE = 64;
+    public static final int MAX_SYMBOL_LENGTH = 27;
+    public static final int COMMITTED = 0x53444131;
+
+    private static final int SYMBOL_LENGTH_OFFSET = 4;
+    private static final int SYMBOL_OFFSET = 5;
+    private static final int TIMESTAMP_OFFSET = 32;
+    private static final int BID_OFFSET = 40;
+    private static final int ASK_OFFSET = 48;
+    private static final int VOLUME_OFFSET = 56;
+
+    private static final VarHandle MARKER =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final StreamingConfig config;
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final LatencyTracker latencyTracker;
+
+    private Path directory;
+    private int segmentCapacity;
+    private int segmentLimit;
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int writeOffset;
+
+    public TickJournal(StreamingConfig config) {
+        this(config, new SimpleMeterRegistry(), LatencyTracker.disabled());
+    }
+
+    @Autowired
+    public TickJournal(StreamingConfig config, MeterRegistry meterRegistry, LatencyTracker latencyTracker) {
+        this.config = config;
+        this.latencyTracker = latencyTracker;
+        FunctionCounter.builder("sda.journal.records", this, TickJournal::getAppendedCount)
+                .description("Ticks appended to the journal")
+                .tag("outcome", "appended")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.journal.records", this, TickJournal::getRejectedCount)
+                .description("Ticks the journal could not store")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the newest segment and resumes after its last complete record,
+     * or starts the first segment.
+     * @throws IOException if the journal directory or segment cannot be opened
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        StreamingConfig.JournalConfig journalConfig = config.getJournal();
+        if (!journalConfig.isEnabled()) {
+            return;
+        }
+        this.directory = Paths.get(journalConfig.getPath());
+        long records = journalConfig.getSegmentSize().toBytes() / RECORD_SIZE;
+        if (records < 1 || records * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal segment size must hold 1 to "
+                    + Integer.MAX_VALUE / RECORD_SIZE + " records: " + journalConfig.getSegmentSize());
+        }
+        this.segmentCapacity = (int) records * RECORD_SIZE;
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            openSegment(segmentIndex(last));
+            writeOffset = findEnd(segment, segmentLimit);
+        }
+        applyRetention();
+        logger.info("Tick journal initialized. Segment: {}, offset: {}", segmentPath(segmentIndex), writeOffset);
+    }
+
+    /**
+     * Check if the journal is enabled and should be subscribed to the processed stream
+     */
+    public boolean isEnabled() {
+        return config.getJournal().isEnabled();
+    }
+
+    /**
+     * Append a tick. Must only be called from one thread at a time.
+     *
+     * @param data the tick to append
+     * @return false if the tick was rejected because its symbol does not fit a record
+     */
+    public boolean append(MarketData data) {
+        return append(data.getSymbol(), MarketDataBinaryCodec.toEpochNanos(data.getTimestamp()),
+                data.getBid(), data.getAsk(), data.getVolume(), data.getCreatedNanos());
+    }
+
+    /**
+     * Append every row of a columnar batch, in order. Must only be called
+     * from one thread at a time.
+     *
+     * @param batch the ticks to append
+     * @return the number of rows appended; rows whose symbol does not fit a record are rejected
+     */
+    public int append(TickBatch batch) {
+        int appended = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            if (append(batch.getSymbol(row), batch.getEpochNanos(row),
+                    batch.getBid(row), batch.getAsk(row), batch.getVolume(row), batch.getCreatedNanos(row))) {
+                appended++;
+            }
+        }
+        return appended;
+    }
+
+    private boolean append(String symbolText, long epochNanos, double bid, double ask, double volume, long createdNanos) {
+        int symbolLength = isAscii(symbolText)
+                ? symbolText.length()
+                : symbolText.getBytes(StandardCharsets.UTF_8).length;
+        if (symbolLength > MAX_SYMBOL_LENGTH) {
+            if (rejectedCount.getAndIncrement() == 0) {
+                logger.warn("Symbol longer than {} bytes cannot be journaled: {}", MAX_SYMBOL_LENGTH, symbolText);
+            }
+            return false;
+        }
+        if (writeOffset + RECORD_SIZE > segmentLimit) {
+            rollSegment();
+        }
+
+        MappedByteBuffer buffer = segment;
+        int offset = writeOffset;
+        buffer.put(offset + SYMBOL_LENGTH_OFFSET, (byte) symbolLength);
+        if (symbolLength == symbolText.length()) {
+            // ASCII: each char is its own UTF-8 byte
+            for (int i = 0; i < symbolLength; i++) {
+                buffer.put(offset + SYMBOL_OFFSET + i, (byte) symbolText.charAt(i));
+            }
+        } else {
+            byte[] symbol = symbolText.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < symbol.length; i++) {
+                buffer.put(offset + SYMBOL_OFFSET + i, symbol[i]);
+            }
+        }
+        buffer.putLong(offset + TIMESTAMP_OFFSET, epochNanos);
+        buffer.putDouble(offset + BID_OFFSET, bid);
+        buffer.putDouble(offset + ASK_OFFSET, ask);
+        buffer.putDouble(offset + VOLUME_OFFSET, volume);
+        MARKER.setRelease(buffer, offset, COMMITTED);
+
+        writeOffset = offset + RECORD_SIZE;
+        appendedCount.incrementAndGet();
+        latencyTracker.record(LatencyTracker.Stage.JOURNAL, createdNanos);
+        return true;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rollSegment() {
+        try {
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open journal segment " + segmentPath(segmentIndex + 1), e);
+        }
+        applyRetention();
+    }
+
+    private void applyRetention() {
+        int maxSegments = config.getJournal().getMaxSegments();
+        if (maxSegments <= 0) {
+            return;
+        }
+        List<Path> segments;
+        try {
+            segments = listSegments(directory);
+        } catch (IOException e) {
+            logger.error("Error listing journal segments in {}", directory, e);
+            return;
+        }
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+                logger.info("Deleted journal segment {} past retention", segments.get(i));
+            } catch (IOException e) {
+                logger.error("Error deleting journal segment {}", segments.get(i), e);
+            }
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        Path path = segmentPath(index);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentCapacity);
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        this.segmentIndex = index;
+        this.writeOffset = 0;
+        this.segmentLimit = segment.capacity() / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    /**
+     * Forces the current segment to disk before bean destruction.
+     */
+    @PreDestroy
+    public void close() {
+        if (segment != null) {
+            segment.force();
+            logger.info("Tick journal closed: appended={}, rejected={}", appendedCount.get(), rejectedCount.get());
+        }
+    }
+
+    /**
+     * Get the offset just past the last committed record of a segment.
+     * Records are committed in order, so the committed ones form a prefix
+     * and the end can be found by binary search.
+     *
+     * @param buffer the mapped segment
+     * @param limit number of bytes of the segment to consider
+     */
+    public static int findEnd(ByteBuffer buffer, int limit) {
+        int low = 0;
+        int high = limit / RECORD_SIZE;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isCommitted(buffer, mid * RECORD_SIZE)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * RECORD_SIZE;
+    }
+
+    /**
+     * Check if the record at an offset is complete, with acquire semantics.
+     */
+    public static boolean isCommitted(ByteBuffer buffer, int offset) {
+        return (int) MARKER.getAcquire(buffer, offset) == COMMITTED;
+    }
+
+    /**
+     * Get the timestamp of the record at an offset, in nanoseconds since the epoch
+     */
+    public static long readEpochNanos(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Decode the committed record at an offset.
+     */
+    public static MarketData readRecord(ByteBuffer buffer, int offset) {
+        int symbolLength = buffer.get(offset + SYMBOL_LENGTH_OFFSET) & 0xFF;
+        byte[] symbol = new byte[Math.min(symbolLength, MAX_SYMBOL_LENGTH)];
+        for (int i = 0; i < symbol.length; i++) {
+            symbol[i] = buffer.get(offset + SYMBOL_OFFSET + i);
+        }
+        return new MarketData(
+                new String(symbol, StandardCharsets.UTF_8),
+                buffer.getDouble(offset + BID_OFFSET),
+                buffer.getDouble(offset + ASK_OFFSET),
+                buffer.getDouble(offset + VOLUME_OFFSET),
+                MarketDataBinaryCodec.fromEpochNanos(buffer.getLong(offset + TIMESTAMP_OFFSET)));
+    }
+
+    /**
+     * Get the journal's segment files, oldest first
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Get the journal directory, or null if the journal is disabled
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
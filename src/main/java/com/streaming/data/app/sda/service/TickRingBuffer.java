@@ -0,0 +1,371 @@
+package com.streaming.data.app.sda.service;
+
+import com.streaming.data.app.sda.model.MarketData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated ring of tick slots with any number of producers and
+ * consumers, each consumer reading at its own sequence on its own thread.
+ *
+ * Slots are allocated once and reused: publishing stores the tick in the
+ * next slot and then its sequence number, which makes the slot visible to
+ * consumers. {@link MarketData} is immutable, so a slot holds a reference to
+ * the published tick rather than a copy of its fields; consumers hand that
+ * same instance downstream, and the ring itself allocates nothing per tick.
+ *
+ * Publishing takes no lock. Ticks arrive from ingest request threads as well
+ * as the generator, so each producer claims its sequence with a
+ * compare-and-set on the claim counter, then fills its slot and stores the
+ * slot's sequence; consumers go by the slot sequences, so a tick becomes
+ * visible as soon as its own slot is written, whatever other producers are
+ * still doing. Ticks from one producer keep their order; ticks from
+ * concurrent producers are ordered by their claims. Completion is a flag in
+ * the same counter, so a claim either precedes it and is delivered, or
+ * fails. Consumers are a copy-on-write array that producers read without
+ * locking; only subscribing and unsubscribing take the ring's monitor.
+ *
+ * What happens when the slowest consumer is a whole ring behind depends on
+ * the mode. A gating ring refuses to publish until it catches up. An
+ * overwriting ring publishes anyway, and a consumer that finds its next
+ * slot overwritten either skips to the oldest tick still in the ring,
+ * counting the ticks it lost, or fails with an overflow error.
+ */
+public class TickRingBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(TickRingBuffer.class);
+
+    /** Busy-spins before a waiting consumer parks. */
+    private static final int SPINS_BEFORE_PARK = 256;
+    /** Upper bound on a consumer's park, in case a wake-up is missed. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** Set in the claim counter once the ring is completed, failing later claims. */
+    private static final long TERMINATED = 1L << 62;
+
+    /**
+     * What a consumer does when the producer has lapped it.
+     */
+    public enum Mode {
+        /** The producer may not overwrite unconsumed slots; {@link #publish} fails instead. */
+        GATING,
+        /** The consumer skips to the oldest tick still in the ring. */
+        DROP_OLDEST,
+        /** The consumer skips to the newest tick whenever it has fallen behind at all. */
+        KEEP_LATEST,
+        /** The consumer fails with an overflow error. */
+        ERROR
+    }
+
+    private static final class Slot {
+        volatile long sequence = -1;
+        MarketData value;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final Mode mode;
+    private final LongAdder droppedCount;
+    /** Copy-on-write, and an array so that the producer iterates without allocating. */
+    private volatile Consumer[] consumers = new Consumer[0];
+    private final AtomicInteger consumerIds = new AtomicInteger();
+
+    /** Next sequence to claim, with {@link #TERMINATED} set once completed. */
+    private final AtomicLong claims = new AtomicLong();
+    /** Lowest consumer sequence seen by a producer, rescanned only when the ring looks full. */
+    private volatile long cachedGatingSequence = -1;
+    private volatile Throwable error;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param mode what happens to consumers that fall a ring behind
+     * @param droppedCount counter for ticks consumers skip
+     */
+    public TickRingBuffer(int capacity, Mode mode, LongAdder droppedCount) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.mode = mode;
+        this.droppedCount = droppedCount;
+    }
+
+    /**
+     * Get the number of slots
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Get the number of ticks published but not yet read by the slowest
+     * consumer, at most the capacity
+     */
+    public long getBacklog() {
+        long published = cursor();
+        return Math.min(slots.length, published - minimumConsumerSequence(published));
+    }
+
+    /**
+     * Get the number of subscribed consumers
+     */
+    public int getConsumerCount() {
+        return consumers.length;
+    }
+
+    /**
+     * Publishes a tick to every consumer.
+     *
+     * @param data the tick
+     * @return false if the ring is gating and the slowest consumer is a whole ring behind,
+     *         or the ring has been terminated
+     */
+    public boolean publish(MarketData data) {
+        long sequence;
+        while (true) {
+            long state = claims.get();
+            if ((state & TERMINATED) != 0) {
+                return false;
+            }
+            sequence = state;
+            if (mode == Mode.GATING) {
+                long wrapPoint = sequence - slots.length;
+                if (wrapPoint > cachedGatingSequence) {
+                    long gatingSequence = minimumConsumerSequence(sequence - 1);
+                    cachedGatingSequence = gatingSequence;
+                    if (wrapPoint > gatingSequence) {
+                        return false;
+                    }
+                }
+            }
+            if (claims.compareAndSet(state, sequence + 1)) {
+                break;
+            }
+        }
+        Slot slot = slots[(int) sequence & mask];
+        // A producer a whole ring ahead waits for this slot's previous tick to be stored
+        while (slot.sequence < sequence - slots.length) {
+            Thread.onSpinWait();
+        }
+        slot.value = data;
+        slot.sequence = sequence;
+        wakeConsumers();
+        return true;
+    }
+
+    /**
+     * Ends the stream once consumers have read everything published.
+     */
+    public void complete() {
+        terminate();
+    }
+
+    /**
+     * Ends the stream with an error once consumers have read everything published.
+     */
+    public void error(Throwable throwable) {
+        if ((claims.get() & TERMINATED) == 0) {
+            error = throwable;
+        }
+        terminate();
+    }
+
+    private void terminate() {
+        long state;
+        do {
+            state = claims.get();
+        } while ((state & TERMINATED) == 0 && !claims.compareAndSet(state, state | TERMINATED));
+        wakeConsumers();
+    }
+
+    /**
+     * Last claimed sequence. Its slot may still be being written.
+     */
+    private long cursor() {
+        return (claims.get() & ~TERMINATED) - 1;
+    }
+
+    /**
+     * Adapts the ring to a hot Flux. Each subscription is a new consumer
+     * starting after the last published tick, with its own sequence and
+     * thread, that reads only as far as downstream demand allows.
+     */
+    public Flux<MarketData> asFlux() {
+        return Flux.create(sink -> {
+            Consumer consumer = addConsumer(sink);
+            sink.onRequest(n -> consumer.wake());
+            sink.onDispose(consumer::stop);
+            consumer.thread.start();
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    private synchronized Consumer addConsumer(FluxSink<MarketData> sink) {
+        Consumer consumer = new Consumer(sink, cursor());
+        Consumer[] current = consumers;
+        Consumer[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = consumer;
+        consumers = updated;
+        return consumer;
+    }
+
+    private synchronized void removeConsumer(Consumer consumer) {
+        Consumer[] current = consumers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == consumer) {
+                Consumer[] updated = new Consumer[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                consumers = updated;
+                return;
+            }
+        }
+    }
+
+    private long minimumConsumerSequence(long minimum) {
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence);
+        }
+        return minimum;
+    }
+
+    private void wakeConsumers() {
+        for (Consumer consumer : consumers) {
+            if (consumer.parked) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    /**
+     * A reader with its own sequence, delivering to one subscriber on a
+     * dedicated thread.
+     */
+    private final class Consumer implements Runnable {
+        private final FluxSink<MarketData> sink;
+        private final Thread thread;
+        /** Last sequence consumed; the producer may reuse slots up to it. */
+        private volatile long sequence;
+        private volatile boolean parked;
+        private volatile boolean running = true;
+
+        Consumer(FluxSink<MarketData> sink, long start) {
+            this.sink = sink;
+            this.sequence = start;
+            this.thread = new Thread(this, "tick-ring-consumer-" + consumerIds.incrementAndGet());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                consume();
+            } catch (Throwable t) {
+                logger.error("Tick ring consumer failed", t);
+                sink.error(t);
+            } finally {
+                removeConsumer(this);
+            }
+        }
+
+        private void consume() {
+            int idle = 0;
+            while (running) {
+                long next = sequence + 1;
+                if (mode == Mode.KEEP_LATEST) {
+                    long latest = cursor();
+                    if (latest > next) {
+                        droppedCount.add(latest - next);
+                        sequence = latest - 1;
+                        next = latest;
+                    }
+                }
+                Slot slot = slots[(int) next & mask];
+                long published = slot.sequence;
+                if (published < next) {
+                    long state = claims.get();
+                    if ((state & TERMINATED) != 0 && (state & ~TERMINATED) <= next) {
+                        finish();
+                        return;
+                    }
+                    idle = idle(idle);
+                    continue;
+                }
+                if (published > next) {
+                    if (!overrun(next)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (sink.requestedFromDownstream() == 0) {
+                    idle = idle(idle);
+                    continue;
+                }
+                MarketData value = slot.value;
+                if (slot.sequence != next) {
+                    // Overwritten while reading; the next pass sees the overrun
+                    continue;
+                }
+                sequence = next;
+                idle = 0;
+                sink.next(value);
+            }
+        }
+
+        /**
+         * Handles a slot overwritten before it was read.
+         *
+         * @return false if the consumer has failed
+         */
+        private boolean overrun(long next) {
+            if (mode == Mode.ERROR) {
+                running = false;
+                sink.error(Exceptions.failWithOverflow("Tick ring consumer lapped by the producer"));
+                return false;
+            }
+            long oldest = Math.max(next, cursor() - slots.length + 1);
+            droppedCount.add(oldest - next);
+            sequence = oldest - 1;
+            return true;
+        }
+
+        private void finish() {
+            Throwable failure = error;
+            if (failure != null) {
+                sink.error(failure);
+            } else {
+                sink.complete();
+            }
+        }
+
+        private int idle(int idle) {
+            if (idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+                return idle + 1;
+            }
+            parked = true;
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            parked = false;
+            return idle;
+        }
+
+        void wake() {
+            LockSupport.unpark(thread);
+        }
+
+        void stop() {
+            running = false;
+            removeConsumer(this);
+            wake();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.streaming.data.app.sda.tcp;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.service.IngestService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.netty.DisposableServer;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.tcp.TcpServer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Raw TCP listener for co-located feed handlers, without WebSocket framing.
+ *
+ * The protocol is one-way: a stream of frames, each a 4-byte big-endian
+ * length followed by that many bytes of
+ * {@link com.streaming.data.app.sda.codec.MarketDataBinaryCodec} records back
+ * to back. Nothing is sent back; results are counted by the
+ * {@link IngestService} meters.
+ *
+ * Frames are split by Netty's length field decoder into slices of the pooled
+ * direct receive buffer, and their records are decoded from a
+ * {@link java.nio.ByteBuffer} view of the slice, so the bytes are never
+ * copied. Each frame is ingested on the I/O thread it arrived on, and the
+ * listener runs on event loops of its own. When the pipeline makes an I/O
+ * thread wait under bounded blocking, that thread stops reading its
+ * connections, and TCP flow control slows their feeders down.
+ */
+@Component
+public class TcpIngestServer {
+    private static final Logger logger = LoggerFactory.getLogger(TcpIngestServer.class);
+
+    private static final int LENGTH_FIELD_SIZE = 4;
+
+    private final StreamingConfig.TcpConfig config;
+    private final IngestService ingestService;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private LoopResources loops;
+    private DisposableServer server;
+
+    public TcpIngestServer(StreamingConfig streamingConfig, IngestService ingestService) {
+        this(streamingConfig, ingestService, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public TcpIngestServer(StreamingConfig streamingConfig, IngestService ingestService, MeterRegistry meterRegistry) {
+        this.config = streamingConfig.getIngest().getTcp();
+        this.ingestService = ingestService;
+        Gauge.builder("sda.ingest.tcp.connections", connections, AtomicInteger::get)
+                .description("Feed connections to the TCP ingest listener")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Binds the listener after bean creation, if enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        int ioThreads = config.getEffectiveIoThreads();
+        int maxFrameLength = (int) Math.min(Integer.MAX_VALUE, config.getMaxFrameLength().toBytes());
+        loops = LoopResources.create("tcp-ingest", 1, ioThreads, true);
+        server = TcpServer.create()
+                .host(config.getHost())
+                .port(config.getPort())
+                .runOn(loops)
+                .doOnConnection(connection -> connection.addHandlerLast("ingest-frames",
+                        new LengthFieldBasedFrameDecoder(maxFrameLength, 0, LENGTH_FIELD_SIZE, 0, LENGTH_FIELD_SIZE)))
+                .handle((inbound, outbound) -> {
+                    connections.incrementAndGet();
+                    AtomicLong frames = new AtomicLong();
+                    AtomicLong ticks = new AtomicLong();
+                    return inbound.receive()
+                            .doOnNext(frame -> {
+                                frames.incrementAndGet();
+                                ticks.addAndGet(ingest(frame));
+                            })
+                            .doFinally(signal -> {
+                                connections.decrementAndGet();
+                                logger.info("TCP ingest connection closed ({}): frames={}, accepted={}",
+                                        signal, frames.get(), ticks.get());
+                            })
+                            .then();
+                })
+                .bindNow();
+        logger.info("TCP ingest listening on {}:{} with {} I/O threads", config.getHost(), server.port(), ioThreads);
+    }
+
+    /**
+     * Decodes a frame's records in place and ingests them, while the frame is
+     * held by the connection.
+     *
+     * @return the number of ticks accepted
+     */
+    private int ingest(ByteBuf frame) {
+        return ingestService.ingest(ingestService.decodeBinary(frame.nioBuffer(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Get the port the listener is bound to, or -1 when it is not running
+     */
+    public int getPort() {
+        return server == null ? -1 : server.port();
+    }
+
+    /**
+     * Stops listening and closes feed connections before bean destruction.
+     */
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+        if (loops != null) {
+            loops.disposeLater().block();
+        }
+    }
+}
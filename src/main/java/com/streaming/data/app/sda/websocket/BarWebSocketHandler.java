@@ -0,0 +1,221 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.Bar;
+import com.streaming.data.app.sda.service.BarAggregator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket handler that streams closed OHLCV bars, one path per interval:
+ * {@code <websocket path>/bars/1s}, {@code /bars/1m} and so on.
+ *
+ * Each bar is sent once it closes, as a JSON text frame with the fields of
+ * {@link Bar}. Sessions start with the configured default subscriptions and
+ * choose instruments with the same control messages as the tick stream,
+ * such as {@code {"action":"subscribe","symbols":["EURUSD","GBP*"]}}.
+ *
+ * A bar is encoded once and offered to every subscribed session's
+ * {@link SessionOutbound}, so sessions are bounded and evicted exactly as on
+ * the tick stream; under CONFLATE a slow session keeps the latest bar of
+ * each instrument.
+ */
+@Component
+public class BarWebSocketHandler implements WebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(BarWebSocketHandler.class);
+
+    private static final CloseStatus SLOW_CONSUMER = CloseStatus.POLICY_VIOLATION.withReason("Slow consumer");
+
+    private final BarAggregator barAggregator;
+    private final ObjectMapper objectMapper;
+    private final StreamingConfig streamingConfig;
+    private final Map<String, SubscriptionRegistry> subscriptions = new HashMap<>();
+    private final Set<SessionOutbound> sessions = ConcurrentHashMap.newKeySet();
+    private final TrafficCounters traffic = new TrafficCounters();
+
+    private Disposable subscription;
+
+    public BarWebSocketHandler(BarAggregator barAggregator,
+                               ObjectMapper objectMapper,
+                               StreamingConfig streamingConfig,
+                               MeterRegistry meterRegistry) {
+        this.barAggregator = barAggregator;
+        this.objectMapper = objectMapper;
+        this.streamingConfig = streamingConfig;
+        for (String label : barAggregator.getIntervalLabels()) {
+            subscriptions.put(label, new SubscriptionRegistry());
+        }
+        Gauge.builder("sda.bars.sessions", sessions, Set::size)
+                .description("Connected bar WebSocket sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes once to the closed bars after bean creation.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!barAggregator.isEnabled()) {
+            return;
+        }
+        this.subscription = barAggregator.getBars()
+                .subscribe(
+                        this::dispatch,
+                        error -> logger.error("Error in bar stream", error)
+                );
+    }
+
+    /**
+     * Cancels the bar subscription before bean destruction.
+     */
+    @PreDestroy
+    public void cleanup() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Get the path of each interval's bars under the given WebSocket path
+     */
+    public List<String> getPaths(String basePath) {
+        List<String> paths = new ArrayList<>();
+        for (String label : barAggregator.getIntervalLabels()) {
+            paths.add(basePath + "/bars/" + label);
+        }
+        return paths;
+    }
+
+    /**
+     * Streams the bars of the interval named by the session's path, applying
+     * any subscription changes the client sends.
+     *
+     * @param session the WebSocket session for the connected client
+     * @return a completion signal when the session is closed
+     */
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        String path = session.getHandshakeInfo().getUri().getPath();
+        String label = path.substring(path.lastIndexOf('/') + 1);
+        SubscriptionRegistry registry = subscriptions.get(label);
+        if (registry == null) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Unknown bar interval: " + label));
+        }
+        logger.info("Bar session {} opened for {} bars", session.getId(), label);
+
+        StreamingConfig.WebSocketConfig wsConfig = streamingConfig.getWebsocket();
+        SessionOutbound outbound = new SessionOutbound(
+                session.getId(),
+                WireFormat.JSON,
+                StreamMode.FULL,
+                wsConfig.getSessionQueueCapacity(),
+                wsConfig.getOverflowPolicy(),
+                wsConfig.getMaxLagSeconds(),
+                traffic
+        );
+        sessions.add(outbound);
+        registry.subscribe(outbound, wsConfig.getDefaultSubscriptions());
+
+        Mono<Void> input = session.receive()
+                .filter(message -> message.getType() == WebSocketMessage.Type.TEXT)
+                .map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(text -> handleControlMessage(registry, outbound, text))
+                .then();
+
+        Mono<Void> output = session.send(
+                outbound.frames()
+                        .map(frame -> {
+                            WebSocketMessage message = new WebSocketMessage(
+                                    WebSocketMessage.Type.TEXT, frame.share(WireFormat.JSON));
+                            outbound.getTraffic().recordFrame(message.getPayload().readableByteCount());
+                            return message;
+                        })
+                        .doOnDiscard(WebSocketMessage.class, message -> DataBufferUtils.release(message.getPayload()))
+        ).then(Mono.defer(() -> outbound.isEvicted() ? session.close(SLOW_CONSUMER) : Mono.empty()));
+
+        return Mono.firstWithSignal(input, output)
+                .doFinally(signal -> {
+                    sessions.remove(outbound);
+                    registry.removeSession(outbound);
+                    outbound.close();
+                    logger.info("Bar session {} closed: sent={}, conflated={}, dropped={}", session.getId(),
+                            outbound.getSentCount(), outbound.getConflatedCount(), outbound.getDroppedCount());
+                });
+    }
+
+    /**
+     * Encodes a bar once and offers it to every session subscribed to its
+     * instrument on its interval's path.
+     */
+    private void dispatch(Bar bar) {
+        SubscriptionRegistry registry = subscriptions.get(bar.getInterval());
+        SessionOutbound[] targets = registry == null ? new SessionOutbound[0] : registry.route(bar.getSymbol());
+        if (targets.length == 0) {
+            return;
+        }
+        OutboundFrame frame;
+        try {
+            frame = new OutboundFrame(bar.getSymbol(), objectMapper.writeValueAsBytes(bar));
+        } catch (JsonProcessingException e) {
+            logger.error("Error encoding bar: {}", bar, e);
+            return;
+        }
+        try {
+            for (SessionOutbound outbound : targets) {
+                outbound.offer(frame);
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Applies a subscribe or unsubscribe request from the client.
+     * Malformed messages are logged and ignored.
+     */
+    private void handleControlMessage(SubscriptionRegistry registry, SessionOutbound outbound, String text) {
+        try {
+            JsonNode message = objectMapper.readTree(text);
+            String action = message.path("action").asText("");
+            List<String> symbols = new ArrayList<>();
+            message.path("symbols").forEach(symbol -> symbols.add(symbol.asText()));
+
+            switch (action) {
+                case "subscribe":
+                    registry.subscribe(outbound, symbols);
+                    break;
+                case "unsubscribe":
+                    registry.unsubscribe(outbound, symbols);
+                    break;
+                default:
+                    logger.warn("Unknown control action '{}' from bar session {}", action, outbound.getSessionId());
+                    return;
+            }
+            logger.debug("Bar session {} subscriptions: {}", outbound.getSessionId(), registry.getSubscriptions(outbound));
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed control message from bar session {}: {}", outbound.getSessionId(), text);
+        }
+    }
+}
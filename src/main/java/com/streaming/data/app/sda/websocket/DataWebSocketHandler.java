@@ -1,64 +1,209 @@
 package com.streaming.data.app.sda.websocket;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.streaming.data.app.sda.model.MarketData;
-import com.streaming.data.app.sda.service.DataGenerator;
+import com.streaming.data.app.sda.service.LatencyTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.adapter.ReactorNettyWebSocketSession;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * WebSocket handler that streams market data to connected clients
- * and processes incoming messages if needed.
+ * and processes their subscription control messages.
+ *
+ * Clients choose instruments by sending text messages such as
+ * {@code {"action":"subscribe","symbols":["EURUSD","GBP*"]}} or
+ * {@code {"action":"unsubscribe","symbols":["GBP*"]}}. Symbols may be
+ * exact names or glob patterns using {@code *} and {@code ?}.
+ *
+ * Ticks are sent as JSON text frames unless the client requests the
+ * {@code sda.binary.v1} subprotocol, in which case they are sent as
+ * binary frames (see {@link WireFormat}). Connecting with {@code ?mode=delta}
+ * selects a {@link StreamMode#DELTA} stream of changed fields only.
+ *
+ * Bytes sent per tick, before and after framing and compression, are counted
+ * in each session's {@link TrafficCounters} and logged when the session ends.
+ * The time from a frame being built until the session's connection has
+ * written it to the socket is recorded by the {@code sda.websocket.send}
+ * timer, and the time from the tick's creation by the {@link LatencyTracker}.
  */
 @Component
 public class DataWebSocketHandler implements WebSocketHandler {
     private static final Logger logger = LoggerFactory.getLogger(DataWebSocketHandler.class);
 
-    private final DataGenerator marketDataGenerator;
+    private static final CloseStatus SLOW_CONSUMER = CloseStatus.POLICY_VIOLATION.withReason("Slow consumer");
+
+    private final MarketDataBroadcaster broadcaster;
     private final ObjectMapper objectMapper;
+    private final WireTrafficMonitor wireTrafficMonitor;
+    private final MeterRegistry meterRegistry;
+    private final LatencyTracker latencyTracker;
 
-    public DataWebSocketHandler(DataGenerator marketDataGenerator,
-                                      ObjectMapper objectMapper) {
-        this.marketDataGenerator = marketDataGenerator;
+    public DataWebSocketHandler(MarketDataBroadcaster broadcaster,
+                                ObjectMapper objectMapper,
+                                WireTrafficMonitor wireTrafficMonitor,
+                                MeterRegistry meterRegistry,
+                                LatencyTracker latencyTracker) {
+        this.broadcaster = broadcaster;
         this.objectMapper = objectMapper;
+        this.wireTrafficMonitor = wireTrafficMonitor;
+        this.meterRegistry = meterRegistry;
+        this.latencyTracker = latencyTracker;
     }
 
     /**
-     * Converts a MarketData object to its JSON representation.
-     *
-     * @param data the market data to convert
-     * @return JSON string of the data, or "{}" if serialization fails
+     * Get the wire format subprotocols this handler can negotiate.
      */
-    private String convertToJson(MarketData data){
-        try{
-            return objectMapper.writeValueAsString(data);
-        } catch (JsonProcessingException e) {
-            logger.error("Error converting market data to JSON", e);
-            return "{}";
-        }
+    @Override
+    public List<String> getSubProtocols() {
+        return WireFormat.subProtocols();
     }
 
     /**
-     * Handles a WebSocket session by streaming market data messages to the client.
+     * Handles a WebSocket session by streaming the shared broadcast frames to the client
+     * through its own bounded outbound queue, while applying any subscription changes
+     * the client sends. Each message is a view over the shared pooled payload, so
+     * every session sends the same bytes without copying them; delta sessions
+     * encode their own updates instead.
      *
      * @param session the WebSocket session for the connected client
      * @return a completion signal when the session is closed
      */
     @Override
     public Mono<Void> handle(WebSocketSession session) {
-        logger.info("Websocket handler received for session {}", session.getId());
+        WireFormat format = WireFormat.fromSubProtocol(session.getHandshakeInfo().getSubProtocol());
+        StreamMode mode = StreamMode.fromUri(session.getHandshakeInfo().getUri());
+        logger.info("Websocket handler received for session {} using {} {}", session.getId(), format, mode);
+
+        SessionOutbound outbound = broadcaster.register(session.getId(), format, mode);
+        DeltaEncoder deltaEncoder = mode == StreamMode.DELTA ? new DeltaEncoder(format) : null;
+        countWireBytes(session, outbound.getTraffic());
+        FrameWriteTimer writeTimer = timeFrameWrites(session, format, mode);
+
+        Mono<Void> input = session.receive()
+                .filter(message -> message.getType() == WebSocketMessage.Type.TEXT)
+                .map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(text -> handleControlMessage(outbound, deltaEncoder, text))
+                .then();
 
-        return session.send(
-                marketDataGenerator.generateMarketDataStream()
-                        .map(this::convertToJson)
-                        .map(session::textMessage)
+        Mono<Void> output = session.send(
+                outbound.frames()
+                        .<WebSocketMessage>handle((frame, sink) -> {
+                            DataBuffer payload = deltaEncoder == null
+                                    ? frame.share(format)
+                                    : deltaEncoder.encode(frame.getData(), frame.isSnapshot(), session.bufferFactory());
+                            if (payload != null) {
+                                if (writeTimer != null) {
+                                    writeTimer.sent(frame);
+                                }
+                                outbound.getTraffic().recordFrame(payload.readableByteCount());
+                                sink.next(new WebSocketMessage(format.getMessageType(), payload));
+                            }
+                        })
                         .doOnNext(message -> logger.trace("Sending: {}", message))
+                        .doOnDiscard(WebSocketMessage.class, message -> DataBufferUtils.release(message.getPayload()))
                         .onErrorContinue((error, obj) -> logger.error("Error sending message: ", error))
-        ).doOnTerminate(() -> logger.info("Websocket handler closed for session {}", session.getId()));
+        ).then(Mono.defer(() -> outbound.isEvicted() ? session.close(SLOW_CONSUMER) : Mono.empty()));
+
+        return Mono.firstWithSignal(input, output)
+                .doFinally(signal -> {
+                    broadcaster.unregister(outbound);
+                    TrafficCounters traffic = outbound.getTraffic();
+                    logger.info("Websocket handler closed for session {}: sent={}, conflated={}, dropped={}, "
+                                    + "payload bytes/tick={}, wire bytes/tick={}",
+                            session.getId(), outbound.getSentCount(),
+                            outbound.getConflatedCount(), outbound.getDroppedCount(),
+                            String.format("%.1f", traffic.getPayloadBytesPerFrame()),
+                            String.format("%.1f", traffic.getWireBytesPerFrame()));
+                });
+    }
+
+    /**
+     * Get the send latency timer shared by sessions with the same format and mode.
+     */
+    private Timer sendTimer(WireFormat format, StreamMode mode) {
+        return Timer.builder("sda.websocket.send")
+                .description("Time from a tick frame being built to its write to a session's socket")
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times the session's frames until they are written to its socket. Only
+     * sessions running on Reactor Netty expose their connection; others are
+     * not timed.
+     *
+     * @return the session's timer, or null if it cannot be timed
+     */
+    private FrameWriteTimer timeFrameWrites(WebSocketSession session, WireFormat format, StreamMode mode) {
+        if (!(session instanceof ReactorNettyWebSocketSession)) {
+            return null;
+        }
+        FrameWriteTimer writeTimer = new FrameWriteTimer(sendTimer(format, mode), latencyTracker);
+        return wireTrafficMonitor.timeWrites(((ReactorNettyWebSocketSession) session).getChannelId(), writeTimer)
+                ? writeTimer : null;
+    }
+
+    /**
+     * Counts the bytes the session's connection writes to the socket, after
+     * framing and any permessage-deflate compression. Only sessions running on
+     * Reactor Netty expose their channel; others report payload bytes only.
+     */
+    private void countWireBytes(WebSocketSession session, TrafficCounters traffic) {
+        if (session instanceof ReactorNettyWebSocketSession) {
+            wireTrafficMonitor.bind(((ReactorNettyWebSocketSession) session).getChannelId(), traffic);
+        }
+    }
+
+    /**
+     * Applies a subscribe or unsubscribe request from the client.
+     * Malformed messages are logged and ignored.
+     *
+     * @param outbound the session's outbound queue
+     * @param deltaEncoder the session's delta state, or null for a full-tick session
+     * @param text the raw control message
+     */
+    private void handleControlMessage(SessionOutbound outbound, DeltaEncoder deltaEncoder, String text) {
+        try {
+            JsonNode message = objectMapper.readTree(text);
+            String action = message.path("action").asText("");
+            List<String> symbols = new ArrayList<>();
+            message.path("symbols").forEach(symbol -> symbols.add(symbol.asText()));
+
+            switch (action) {
+                case "subscribe":
+                    broadcaster.subscribe(outbound, symbols);
+                    break;
+                case "unsubscribe":
+                    broadcaster.unsubscribe(outbound, symbols);
+                    if (deltaEncoder != null) {
+                        deltaEncoder.reset();
+                    }
+                    break;
+                default:
+                    logger.warn("Unknown control action '{}' from session {}", action, outbound.getSessionId());
+                    return;
+            }
+            logger.debug("Session {} subscriptions: {}", outbound.getSessionId(), broadcaster.getSubscriptions(outbound));
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed control message from session {}: {}", outbound.getSessionId(), text);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.codec.MarketDataFields;
+import com.streaming.data.app.sda.codec.MarketDataJsonWriter;
+import com.streaming.data.app.sda.model.MarketData;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-session encoder for {@link StreamMode#DELTA} streams.
+ *
+ * Remembers the last tick sent per instrument and encodes each new tick
+ * against it, so the client can rebuild full quotes by merging updates into
+ * its last known state. An instrument the session has not been sent yet gets
+ * a full snapshot.
+ */
+public class DeltaEncoder {
+
+    private static final int JSON_INITIAL_CAPACITY = 128;
+
+    private final WireFormat format;
+    private final Map<String, MarketData> lastSent = new HashMap<>();
+    private final MarketDataJsonWriter jsonWriter = new MarketDataJsonWriter();
+
+    public DeltaEncoder(WireFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Encode a new tick against the last one sent for its instrument.
+     *
+     * @param data the tick to send
+     * @param bufferFactory factory for the payload buffer
+     * @return the encoded update, or null if this very tick was already sent to the session
+     */
+    public DataBuffer encode(MarketData data, DataBufferFactory bufferFactory) {
+        return encode(data, false, bufferFactory);
+    }
+
+    /**
+     * Encode a tick against the last one sent for its instrument.
+     *
+     * Ticks are told apart by reference, not by timestamp, since distinct
+     * updates may share a timestamp or arrive out of timestamp order. A
+     * snapshot re-sends the latest tick known when the session subscribed,
+     * so it is skipped once the session has any tick for the instrument,
+     * which is that tick or a later one.
+     *
+     * @param data the tick to send
+     * @param snapshot whether the tick re-sends an earlier one to a newly subscribed session
+     * @param bufferFactory factory for the payload buffer
+     * @return the encoded update, or null if the session already has this tick or a later one
+     */
+    public synchronized DataBuffer encode(MarketData data, boolean snapshot, DataBufferFactory bufferFactory) {
+        MarketData previous = lastSent.get(data.getSymbol());
+        if (previous != null && (snapshot || data == previous)) {
+            return null;
+        }
+        int fields = MarketDataFields.changed(previous, data);
+        lastSent.put(data.getSymbol(), data);
+
+        if (format == WireFormat.BINARY) {
+            int size = MarketDataBinaryCodec.encodedDeltaSize(data, fields);
+            DataBuffer buffer = bufferFactory.allocateBuffer(size);
+            MarketDataBinaryCodec.encodeDelta(buffer.asByteBuffer(0, size), data, fields);
+            return buffer.writePosition(size);
+        }
+        return jsonWriter.writeDelta(data, fields, bufferFactory.allocateBuffer(JSON_INITIAL_CAPACITY));
+    }
+
+    /**
+     * Forget what was sent, so every instrument starts again with a snapshot.
+     * Called when the session's subscriptions shrink, since a client may drop
+     * state for instruments it unsubscribed from.
+     */
+    public synchronized void reset() {
+        lastSent.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.LatencyTracker;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import reactor.util.concurrent.Queues;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times tick frames until the session's connection has written them to its
+ * socket.
+ *
+ * One timer is installed per session, in the pipeline just ahead of the
+ * WebSocket encoder, so it sees each data frame the session sends along with
+ * the write's promise. The session notes every frame it hands over with
+ * {@link #sent}; frames reach the pipeline in the same order, so each data
+ * frame written is matched with the oldest noted one, and its age is recorded
+ * when the write completes. Control frames pass through untimed, and writes
+ * that fail are not recorded.
+ */
+public class FrameWriteTimer extends ChannelOutboundHandlerAdapter {
+
+    static final String HANDLER_NAME = "sda.frameWriteTimer";
+
+    private final Timer sendTimer;
+    private final LatencyTracker latencyTracker;
+    /** Frames handed to the connection but not yet written; one producer, the event loop consuming. */
+    private final Queue<OutboundFrame> handedOff = Queues.<OutboundFrame>unbounded().get();
+
+    public FrameWriteTimer(Timer sendTimer, LatencyTracker latencyTracker) {
+        this.sendTimer = sendTimer;
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * Notes a frame about to be handed to the connection. Must be called in
+     * the order the frames are sent.
+     */
+    public void sent(OutboundFrame frame) {
+        handedOff.offer(frame);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+            OutboundFrame frame = handedOff.poll();
+            if (frame != null) {
+                promise = promise.unvoid();
+                promise.addListener(future -> {
+                    if (future.isSuccess()) {
+                        written(frame);
+                    }
+                });
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    private void written(OutboundFrame frame) {
+        sendTimer.record(System.nanoTime() - frame.getCreatedNanos(), TimeUnit.NANOSECONDS);
+        MarketData data = frame.getData();
+        if (data != null && !frame.isSnapshot()) {
+            latencyTracker.record(LatencyTracker.Stage.WEBSOCKET, data);
+        }
+    }
+}
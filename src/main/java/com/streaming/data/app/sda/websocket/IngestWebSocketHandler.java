@@ -0,0 +1,136 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.service.IngestBatch;
+import com.streaming.data.app.sda.service.IngestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket handler where external feed handlers push batches of ticks.
+ *
+ * Each message is one batch: a text frame holds a JSON batch, a binary frame
+ * {@link com.streaming.data.app.sda.codec.MarketDataBinaryCodec} records back
+ * to back. Flow control is credit-based. On connecting the producer is sent
+ * {@code {"type":"credit","credit":N}}, the number of ticks it may have sent
+ * but not yet had acknowledged. Every batch is answered, in order, with
+ * {@code {"type":"ack","batch":n,"accepted":a,"rejected":r,"credit":c}},
+ * which hands back the credit the batch took, and carries an {@code error}
+ * if the batch could not be decoded in full. Ticks sent beyond the credit
+ * are rejected. A batch must fit in one message of at most the WebSocket
+ * maxFramePayloadLength.
+ *
+ * Batches are decoded on the connection's I/O thread and ingested one at a
+ * time on a worker, which may wait for room under bounded blocking. While it
+ * waits, credit is not handed back and, once a few batches are queued, the
+ * socket is not read, so producers slow down with the pipeline rather than
+ * losing ticks.
+ */
+@Component
+public class IngestWebSocketHandler implements WebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(IngestWebSocketHandler.class);
+
+    /** Decoded batches queued for the ingest worker before the socket stops being read. */
+    private static final int QUEUED_BATCHES = 8;
+
+    private final IngestService ingestService;
+    private final ObjectMapper objectMapper;
+    private final int credit;
+
+    public IngestWebSocketHandler(IngestService ingestService, ObjectMapper objectMapper, StreamingConfig streamingConfig) {
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
+        this.credit = streamingConfig.getIngest().getCredit();
+    }
+
+    /**
+     * Get the wire format subprotocols this handler can negotiate. The
+     * format of each batch is given by its frame type, whichever is chosen.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return WireFormat.subProtocols();
+    }
+
+    /**
+     * Grants the session its credit, then ingests each batch it sends and
+     * acknowledges it.
+     *
+     * @param session the WebSocket session of the producer
+     * @return a completion signal when the session is closed
+     */
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        logger.info("Ingest session {} opened with a credit of {} ticks", session.getId(), credit);
+        AtomicLong outstanding = new AtomicLong();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+
+        Flux<WebSocketMessage> acks = session.receive()
+                .filter(message -> message.getType() == WebSocketMessage.Type.TEXT
+                        || message.getType() == WebSocketMessage.Type.BINARY)
+                .map(message -> {
+                    int limit = (int) Math.max(0, credit - outstanding.get());
+                    IngestBatch batch = decode(message, limit);
+                    outstanding.addAndGet(batch.getTicks().size());
+                    return batch;
+                })
+                .publishOn(Schedulers.boundedElastic(), QUEUED_BATCHES)
+                .doOnDiscard(IngestBatch.class, IngestBatch::release)
+                .map(batch -> {
+                    int decoded = batch.getTicks().size();
+                    int count = ingestService.ingest(batch);
+                    outstanding.addAndGet(-decoded);
+                    accepted.addAndGet(count);
+                    rejected.addAndGet(batch.getReceived() - count);
+                    return session.textMessage(ack(sequence.incrementAndGet(), batch, count));
+                });
+
+        return session.send(Flux.concat(Mono.fromSupplier(() -> session.textMessage(grant())), acks))
+                .doFinally(signal -> logger.info("Ingest session {} closed: batches={}, accepted={}, rejected={}",
+                        session.getId(), sequence.get(), accepted.get(), rejected.get()));
+    }
+
+    /**
+     * Decodes a batch while its frame is still held by the connection.
+     */
+    private IngestBatch decode(WebSocketMessage message, int limit) {
+        if (message.getType() == WebSocketMessage.Type.BINARY) {
+            return ingestService.decodeBinary(message.getPayload().asByteBuffer(), limit);
+        }
+        return ingestService.decodeJson(message.getPayload().asInputStream(), limit);
+    }
+
+    private String grant() {
+        ObjectNode grant = objectMapper.createObjectNode();
+        grant.put("type", "credit");
+        grant.put("credit", credit);
+        return grant.toString();
+    }
+
+    private String ack(long sequence, IngestBatch batch, int accepted) {
+        ObjectNode ack = objectMapper.createObjectNode();
+        ack.put("type", "ack");
+        ack.put("batch", sequence);
+        ack.put("accepted", accepted);
+        ack.put("rejected", batch.getReceived() - accepted);
+        ack.put("credit", batch.getReceived());
+        if (batch.getError() != null) {
+            ack.put("error", batch.getError());
+        }
+        return ack.toString();
+    }
+}
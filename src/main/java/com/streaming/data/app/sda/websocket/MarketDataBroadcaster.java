@@ -0,0 +1,275 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.codec.MarketDataJsonWriter;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.DataProcessingService;
+import com.streaming.data.app.sda.service.LatencyTracker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.PooledByteBufAllocator;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared fan-out of the processed market data stream to WebSocket sessions.
+ *
+ * A single subscription to {@link DataProcessingService#getProcessedDataStream()}
+ * is held for all connected sessions. Each tick is routed through the
+ * {@link SubscriptionRegistry} to the sessions subscribed to its symbol, and is
+ * encoded exactly once, straight into a pooled buffer, in each {@link WireFormat}
+ * those sessions use. The frame is offered
+ * to each session's {@link SessionOutbound}, which never blocks, so a slow session
+ * only affects its own queue.
+ *
+ * Sessions in {@link StreamMode#DELTA} encode their own updates when sending;
+ * for them the broadcaster keeps the latest tick per symbol, so that a
+ * subscription starts with a snapshot of every matching instrument.
+ *
+ * The number of registered sessions and the traffic totals are published as
+ * {@code sda.websocket.*} meters.
+ */
+@Component
+public class MarketDataBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataBroadcaster.class);
+
+    private static final int JSON_INITIAL_CAPACITY = 128;
+
+    private final DataProcessingService dataProcessingService;
+    private final StreamingConfig streamingConfig;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final MarketDataJsonWriter jsonWriter = new MarketDataJsonWriter();
+    private final Set<SessionOutbound> sessions = ConcurrentHashMap.newKeySet();
+    private final SubscriptionRegistry subscriptions = new SubscriptionRegistry();
+    private final Map<String, MarketData> latestBySymbol = new ConcurrentHashMap<>();
+    private final TrafficCounters traffic = new TrafficCounters();
+    private final LatencyTracker latencyTracker;
+
+    private Disposable subscription;
+
+    public MarketDataBroadcaster(DataProcessingService dataProcessingService,
+                                 StreamingConfig streamingConfig) {
+        this(dataProcessingService, streamingConfig, new SimpleMeterRegistry(), LatencyTracker.disabled());
+    }
+
+    @Autowired
+    public MarketDataBroadcaster(DataProcessingService dataProcessingService,
+                                 StreamingConfig streamingConfig,
+                                 MeterRegistry meterRegistry,
+                                 LatencyTracker latencyTracker) {
+        this.dataProcessingService = dataProcessingService;
+        this.streamingConfig = streamingConfig;
+        this.latencyTracker = latencyTracker;
+        registerMeters(meterRegistry);
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        Gauge.builder("sda.websocket.sessions", sessions, Set::size)
+                .description("Registered WebSocket sessions")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.websocket.frames", traffic, TrafficCounters::getFrames)
+                .description("Tick frames sent to WebSocket sessions")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.websocket.bytes", traffic, TrafficCounters::getPayloadBytes)
+                .description("Bytes sent to WebSocket sessions")
+                .baseUnit("bytes")
+                .tag("layer", "payload")
+                .register(meterRegistry);
+        FunctionCounter.builder("sda.websocket.bytes", traffic, TrafficCounters::getWireBytes)
+                .description("Bytes sent to WebSocket sessions")
+                .baseUnit("bytes")
+                .tag("layer", "wire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes once to the processed data stream after bean creation.
+     */
+    @PostConstruct
+    public void initialize() {
+        this.subscription = dataProcessingService.getProcessedDataStream()
+                .subscribe(
+                        this::dispatch,
+                        error -> logger.error("Error in broadcast stream", error)
+                );
+    }
+
+    /**
+     * Cancels the upstream subscription before bean destruction.
+     */
+    @PreDestroy
+    public void cleanup() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Register a session to receive broadcast frames for the configured
+     * default subscriptions.
+     *
+     * @param sessionId id of the WebSocket session
+     * @param format wire format negotiated with the client
+     * @param mode whether the session receives full ticks or deltas
+     * @return the bounded outbound queue for the session
+     */
+    public SessionOutbound register(String sessionId, WireFormat format, StreamMode mode) {
+        StreamingConfig.WebSocketConfig wsConfig = streamingConfig.getWebsocket();
+        SessionOutbound outbound = new SessionOutbound(
+                sessionId,
+                format,
+                mode,
+                wsConfig.getSessionQueueCapacity(),
+                wsConfig.getOverflowPolicy(),
+                wsConfig.getMaxLagSeconds(),
+                traffic
+        );
+        sessions.add(outbound);
+        subscribe(outbound, wsConfig.getDefaultSubscriptions());
+        return outbound;
+    }
+
+    /**
+     * Register a session to receive every tick in full.
+     */
+    public SessionOutbound register(String sessionId, WireFormat format) {
+        return register(sessionId, format, StreamMode.FULL);
+    }
+
+    /**
+     * Register a JSON session to receive broadcast frames.
+     */
+    public SessionOutbound register(String sessionId) {
+        return register(sessionId, WireFormat.JSON);
+    }
+
+    /**
+     * Start delivering ticks for the given symbols or glob patterns to a session.
+     */
+    public void subscribe(SessionOutbound outbound, Collection<String> selectors) {
+        subscriptions.subscribe(outbound, selectors);
+        if (outbound.getMode() == StreamMode.DELTA) {
+            offerSnapshots(outbound);
+        }
+    }
+
+    /**
+     * Queues the latest known tick of every symbol the session now receives.
+     * The session's {@link DeltaEncoder} sends each as a snapshot, or skips it
+     * if the session already has that tick or a later one. A conflating
+     * session drops the snapshot of a symbol it already has a frame queued for.
+     */
+    private void offerSnapshots(SessionOutbound outbound) {
+        DataBuffer[] noPayloads = new DataBuffer[WireFormat.values().length];
+        for (MarketData data : latestBySymbol.values()) {
+            for (SessionOutbound target : subscriptions.route(data.getSymbol())) {
+                if (target == outbound) {
+                    outbound.offer(OutboundFrame.snapshot(data, noPayloads));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop delivering ticks for the given symbols or glob patterns to a session.
+     */
+    public void unsubscribe(SessionOutbound outbound, Collection<String> selectors) {
+        subscriptions.unsubscribe(outbound, selectors);
+    }
+
+    /**
+     * Get the symbols and patterns a session is currently subscribed to
+     */
+    public Set<String> getSubscriptions(SessionOutbound outbound) {
+        return subscriptions.getSubscriptions(outbound);
+    }
+
+    /**
+     * Stop delivering frames to a session.
+     */
+    public void unregister(SessionOutbound outbound) {
+        sessions.remove(outbound);
+        subscriptions.removeSession(outbound);
+        outbound.close();
+    }
+
+    /**
+     * Get the number of sessions currently registered
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Get the outbound traffic totals across all sessions, past and present
+     */
+    public TrafficCounters getTraffic() {
+        return traffic;
+    }
+
+    /**
+     * Encodes the tick once per wire format used by full-tick sessions and
+     * offers the frame to every session subscribed to its symbol. Payloads are
+     * written into pooled buffers; the frame's own references are released
+     * once every session has taken what it needs.
+     */
+    private void dispatch(MarketData data) {
+        latencyTracker.record(LatencyTracker.Stage.BROADCAST, data);
+        latestBySymbol.put(data.getSymbol(), data);
+        SessionOutbound[] targets = subscriptions.route(data.getSymbol());
+        if (targets.length == 0) {
+            return;
+        }
+
+        DataBuffer[] payloads = new DataBuffer[WireFormat.values().length];
+        OutboundFrame frame = new OutboundFrame(data, payloads);
+        try {
+            for (SessionOutbound outbound : targets) {
+                int slot = outbound.getFormat().ordinal();
+                if (outbound.getMode() == StreamMode.FULL && payloads[slot] == null) {
+                    payloads[slot] = encode(data, outbound.getFormat());
+                }
+            }
+            for (SessionOutbound outbound : targets) {
+                outbound.offer(frame);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error broadcasting market data: {}", data, e);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Encodes a MarketData object into a pooled buffer.
+     *
+     * @param data the market data to encode
+     * @param format the wire format to encode in
+     * @return buffer holding the encoded tick, owned by the caller
+     */
+    private DataBuffer encode(MarketData data, WireFormat format) {
+        if (format == WireFormat.BINARY) {
+            int size = MarketDataBinaryCodec.encodedSize(data);
+            DataBuffer buffer = bufferFactory.allocateBuffer(size);
+            MarketDataBinaryCodec.encode(buffer.asByteBuffer(0, size), data);
+            return buffer.writePosition(size);
+        }
+        return jsonWriter.write(data, bufferFactory.allocateBuffer(JSON_INITIAL_CAPACITY));
+    }
+}
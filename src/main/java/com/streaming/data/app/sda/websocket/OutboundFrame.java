@@ -0,0 +1,134 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.model.MarketData;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+/**
+ * An encoded tick ready to be written to WebSocket sessions.
+ *
+ * A frame carries one payload buffer per {@link WireFormat} that any receiving
+ * session uses. Payloads may be pooled and reference counted: the creator owns
+ * one reference, each session queue {@link #retain(WireFormat) retains} one
+ * while the frame waits, and that reference passes to the message built from
+ * {@link #share(WireFormat)}, which the transport releases once written.
+ *
+ * The tick itself is kept alongside for sessions that encode per session,
+ * such as {@link StreamMode#DELTA} streams; no payload is built for them.
+ */
+public class OutboundFrame {
+
+    private final String instrument;
+    private final MarketData data;
+    private final DataBuffer[] payloads;
+    private final long createdNanos = System.nanoTime();
+    private final boolean snapshot;
+
+    public OutboundFrame(MarketData data, DataBuffer[] payloads) {
+        this(data.getSymbol(), data, payloads, false);
+    }
+
+    public OutboundFrame(String instrument, byte[] jsonPayload) {
+        this(instrument, null, new DataBuffer[WireFormat.values().length], false);
+        payloads[WireFormat.JSON.ordinal()] = DefaultDataBufferFactory.sharedInstance.wrap(jsonPayload);
+    }
+
+    private OutboundFrame(String instrument, MarketData data, DataBuffer[] payloads, boolean snapshot) {
+        this.instrument = instrument;
+        this.data = data;
+        this.payloads = payloads;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Create a frame re-sending an earlier tick to a newly subscribed session.
+     *
+     * @param data the latest known tick of an instrument
+     * @param payloads payloads of the frame, normally none
+     */
+    public static OutboundFrame snapshot(MarketData data, DataBuffer[] payloads) {
+        return new OutboundFrame(data.getSymbol(), data, payloads, true);
+    }
+
+    /**
+     * Whether this frame re-sends an earlier tick rather than a new one
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the instrument this frame belongs to, used as the conflation key.
+     */
+    public String getInstrument() {
+        return instrument;
+    }
+
+    /**
+     * Get the {@link System#nanoTime()} at which the frame was built, from
+     * which the time it spent waiting for each session is measured
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Get the tick this frame was built from, or null for a pre-encoded frame
+     */
+    public MarketData getData() {
+        return data;
+    }
+
+    /**
+     * Get the payload for a wire format. The returned buffer is shared and
+     * must be neither read from nor released by the caller; see {@link #share(WireFormat)}.
+     *
+     * @return encoded payload, or null if no receiving session uses the format
+     */
+    public DataBuffer getPayload(WireFormat format) {
+        return payloads[format.ordinal()];
+    }
+
+    /**
+     * Get the JSON payload
+     */
+    public DataBuffer getPayload() {
+        return getPayload(WireFormat.JSON);
+    }
+
+    /**
+     * Get a view of the payload with its own read position. The view shares
+     * the payload's reference count and consumes one reference when released.
+     */
+    public DataBuffer share(WireFormat format) {
+        DataBuffer payload = payloads[format.ordinal()];
+        return payload.slice(payload.readPosition(), payload.readableByteCount());
+    }
+
+    /**
+     * Take a reference to the payload for a format. Does nothing if the
+     * frame carries no payload for it.
+     */
+    public void retain(WireFormat format) {
+        DataBufferUtils.retain(payloads[format.ordinal()]);
+    }
+
+    /**
+     * Give back a reference to the payload for a format.
+     */
+    public void release(WireFormat format) {
+        DataBufferUtils.release(payloads[format.ordinal()]);
+    }
+
+    /**
+     * Give back the creator's reference to every payload.
+     */
+    public void release() {
+        for (DataBuffer payload : payloads) {
+            if (payload != null) {
+                DataBufferUtils.release(payload);
+            }
+        }
+    }
+}
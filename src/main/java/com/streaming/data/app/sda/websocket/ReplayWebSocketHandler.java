@@ -0,0 +1,92 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.codec.MarketDataJsonWriter;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.ReplayRequest;
+import com.streaming.data.app.sda.service.ReplayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebSocket handler replaying persisted ticks, one per message, then closing
+ * the session.
+ *
+ * The replay is chosen with the same query parameters as the HTTP replay
+ * endpoint, e.g. {@code /market-data/replay?from=2024-03-01T12:00:00&symbol=EURUSD&speed=1x},
+ * and ticks are encoded in the negotiated {@link WireFormat}. Ticks are read
+ * only as fast as the session sends them.
+ */
+@Component
+public class ReplayWebSocketHandler implements WebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayWebSocketHandler.class);
+
+    private static final int JSON_INITIAL_CAPACITY = 128;
+
+    private final ReplayService replayService;
+
+    public ReplayWebSocketHandler(ReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * Get the wire format subprotocols this handler can negotiate.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return WireFormat.subProtocols();
+    }
+
+    /**
+     * Streams the requested replay to the session and closes it when done.
+     * An invalid request closes the session with a bad data status.
+     *
+     * @param session the WebSocket session for the connected client
+     * @return a completion signal when the replay is done or the session closed
+     */
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        WireFormat format = WireFormat.fromSubProtocol(session.getHandshakeInfo().getSubProtocol());
+        MultiValueMap<String, String> params =
+                UriComponentsBuilder.fromUri(session.getHandshakeInfo().getUri()).build().getQueryParams();
+
+        ReplayRequest request;
+        try {
+            request = ReplayRequest.parse(params.getFirst("from"), params.getFirst("to"),
+                    params.getFirst("symbol"), params.getFirst("speed"));
+        } catch (IllegalArgumentException e) {
+            return session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+        }
+        logger.info("Replay requested by session {}: {} to {}, symbol {}, speed {}", session.getId(),
+                request.getFrom(), request.getTo(), request.getSymbol(), request.getSpeed());
+
+        MarketDataJsonWriter jsonWriter = new MarketDataJsonWriter();
+        return session.send(replayService.replay(request)
+                        .map(data -> new WebSocketMessage(format.getMessageType(),
+                                encode(data, format, jsonWriter, session.bufferFactory()))))
+                .then(session.close(CloseStatus.NORMAL));
+    }
+
+    private static DataBuffer encode(MarketData data, WireFormat format,
+                                     MarketDataJsonWriter jsonWriter, DataBufferFactory bufferFactory) {
+        if (format == WireFormat.BINARY) {
+            int size = MarketDataBinaryCodec.encodedSize(data);
+            DataBuffer buffer = bufferFactory.allocateBuffer(size);
+            MarketDataBinaryCodec.encode(buffer.asByteBuffer(0, size), data);
+            return buffer.writePosition(size);
+        }
+        return jsonWriter.write(data, bufferFactory.allocateBuffer(JSON_INITIAL_CAPACITY));
+    }
+}
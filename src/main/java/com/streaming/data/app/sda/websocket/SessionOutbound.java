@@ -0,0 +1,270 @@
+package com.streaming.data.app.sda.websocket;
+
+import com.streaming.data.app.sda.config.StreamingConfig.WebSocketConfig.OverflowPolicy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded outbound queue for a single WebSocket session.
+ *
+ * The broadcaster offers frames without ever blocking; frames are handed to
+ * the session only as fast as it requests them. When the queue is full the
+ * configured {@link OverflowPolicy} decides what is lost, so one slow client
+ * cannot hold memory or delay delivery to the others.
+ *
+ * The queue holds one payload reference per waiting frame. References are
+ * given back when a frame is dropped, conflated or left behind on
+ * {@link #close()}, and handed to the subscriber when a frame is emitted.
+ */
+public class SessionOutbound {
+
+    private final String sessionId;
+    private final WireFormat format;
+    private final StreamMode mode;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final long maxLagNanos;
+
+    private final ArrayDeque<OutboundFrame> queue;
+    private final LinkedHashMap<String, OutboundFrame> latestByInstrument;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong conflatedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final TrafficCounters traffic;
+
+    private volatile FluxSink<OutboundFrame> sink;
+    private volatile boolean evicted;
+    private boolean closed;
+
+    public SessionOutbound(String sessionId, WireFormat format, StreamMode mode, int capacity,
+                           OverflowPolicy policy, long maxLagSeconds, TrafficCounters totals) {
+        this.sessionId = sessionId;
+        this.format = format;
+        this.mode = mode;
+        this.traffic = new TrafficCounters(totals);
+        this.capacity = capacity;
+        this.policy = policy;
+        this.maxLagNanos = TimeUnit.SECONDS.toNanos(maxLagSeconds);
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.latestByInstrument = new LinkedHashMap<>();
+    }
+
+    public SessionOutbound(String sessionId, WireFormat format, int capacity,
+                           OverflowPolicy policy, long maxLagSeconds) {
+        this(sessionId, format, StreamMode.FULL, capacity, policy, maxLagSeconds, null);
+    }
+
+    public SessionOutbound(String sessionId, int capacity, OverflowPolicy policy, long maxLagSeconds) {
+        this(sessionId, WireFormat.JSON, capacity, policy, maxLagSeconds);
+    }
+
+    /**
+     * Get the frames queued for this session, emitted only on demand.
+     * Completes when the session is evicted for falling too far behind.
+     */
+    public Flux<OutboundFrame> frames() {
+        return Flux.<OutboundFrame>create(emitter -> {
+                    this.sink = emitter;
+                    emitter.onRequest(n -> drain());
+                    if (evicted) {
+                        emitter.complete();
+                    }
+                })
+                .doOnDiscard(OutboundFrame.class, frame -> frame.release(format));
+    }
+
+    /**
+     * Queue a frame for this session, applying the overflow policy if the queue is full.
+     *
+     * @param frame the encoded frame to deliver
+     */
+    public void offer(OutboundFrame frame) {
+        if (evicted) {
+            return;
+        }
+
+        boolean evict;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            evict = enqueue(frame);
+            if (evict) {
+                evicted = true;
+                releaseQueued();
+            }
+        }
+
+        if (evict) {
+            FluxSink<OutboundFrame> emitter = sink;
+            if (emitter != null) {
+                emitter.complete();
+            }
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Applies the overflow policy and enqueues the frame.
+     *
+     * @return true if the session has been behind for longer than allowed
+     */
+    private boolean enqueue(OutboundFrame frame) {
+        switch (policy) {
+            case CONFLATE:
+                if (frame.isSnapshot() && latestByInstrument.containsKey(frame.getInstrument())) {
+                    // A queued frame is already at least as new as the snapshot
+                    return false;
+                }
+                frame.retain(format);
+                OutboundFrame previous = latestByInstrument.replace(frame.getInstrument(), frame);
+                if (previous != null) {
+                    previous.release(format);
+                    conflatedCount.incrementAndGet();
+                    return false;
+                }
+                if (latestByInstrument.size() >= capacity) {
+                    Iterator<OutboundFrame> oldest = latestByInstrument.values().iterator();
+                    oldest.next().release(format);
+                    oldest.remove();
+                    droppedCount.incrementAndGet();
+                }
+                latestByInstrument.put(frame.getInstrument(), frame);
+                return false;
+
+            case DROP_OLDEST:
+                if (queue.size() >= capacity) {
+                    queue.pollFirst().release(format);
+                    droppedCount.incrementAndGet();
+                }
+                frame.retain(format);
+                queue.addLast(frame);
+                return false;
+
+            case DISCONNECT:
+            default:
+                if (queue.size() < capacity) {
+                    frame.retain(format);
+                    queue.addLast(frame);
+                    return false;
+                }
+                droppedCount.incrementAndGet();
+                // Lag is the age of the oldest waiting frame, so reading a frame now and then does not reset it
+                return System.nanoTime() - queue.peekFirst().getCreatedNanos() > maxLagNanos;
+        }
+    }
+
+    private synchronized OutboundFrame poll() {
+        if (policy == OverflowPolicy.CONFLATE) {
+            Iterator<OutboundFrame> oldest = latestByInstrument.values().iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            OutboundFrame frame = oldest.next();
+            oldest.remove();
+            return frame;
+        }
+        return queue.pollFirst();
+    }
+
+    /**
+     * Emits queued frames while the session has outstanding demand.
+     * Only one thread drains at a time; concurrent callers leave a missed
+     * marker so the active drainer loops again.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            FluxSink<OutboundFrame> emitter = sink;
+            if (emitter != null && !evicted) {
+                while (emitter.requestedFromDownstream() > 0) {
+                    OutboundFrame frame = poll();
+                    if (frame == null) {
+                        break;
+                    }
+                    sentCount.incrementAndGet();
+                    emitter.next(frame);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Stop accepting frames and give back the references held by the queue.
+     * Called once the session has ended.
+     */
+    public synchronized void close() {
+        closed = true;
+        releaseQueued();
+    }
+
+    private void releaseQueued() {
+        for (OutboundFrame frame : queue) {
+            frame.release(format);
+        }
+        for (OutboundFrame frame : latestByInstrument.values()) {
+            frame.release(format);
+        }
+        queue.clear();
+        latestByInstrument.clear();
+    }
+
+    /**
+     * Get the number of frames currently waiting to be sent
+     */
+    public synchronized int getQueuedCount() {
+        return policy == OverflowPolicy.CONFLATE ? latestByInstrument.size() : queue.size();
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public WireFormat getFormat() {
+        return format;
+    }
+
+    public StreamMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get the session's byte counters, which also feed the broadcaster totals
+     */
+    public TrafficCounters getTraffic() {
+        return traffic;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Check if the session was cut off for falling too far behind
+     */
+    public boolean isEvicted() {
+        return evicted;
+    }
+}
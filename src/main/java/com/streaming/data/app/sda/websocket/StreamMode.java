@@ -0,0 +1,32 @@
+package com.streaming.data.app.sda.websocket;
+
+import java.net.URI;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * How ticks are sent to a session, chosen with the {@code mode} query
+ * parameter of the WebSocket URL, e.g. {@code /market-data?mode=delta}.
+ */
+public enum StreamMode {
+
+    /** Every tick is sent in full. */
+    FULL,
+
+    /**
+     * The first tick per instrument is a full snapshot; later ticks carry
+     * only the quote fields that changed since the last one the session was sent.
+     */
+    DELTA;
+
+    /**
+     * Resolve the mode requested in a handshake URI.
+     *
+     * @param uri the handshake URI
+     * @return the requested mode, or FULL if none or an unknown one was requested
+     */
+    public static StreamMode fromUri(URI uri) {
+        String mode = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("mode");
+        return "delta".equalsIgnoreCase(mode) ? DELTA : FULL;
+    }
+}
@@ -0,0 +1,168 @@
+package com.streaming.data.app.sda.websocket;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Routing index from instrument symbols to the sessions subscribed to them.
+ *
+ * Sessions subscribe with exact symbols or glob patterns ({@code *} and
+ * {@code ?}). The set of sessions for a symbol is resolved once and cached
+ * as an array, so routing a tick costs a single map lookup regardless of how
+ * many sessions are connected. Any subscription change swaps in an empty
+ * cache; subscription changes are rare compared to ticks.
+ */
+public class SubscriptionRegistry {
+
+    private static final SessionOutbound[] NO_SESSIONS = new SessionOutbound[0];
+
+    private final Map<String, Set<SessionOutbound>> exactSubscribers = new HashMap<>();
+    private final Map<String, PatternSubscription> patternSubscribers = new HashMap<>();
+    private final Map<SessionOutbound, Set<String>> selectorsBySession = new HashMap<>();
+
+    private volatile ConcurrentHashMap<String, SessionOutbound[]> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Get the sessions interested in a symbol.
+     *
+     * @param symbol instrument symbol of the tick
+     * @return sessions to deliver to; never null, must not be modified
+     */
+    public SessionOutbound[] route(String symbol) {
+        SessionOutbound[] targets = routes.get(symbol);
+        if (targets != null) {
+            return targets;
+        }
+        synchronized (this) {
+            targets = resolve(symbol);
+            routes.put(symbol, targets);
+            return targets;
+        }
+    }
+
+    /**
+     * Add symbols or patterns to a session's subscriptions.
+     */
+    public synchronized void subscribe(SessionOutbound session, Collection<String> selectors) {
+        Set<String> current = selectorsBySession.computeIfAbsent(session, s -> new HashSet<>());
+        for (String selector : selectors) {
+            if (!current.add(selector)) {
+                continue;
+            }
+            if (isPattern(selector)) {
+                patternSubscribers.computeIfAbsent(selector, PatternSubscription::new).sessions.add(session);
+            } else {
+                exactSubscribers.computeIfAbsent(selector, s -> new HashSet<>()).add(session);
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Remove symbols or patterns from a session's subscriptions.
+     */
+    public synchronized void unsubscribe(SessionOutbound session, Collection<String> selectors) {
+        Set<String> current = selectorsBySession.get(session);
+        if (current == null) {
+            return;
+        }
+        for (String selector : selectors) {
+            if (current.remove(selector)) {
+                removeSelector(session, selector);
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Drop every subscription held by a session.
+     */
+    public synchronized void removeSession(SessionOutbound session) {
+        Set<String> current = selectorsBySession.remove(session);
+        if (current == null) {
+            return;
+        }
+        for (String selector : current) {
+            removeSelector(session, selector);
+        }
+        invalidate();
+    }
+
+    /**
+     * Get a copy of the selectors a session is subscribed with
+     */
+    public synchronized Set<String> getSubscriptions(SessionOutbound session) {
+        Set<String> current = selectorsBySession.get(session);
+        return current == null ? Set.of() : Set.copyOf(current);
+    }
+
+    private void removeSelector(SessionOutbound session, String selector) {
+        if (isPattern(selector)) {
+            PatternSubscription subscription = patternSubscribers.get(selector);
+            if (subscription != null && subscription.sessions.remove(session) && subscription.sessions.isEmpty()) {
+                patternSubscribers.remove(selector);
+            }
+        } else {
+            Set<SessionOutbound> sessions = exactSubscribers.get(selector);
+            if (sessions != null && sessions.remove(session) && sessions.isEmpty()) {
+                exactSubscribers.remove(selector);
+            }
+        }
+    }
+
+    private SessionOutbound[] resolve(String symbol) {
+        Set<SessionOutbound> targets = new LinkedHashSet<>();
+        Set<SessionOutbound> exact = exactSubscribers.get(symbol);
+        if (exact != null) {
+            targets.addAll(exact);
+        }
+        for (PatternSubscription subscription : patternSubscribers.values()) {
+            if (subscription.pattern.matcher(symbol).matches()) {
+                targets.addAll(subscription.sessions);
+            }
+        }
+        return targets.isEmpty() ? NO_SESSIONS : targets.toArray(NO_SESSIONS);
+    }
+
+    private void invalidate() {
+        routes = new ConcurrentHashMap<>();
+    }
+
+    private static boolean isPattern(String selector) {
+        return selector.indexOf('*') >= 0 || selector.indexOf('?') >= 0;
+    }
+
+    /**
+     * Sessions sharing one compiled glob pattern.
+     */
+    private static final class PatternSubscription {
+        private final Pattern pattern;
+        private final Set<SessionOutbound> sessions = new HashSet<>();
+
+        private PatternSubscription(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            this.pattern = Pattern.compile(regex.toString());
+        }
+    }
+}
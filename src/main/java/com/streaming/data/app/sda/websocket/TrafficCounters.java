@@ -0,0 +1,78 @@
+package com.streaming.data.app.sda.websocket;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound traffic counters for one session, or for all of them.
+ *
+ * Payload bytes are the encoded ticks handed to the transport; wire bytes are
+ * what actually left the socket, after WebSocket framing and compression.
+ * Dividing either by the frame count gives bytes per tick. Session counters
+ * also add to their parent, so the broadcaster keeps running totals.
+ */
+public class TrafficCounters {
+
+    private final TrafficCounters parent;
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+
+    public TrafficCounters(TrafficCounters parent) {
+        this.parent = parent;
+    }
+
+    public TrafficCounters() {
+        this(null);
+    }
+
+    /**
+     * Record a frame handed to the transport.
+     *
+     * @param payloadSize size of the encoded tick in bytes
+     */
+    public void recordFrame(int payloadSize) {
+        frames.increment();
+        payloadBytes.add(payloadSize);
+        if (parent != null) {
+            parent.recordFrame(payloadSize);
+        }
+    }
+
+    /**
+     * Record bytes written to the socket.
+     */
+    public void recordWireBytes(long bytes) {
+        wireBytes.add(bytes);
+        if (parent != null) {
+            parent.recordWireBytes(bytes);
+        }
+    }
+
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes.sum();
+    }
+
+    public long getWireBytes() {
+        return wireBytes.sum();
+    }
+
+    /**
+     * Get the average encoded size of a tick, or 0 if none was sent
+     */
+    public double getPayloadBytesPerFrame() {
+        long count = getFrames();
+        return count == 0 ? 0 : (double) getPayloadBytes() / count;
+    }
+
+    /**
+     * Get the average bytes on the wire per tick, or 0 if none was sent
+     */
+    public double getWireBytesPerFrame() {
+        long count = getFrames();
+        return count == 0 ? 0 : (double) getWireBytes() / count;
+    }
+}
@@ -1,20 +1,26 @@
 package com.streaming.data.app.sda.websocket;
 
 import com.streaming.data.app.sda.config.StreamingConfig;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import reactor.netty.http.server.WebsocketServerSpec;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Configures WebSocket endpoint mappings.
+ * Configures WebSocket endpoint mappings and the Reactor Netty upgrade.
  */
 @Configuration
-public class WebSocketConfig {
+public class WebSocketConfig implements WebFluxConfigurer {
     private final StreamingConfig streamingConfig;
 
     public WebSocketConfig(StreamingConfig streamingConfig) {
@@ -22,15 +28,33 @@ public class WebSocketConfig {
     }
 
     /**
-     * Maps the WebSocket handler to the configured path.
+     * Maps the live WebSocket handler to the configured path, the replay
+     * handler to {@code /replay} under it and, when enabled, the ingest
+     * handler to {@code /ingest} and the bar handler to {@code /bars/<interval>}.
      *
      * @param handler the WebSocket handler for processing messages
+     * @param replayHandler the WebSocket handler for replaying persisted ticks
+     * @param ingestHandler the WebSocket handler for ticks pushed by external feeds
+     * @param barHandler the WebSocket handler for closed OHLCV bars
      * @return handler mapping for WebSocket endpoints
      */
     @Bean
-    public HandlerMapping webSocketHandlerMapping(DataWebSocketHandler handler) {
+    public HandlerMapping webSocketHandlerMapping(DataWebSocketHandler handler,
+                                                  ReplayWebSocketHandler replayHandler,
+                                                  IngestWebSocketHandler ingestHandler,
+                                                  BarWebSocketHandler barHandler) {
+        String path = streamingConfig.getWebsocket().getPath();
         Map<String, WebSocketHandler> map = new HashMap<>();
-        map.put(streamingConfig.getWebsocket().getPath(), handler);
+        map.put(path, handler);
+        map.put(path + "/replay", replayHandler);
+        if (streamingConfig.getIngest().isEnabled()) {
+            map.put(path + "/ingest", ingestHandler);
+        }
+        if (streamingConfig.getBars().isEnabled()) {
+            for (String barPath : barHandler.getPaths(path)) {
+                map.put(barPath, barHandler);
+            }
+        }
 
         SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping();
         handlerMapping.setUrlMap(map);
@@ -38,4 +62,34 @@ public class WebSocketConfig {
 
         return handlerMapping;
     }
+
+    /**
+     * Installs wire byte counting on every connection the server accepts.
+     *
+     * @param monitor the monitor sessions bind their counters through
+     * @return customizer applied to the Reactor Netty server
+     */
+    @Bean
+    public NettyServerCustomizer wireTrafficCustomizer(WireTrafficMonitor monitor) {
+        return httpServer -> httpServer.doOnChannelInit(
+                (observer, channel, remoteAddress) -> monitor.install(channel));
+    }
+
+    /**
+     * Upgrades connections with permessage-deflate enabled when configured,
+     * so clients that offer the extension get compressed frames. Reactor Netty
+     * uses Netty's defaults for it: compression level 6, 15-bit windows and
+     * context takeover, which suits a stream of small, similar messages.
+     *
+     * @return the WebSocket service used for all WebSocket handlers
+     */
+    @Override
+    public WebSocketService getWebSocketService() {
+        StreamingConfig.WebSocketConfig wsConfig = streamingConfig.getWebsocket();
+        return new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy(
+                () -> WebsocketServerSpec.builder()
+                        .compress(wsConfig.isCompression())
+                        .maxFramePayloadLength(wsConfig.getMaxFramePayloadLength())
+        ));
+    }
 }
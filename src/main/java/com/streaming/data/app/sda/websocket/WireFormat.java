@@ -0,0 +1,61 @@
+package com.streaming.data.app.sda.websocket;
+
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodings a client can select through the WebSocket subprotocol header.
+ * Clients that do not request a subprotocol get {@link #JSON}.
+ */
+public enum WireFormat {
+
+    /** One JSON object per text frame. */
+    JSON("sda.json.v1", WebSocketMessage.Type.TEXT),
+
+    /** One {@link com.streaming.data.app.sda.codec.MarketDataBinaryCodec} record per binary frame. */
+    BINARY("sda.binary.v1", WebSocketMessage.Type.BINARY);
+
+    private final String subProtocol;
+    private final WebSocketMessage.Type messageType;
+
+    WireFormat(String subProtocol, WebSocketMessage.Type messageType) {
+        this.subProtocol = subProtocol;
+        this.messageType = messageType;
+    }
+
+    public String getSubProtocol() {
+        return subProtocol;
+    }
+
+    public WebSocketMessage.Type getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * Get the subprotocol names the server accepts, in order of preference
+     */
+    public static List<String> subProtocols() {
+        List<String> names = new ArrayList<>();
+        for (WireFormat format : values()) {
+            names.add(format.subProtocol);
+        }
+        return names;
+    }
+
+    /**
+     * Resolve the negotiated subprotocol to a format.
+     *
+     * @param subProtocol the negotiated subprotocol, may be null
+     * @return the matching format, or JSON if none was negotiated
+     */
+    public static WireFormat fromSubProtocol(String subProtocol) {
+        for (WireFormat format : values()) {
+            if (format.subProtocol.equals(subProtocol)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+}
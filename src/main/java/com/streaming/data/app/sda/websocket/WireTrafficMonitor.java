@@ -0,0 +1,100 @@
+package com.streaming.data.app.sda.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelId;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import org.springframework.stereotype.Component;
+import reactor.netty.Connection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the bytes WebSocket connections write to their sockets.
+ *
+ * A counting handler is installed at the head of every server channel's
+ * pipeline, so it sees frames after WebSocket encoding and permessage-deflate
+ * compression. It counts nothing until a session {@link #bind binds} its
+ * {@link TrafficCounters} to the channel.
+ *
+ * Sessions can also have their frames {@link #timeWrites timed} until
+ * written, by a handler the monitor adds once the channel is a WebSocket.
+ */
+@Component
+public class WireTrafficMonitor {
+
+    static final String HANDLER_NAME = "sda.wireByteCounter";
+
+    private final Map<ChannelId, ByteCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Install the counting handler on a newly accepted channel.
+     */
+    public void install(Channel channel) {
+        ByteCounter counter = new ByteCounter(channel);
+        channel.pipeline().addFirst(HANDLER_NAME, counter);
+        counters.put(channel.id(), counter);
+        channel.closeFuture().addListener(future -> counters.remove(channel.id()));
+    }
+
+    /**
+     * Start counting the bytes a channel writes into the given counters.
+     *
+     * @param channelId id of the session's channel
+     * @param traffic counters to record into
+     * @return true if the channel has a counting handler
+     */
+    public boolean bind(ChannelId channelId, TrafficCounters traffic) {
+        ByteCounter counter = counters.get(channelId);
+        if (counter == null) {
+            return false;
+        }
+        counter.traffic = traffic;
+        return true;
+    }
+
+    /**
+     * Time the frames a channel's session sends until they are written, by
+     * adding the timer at the end of the channel's pipeline, ahead of the
+     * WebSocket encoder.
+     *
+     * @param channelId id of the session's channel
+     * @param writeTimer the session's timer
+     * @return true if the channel is known and the timer was added
+     */
+    public boolean timeWrites(ChannelId channelId, FrameWriteTimer writeTimer) {
+        ByteCounter counter = counters.get(channelId);
+        if (counter == null) {
+            return false;
+        }
+        Connection.from(counter.channel).addHandlerLast(FrameWriteTimer.HANDLER_NAME, writeTimer);
+        return true;
+    }
+
+    private static class ByteCounter extends ChannelOutboundHandlerAdapter {
+
+        private final Channel channel;
+        private volatile TrafficCounters traffic;
+
+        ByteCounter(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            TrafficCounters target = traffic;
+            if (target != null) {
+                if (msg instanceof ByteBuf) {
+                    target.recordWireBytes(((ByteBuf) msg).readableBytes());
+                } else if (msg instanceof ByteBufHolder) {
+                    target.recordWireBytes(((ByteBufHolder) msg).content().readableBytes());
+                }
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.Bar;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.BarAggregator;
+import com.streaming.data.app.sda.service.DataProcessingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BarAggregatorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BarAggregator aggregator(boolean export, Duration... intervals) {
+        return aggregator(export, Flux.never(), intervals);
+    }
+
+    private BarAggregator aggregator(boolean export, Flux<MarketData> ticks, Duration... intervals) {
+        StreamingConfig.BarsConfig bars = new StreamingConfig.BarsConfig(true, List.of(intervals),
+                Duration.ofMillis(250), export, tempDir.resolve("bars.csv").toString());
+        StreamingConfig config = TestConfigs.config().bars(bars).build();
+        DataProcessingService dataProcessingService = mock(DataProcessingService.class);
+        when(dataProcessingService.getProcessedDataStream()).thenReturn(ticks);
+        return new BarAggregator(config, dataProcessingService, meterRegistry);
+    }
+
+    private static List<Bar> collect(BarAggregator aggregator) {
+        List<Bar> bars = new CopyOnWriteArrayList<>();
+        aggregator.getBars().subscribe(bars::add);
+        return bars;
+    }
+
+    private static MarketData tick(String symbol, double mid, double volume, LocalDateTime timestamp) {
+        return new MarketData(symbol, mid - 0.5, mid + 0.5, volume, timestamp);
+    }
+
+    private static LocalDateTime at(long millis) {
+        return T0.plusNanos(millis * 1_000_000);
+    }
+
+    private static long nanos(LocalDateTime timestamp) {
+        return MarketDataBinaryCodec.toEpochNanos(timestamp);
+    }
+
+    @Test
+    void barShouldCarryOhlcvOfItsTicksAndCloseOnTheNextInterval() {
+        BarAggregator aggregator = aggregator(false, Duration.ofSeconds(1));
+        List<Bar> bars = collect(aggregator);
+
+        aggregator.accept(tick("EURUSD", 101, 10, at(100)));
+        aggregator.accept(tick("EURUSD", 104, 20, at(300)));
+        aggregator.accept(tick("EURUSD", 99, 30, at(600)));
+        aggregator.accept(tick("EURUSD", 102, 40, at(999)));
+        assertTrue(bars.isEmpty());
+
+        aggregator.accept(tick("EURUSD", 103, 50, at(1000)));
+
+        assertEquals(1, bars.size());
+        Bar bar = bars.get(0);
+        assertEquals("EURUSD", bar.getSymbol());
+        assertEquals("1s", bar.getInterval());
+        assertEquals(T0, bar.getStart());
+        assertEquals(T0.plusSeconds(1), bar.getEnd());
+        assertEquals(101, bar.getOpen());
+        assertEquals(104, bar.getHigh());
+        assertEquals(99, bar.getLow());
+        assertEquals(102, bar.getClose());
+        assertEquals(100, bar.getVolume());
+        assertEquals(4, bar.getTicks());
+        assertEquals(1, meterRegistry.get("sda.bars.emitted").tag("interval", "1s").counter().count());
+    }
+
+    @Test
+    void eachIntervalShouldKeepItsOwnBarPerInstrument() {
+        BarAggregator aggregator = aggregator(false, Duration.ofSeconds(1), Duration.ofMinutes(1));
+        List<Bar> bars = collect(aggregator);
+
+        aggregator.accept(tick("EURUSD", 101, 1, T0));
+        aggregator.accept(tick("GBPUSD", 201, 1, T0));
+        aggregator.accept(tick("EURUSD", 102, 1, T0.plusSeconds(1)));
+
+        assertEquals(1, bars.size());
+        assertEquals("EURUSD", bars.get(0).getSymbol());
+        assertEquals("1s", bars.get(0).getInterval());
+
+        aggregator.accept(tick("EURUSD", 103, 1, T0.plusMinutes(1)));
+
+        Bar minute = bars.get(bars.size() - 1);
+        assertEquals("1m", minute.getInterval());
+        assertEquals(101, minute.getOpen());
+        assertEquals(102, minute.getClose());
+        assertEquals(2, minute.getTicks());
+    }
+
+    @Test
+    void quietInstrumentShouldCloseOnceTheCloseDelayHasPassed() {
+        BarAggregator aggregator = aggregator(false, Duration.ofSeconds(1));
+        List<Bar> bars = collect(aggregator);
+
+        aggregator.accept(tick("EURUSD", 101, 10, at(500)));
+        aggregator.closeUpTo(nanos(at(1100)));
+        assertTrue(bars.isEmpty());
+
+        aggregator.closeUpTo(nanos(at(1250)));
+        assertEquals(1, bars.size());
+        assertEquals(T0, bars.get(0).getStart());
+
+        aggregator.closeUpTo(nanos(at(2250)));
+        assertEquals(1, bars.size(), "an interval without ticks has no bar");
+    }
+
+    @Test
+    void ticksForClosedBarsShouldBeCountedAsLate() {
+        BarAggregator aggregator = aggregator(false, Duration.ofSeconds(1));
+        List<Bar> bars = collect(aggregator);
+
+        aggregator.accept(tick("EURUSD", 101, 10, at(500)));
+        aggregator.closeUpTo(nanos(at(1300)));
+        aggregator.accept(tick("EURUSD", 105, 10, at(900)));
+        aggregator.accept(tick("GBPUSD", 201, 10, at(900)));
+        aggregator.accept(tick("EURUSD", 102, 10, at(1200)));
+        aggregator.accept(tick("EURUSD", 100, 10, at(1100)));
+        aggregator.closeUpTo(nanos(at(2300)));
+
+        assertEquals(2, bars.size());
+        assertEquals(101, bars.get(0).getClose());
+        assertEquals(1, bars.get(0).getTicks());
+        assertEquals(102, bars.get(1).getOpen());
+        assertEquals(100, bars.get(1).getClose());
+        assertEquals(2, meterRegistry.get("sda.bars.late").counter().count());
+    }
+
+    @Test
+    void closedBarsShouldBeExportedAsCsv() throws Exception {
+        Sinks.Many<MarketData> source = Sinks.many().multicast().directBestEffort();
+        BarAggregator aggregator = aggregator(true, source.asFlux(), Duration.ofSeconds(1));
+        aggregator.initialize();
+        Path export = tempDir.resolve("bars.csv");
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            source.tryEmitNext(tick("EURUSD", 101, 10, now));
+            source.tryEmitNext(tick("EURUSD", 103, 5, now));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.readAllLines(export).size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            aggregator.cleanup();
+        }
+
+        List<String> lines = Files.readAllLines(export);
+        assertEquals(2, lines.size());
+        assertEquals("symbol,interval,start,end,open,high,low,close,volume,ticks", lines.get(0));
+        assertTrue(lines.get(1).startsWith("EURUSD,1s,"), lines.get(1));
+        assertTrue(lines.get(1).endsWith(",101.0,103.0,101.0,103.0,15.0,2"), lines.get(1));
+    }
+
+    @Test
+    void intervalsShouldBeLabelledInTheirLargestWholeUnit() {
+        assertEquals("250ms", Bar.label(Duration.ofMillis(250)));
+        assertEquals("1s", Bar.label(Duration.ofSeconds(1)));
+        assertEquals("90s", Bar.label(Duration.ofSeconds(90)));
+        assertEquals("5m", Bar.label(Duration.ofMinutes(5)));
+        assertEquals("1h", Bar.label(Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.streaming.data.app.sda;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = SdaApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "app.data-stream.simulation.data-generation-interval=50",
+        "app.data-stream.simulation.symbols=EURUSD,GBPUSD",
+        "app.data-stream.websocket.default-subscriptions=",
+        "app.data-stream.bars.enabled=true",
+        "app.data-stream.bars.intervals=1s,1m",
+        "app.data-stream.bars.close-delay=100ms"
+})
+class BarEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void subscribedSessionShouldReceiveClosedBarsOfItsInterval() {
+        List<JsonNode> bars = new CopyOnWriteArrayList<>();
+
+        new ReactorNettyWebSocketClient().execute(URI.create("ws://localhost:" + port + "/market-data/bars/1s"),
+                session -> session.send(Mono.just(
+                                session.textMessage("{\"action\":\"subscribe\",\"symbols\":[\"GBP*\"]}")))
+                        .thenMany(session.receive()
+                                .map(WebSocketMessage::getPayloadAsText)
+                                .take(2)
+                                .doOnNext(text -> bars.add(readTree(text))))
+                        .then())
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(2, bars.size());
+        for (JsonNode bar : bars) {
+            assertEquals("GBPUSD", bar.path("symbol").asText());
+            assertEquals("1s", bar.path("interval").asText());
+            LocalDateTime start = LocalDateTime.parse(bar.path("start").asText());
+            assertEquals(start.plusSeconds(1), LocalDateTime.parse(bar.path("end").asText()));
+            double low = bar.path("low").asDouble();
+            double high = bar.path("high").asDouble();
+            assertTrue(low <= bar.path("open").asDouble() && bar.path("open").asDouble() <= high, bar.toString());
+            assertTrue(low <= bar.path("close").asDouble() && bar.path("close").asDouble() <= high, bar.toString());
+            assertTrue(bar.path("ticks").asLong() > 0);
+            assertTrue(bar.path("volume").asDouble() > 0);
+        }
+        assertTrue(LocalDateTime.parse(bars.get(0).path("start").asText())
+                .isBefore(LocalDateTime.parse(bars.get(1).path("start").asText())));
+    }
+
+    private JsonNode readTree(String text) {
+        try {
+            return objectMapper.readTree(text);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
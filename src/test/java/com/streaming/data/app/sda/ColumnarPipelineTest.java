@@ -0,0 +1,180 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.EventBus;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig.TickLayout;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import com.streaming.data.app.sda.service.CsvExportService;
+import com.streaming.data.app.sda.service.DataGenerator;
+import com.streaming.data.app.sda.service.DataProcessingService;
+import com.streaming.data.app.sda.service.TickJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPipelineTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private StreamingConfig config(int bufferSize) {
+        return TestConfigs.config()
+                .csv(TestConfigs.csv(tempDir.resolve("export.csv").toString(), 1000, 1000).build())
+                .processing(TestConfigs.processing(bufferSize, "DROP_LATEST")
+                        .blockTimeout(50).eventBus(EventBus.SINK).tickLayout(TickLayout.COLUMNAR).build())
+                .simulation(TestConfigs.simulation(10, 100.0, 100.5, 0.5, 100, 10000).build())
+                .journal(new StreamingConfig.JournalConfig(true, tempDir.resolve("journal").toString(),
+                        DataSize.ofMegabytes(1), 0))
+                .build();
+    }
+
+    /**
+     * A generator whose batches never come, leaving the test as the only producer.
+     */
+    private static DataGenerator idleGenerator(StreamingConfig config) {
+        return new DataGenerator(config) {
+            @Override
+            public Flux<TickBatch> generateTickBatchStream(TickBatchPool pool) {
+                return Flux.never();
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void batchesShouldReachTheStreamCsvAndJournalAndReturnToThePool() throws IOException, InterruptedException {
+        StreamingConfig config = config(1000);
+        CsvExportService csv = new CsvExportService(config);
+        csv.initialize();
+        TickJournal journal = new TickJournal(config);
+        journal.initialize();
+        DataProcessingService service = new DataProcessingService(config, csv, idleGenerator(config), journal);
+        service.initialize();
+        List<MarketData> streamed = new CopyOnWriteArrayList<>();
+        service.getProcessedDataStream().subscribe(streamed::add);
+
+        TickBatch batch = service.getBatchPool().acquire();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new MarketData("SYM" + i, 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i)));
+        }
+        assertEquals(50, service.emitBatch(batch));
+        assertTrue(service.emitMarketData(new MarketData("ONE", 1.5, 2.5, 3.5, T0)));
+
+        await(() -> journal.getAppendedCount() == 51 && streamed.size() == 51);
+        await(() -> service.getBufferedCount() == 0);
+        // The export worker returns each batch just after appending it, possibly in time for the second to reuse it
+        TickBatchPool pool = service.getBatchPool();
+        await(() -> pool.getIdleCount() == pool.getCreatedCount());
+        service.cleanup();
+        csv.close();
+        journal.close();
+
+        List<String> lines = Files.readAllLines(csv.getCsvFilePath());
+        assertEquals(52, lines.size());
+        assertEquals("\"2024-03-01T12:00\",\"SYM0\",\"100.0\",\"100.5\",\"1000.0\"", lines.get(1));
+        assertEquals("\"2024-03-01T12:00\",\"ONE\",\"1.5\",\"2.5\",\"3.5\"", lines.get(51));
+        assertEquals("SYM49", streamed.get(49).getSymbol());
+        assertTrue(pool.getCreatedCount() >= 1 && pool.getCreatedCount() <= 2);
+    }
+
+    @Test
+    void batchesBeyondTheExportQueueShouldBeRejectedAndCounted() throws IOException, InterruptedException {
+        StreamingConfig config = config(16);
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CsvExportService blockedCsv = new CsvExportService(config) {
+            @Override
+            public void exportBatch(TickBatch tickBatch) {
+                exporting.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.exportBatch(tickBatch);
+            }
+        };
+        blockedCsv.initialize();
+        TickJournal journal = new TickJournal(config);
+        journal.initialize();
+        DataProcessingService service = new DataProcessingService(config, blockedCsv, idleGenerator(config), journal);
+        service.initialize();
+        service.getProcessedDataStream().subscribe();
+
+        service.emitBatch(batchOf(service, 10));
+        assertTrue(exporting.await(5, TimeUnit.SECONDS));
+        // The worker holds the first batch; the second fits the empty queue, the third does not
+        service.emitBatch(batchOf(service, 10));
+        service.emitBatch(batchOf(service, 10));
+
+        assertEquals(10, service.getExportRejectedCount());
+        await(() -> service.getBufferedCount() == 10);
+        release.countDown();
+        await(() -> journal.getAppendedCount() == 20);
+        service.cleanup();
+        blockedCsv.close();
+        journal.close();
+    }
+
+    @Test
+    void ticksTheBusRejectsShouldNotBeExported() throws IOException, InterruptedException {
+        StreamingConfig config = config(16);
+        CsvExportService csv = new CsvExportService(config);
+        csv.initialize();
+        TickJournal journal = new TickJournal(config);
+        journal.initialize();
+        DataProcessingService service = new DataProcessingService(config, csv, idleGenerator(config), journal);
+        service.initialize();
+
+        // Without subscribers the sink holds buffer-size ticks and refuses the rest
+        TickBatch batch = service.getBatchPool().acquire();
+        for (int i = 0; i < 20; i++) {
+            batch.add(new MarketData("SYM" + i, 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i)));
+        }
+        assertEquals(16, service.emitBatch(batch));
+        assertFalse(service.emitMarketData(new MarketData("ONE", 1.5, 2.5, 3.5, T0)));
+
+        await(() -> journal.getAppendedCount() == 16);
+        service.cleanup();
+        csv.close();
+        journal.close();
+
+        List<String> lines = Files.readAllLines(csv.getCsvFilePath());
+        assertEquals(17, lines.size());
+        assertTrue(lines.get(16).contains("\"SYM15\""));
+        assertEquals(16, journal.getAppendedCount());
+        assertEquals(0, service.getExportRejectedCount());
+    }
+
+    private static TickBatch batchOf(DataProcessingService service, int size) {
+        TickBatch batch = service.getBatchPool().acquire();
+        for (int i = 0; i < size; i++) {
+            batch.add("SIM", 100, 100.5, 1000, 0);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,168 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.CsvExportService;
+import com.streaming.data.app.sda.service.CsvOffsetIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvOffsetIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+    private static final int INTERVAL = 10;
+
+    @TempDir
+    Path tempDir;
+
+    private Path csvPath() {
+        return tempDir.resolve("market-data.csv");
+    }
+
+    private CsvExportService export() throws IOException {
+        StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(csvPath().toString(), 5000, 100)
+                .writeBufferSize(1 << 16)
+                .indexInterval(INTERVAL)
+                .build();
+        CsvExportService service = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+        service.initialize();
+        return service;
+    }
+
+    private static MarketData tick(int i) {
+        return new MarketData("SYM", 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i));
+    }
+
+    private void exportTicks(CsvExportService service, int from, int to) {
+        List<MarketData> batch = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            batch.add(tick(i));
+        }
+        service.exportBatch(batch);
+    }
+
+    private String lineAt(long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(csvPath().toFile(), "r")) {
+            file.seek(offset);
+            return file.readLine();
+        }
+    }
+
+    private static long nanos(int i) {
+        return MarketDataBinaryCodec.toEpochNanos(tick(i).getTimestamp());
+    }
+
+    @Test
+    void seekShouldLandOneEntryBeforeTheLastIndexedRowBeforeTheTime() throws IOException {
+        CsvExportService service = export();
+        exportTicks(service, 0, 55);
+        exportTicks(service, 55, 100);
+        service.close();
+
+        assertEquals(10L * CsvOffsetIndex.ENTRY_SIZE, Files.size(CsvOffsetIndex.pathFor(csvPath())));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), nanos(35))).startsWith("\"" + tick(20).getTimestamp()));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), nanos(40))).startsWith("\"" + tick(20).getTimestamp()));
+        assertEquals(0, CsvOffsetIndex.seek(csvPath(), nanos(0)));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), nanos(15))).startsWith("\"" + tick(0).getTimestamp()));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), Long.MAX_VALUE)).startsWith("\"" + tick(80).getTimestamp()));
+    }
+
+    @Test
+    void missingIndexShouldBeRebuiltFromTheDataFile() throws IOException {
+        CsvExportService service = export();
+        exportTicks(service, 0, 100);
+        service.close();
+        Path indexPath = CsvOffsetIndex.pathFor(csvPath());
+        byte[] written = Files.readAllBytes(indexPath);
+
+        Files.delete(indexPath);
+        export().close();
+
+        assertArrayEquals(written, Files.readAllBytes(indexPath));
+    }
+
+    @Test
+    void truncatedIndexShouldBeCompletedAndThenExtendedByTheWriter() throws IOException {
+        CsvExportService service = export();
+        exportTicks(service, 0, 100);
+        service.close();
+        Path indexPath = CsvOffsetIndex.pathFor(csvPath());
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+            channel.truncate(3L * CsvOffsetIndex.ENTRY_SIZE + 5);
+        }
+
+        CsvExportService reopened = export();
+        exportTicks(reopened, 100, 125);
+        reopened.close();
+
+        assertEquals(13L * CsvOffsetIndex.ENTRY_SIZE, Files.size(indexPath));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), nanos(115))).startsWith("\"" + tick(100).getTimestamp()));
+        assertTrue(lineAt(CsvOffsetIndex.seek(csvPath(), nanos(65))).startsWith("\"" + tick(50).getTimestamp()));
+    }
+
+    @Test
+    void compressedSegmentShouldKeepAnIndexOfGzipMembers() throws IOException {
+        StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(csvPath().toString(), 5000, 100)
+                .writeBufferSize(1 << 16)
+                .segmentSize(DataSize.ofKilobytes(4))
+                .indexInterval(INTERVAL)
+                .build();
+        CsvExportService service = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+        service.initialize();
+        for (int i = 0; i < 200; i += 10) {
+            exportTicks(service, i, i + 10);
+        }
+        service.close();
+
+        Path segment = service.getSegments().get(0);
+        assertTrue(segment.getFileName().toString().endsWith(".gz"));
+        long entries = Files.size(CsvOffsetIndex.pathFor(segment)) / CsvOffsetIndex.ENTRY_SIZE;
+        assertTrue(entries > 2, "entries: " + entries);
+
+        // Decompressing the whole file still reads every row, across members
+        List<String> all = gunzipLines(segment, 0);
+        assertTrue(all.get(1).startsWith("\"" + tick(0).getTimestamp()));
+        int rows = all.size() - 1;
+
+        // Seeking lands on a member boundary one entry before the last one before the time
+        long offset = CsvOffsetIndex.seek(segment, nanos(rows - 5));
+        assertTrue(offset > 0);
+        List<String> tail = gunzipLines(segment, offset);
+        int expectedFirst = (rows - 5 - 1) / INTERVAL * INTERVAL - INTERVAL;
+        assertTrue(tail.get(0).startsWith("\"" + tick(expectedFirst).getTimestamp()), tail.get(0));
+        assertEquals(all.get(all.size() - 1), tail.get(tail.size() - 1));
+    }
+
+    private static List<String> gunzipLines(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Channels.newInputStream(channel)), StandardCharsets.UTF_8))) {
+                List<String> lines = new ArrayList<>();
+                for (String line; (line = reader.readLine()) != null; ) {
+                    lines.add(line);
+                }
+                return lines;
+            }
+        }
+    }
+}
@@ -2,12 +2,21 @@ package com.streaming.data.app.sda;
 
 import com.streaming.data.app.sda.config.StreamingConfig;
 import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatchPool;
 import com.streaming.data.app.sda.service.DataGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DataGeneratorTest {
@@ -19,9 +28,9 @@ class DataGeneratorTest {
     void setUp() {
         // Create test configuration
         StreamingConfig.SimulationConfig simulationConfig =
-                new StreamingConfig.SimulationConfig(50, 100.0, 100.5, 0.5, 100, 1000);
+                TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000).build();
 
-        config = new StreamingConfig(null, null, null, simulationConfig);
+        config = TestConfigs.config().simulation(simulationConfig).build();
         marketDataGenerator = new DataGenerator(config);
     }
 
@@ -48,4 +57,104 @@ class DataGeneratorTest {
                 .thenConsumeWhile(data -> data.getAsk() > data.getBid())
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shardedGeneratorShouldTickEveryInstrument() {
+        StreamingConfig.SimulationConfig simulationConfig =
+                TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(16).symbolPrefix("INS").shards(4).build();
+        DataGenerator shardedGenerator =
+                new DataGenerator(TestConfigs.config().simulation(simulationConfig).build());
+
+        Set<String> symbols = new HashSet<>();
+        StepVerifier.create(shardedGenerator.generateMarketDataStream().take(32))
+                .thenConsumeWhile(data -> {
+                    symbols.add(data.getSymbol());
+                    return data.getAsk() > data.getBid();
+                })
+                .verifyComplete();
+
+        assertEquals(new HashSet<>(simulationConfig.getInstrumentUniverse()), symbols);
+    }
+
+    @Test
+    void burstModeShouldHoldTheConfiguredRateAcrossShards() throws InterruptedException {
+        StreamingConfig.SimulationConfig simulationConfig =
+                TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(8).symbolPrefix("INS").shards(2).ticksPerSecond(100_000).build();
+        DataGenerator burstGenerator = new DataGenerator(TestConfigs.config().simulation(simulationConfig).build());
+        TickBatchPool pool = new TickBatchPool(8, 256);
+        LongAdder ticks = new LongAdder();
+        Set<String> symbols = ConcurrentHashMap.newKeySet();
+
+        long start = System.nanoTime();
+        Disposable subscription = burstGenerator.generateTickBatchStream(pool)
+                .subscribe(batch -> {
+                    ticks.add(batch.size());
+                    for (int row = 0; row < batch.size(); row++) {
+                        symbols.add(batch.getSymbol(row));
+                    }
+                    batch.release();
+                });
+        Thread.sleep(1000);
+        long elapsedNanos = System.nanoTime() - start;
+        subscription.dispose();
+
+        double rate = ticks.sum() / (elapsedNanos / 1e9);
+        assertTrue(rate > 80_000 && rate < 110_000, "rate " + rate);
+        assertEquals(new HashSet<>(simulationConfig.getInstrumentUniverse()), symbols);
+        // Batches are small and reused, not one per tick
+        assertTrue(pool.getCreatedCount() < 100, "created " + pool.getCreatedCount());
+    }
+
+    @Test
+    void burstModeObjectStreamShouldProduceValidTicks() {
+        StreamingConfig.SimulationConfig simulationConfig =
+                TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(4).symbolPrefix("INS").shards(1).ticksPerSecond(10_000).build();
+        DataGenerator burstGenerator = new DataGenerator(TestConfigs.config().simulation(simulationConfig).build());
+
+        StepVerifier.create(burstGenerator.generateMarketDataStream().take(1000))
+                .thenConsumeWhile(data -> data.getAsk() > data.getBid()
+                        && data.getVolume() >= 100 && data.getVolume() <= 1000)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void seededGeneratorsShouldProduceTheSameTicks() {
+        StreamingConfig.SimulationConfig simulationConfig =
+                TestConfigs.simulation(10, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(4).symbolPrefix("INS").shards(1).seed(42L).build();
+        StreamingConfig seeded = TestConfigs.config().simulation(simulationConfig).build();
+
+        List<MarketData> first = new DataGenerator(seeded).generateMarketDataStream().take(40).collectList().block();
+        List<MarketData> second = new DataGenerator(seeded).generateMarketDataStream().take(40).collectList().block();
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getSymbol(), second.get(i).getSymbol());
+            assertEquals(first.get(i).getBid(), second.get(i).getBid());
+            assertEquals(first.get(i).getAsk(), second.get(i).getAsk());
+            assertEquals(first.get(i).getVolume(), second.get(i).getVolume());
+        }
+    }
+
+    @Test
+    void profilePhaseActivityShouldLimitTheInstrumentsThatTick() {
+        StreamingConfig.ProfileConfig profile = new StreamingConfig.ProfileConfig("", true, List.of(
+                new StreamingConfig.PhaseConfig("pre-open", Duration.ofSeconds(10), 20_000, null, 2.0, 0.25)));
+        StreamingConfig.SimulationConfig simulationConfig =
+                TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(8).symbolPrefix("INS").shards(1).profile(profile).build();
+        DataGenerator profiled = new DataGenerator(TestConfigs.config().simulation(simulationConfig).build());
+        Set<String> symbols = new HashSet<>();
+
+        StepVerifier.create(profiled.generateMarketDataStream().take(1000))
+                .thenConsumeWhile(data -> symbols.add(data.getSymbol()) || true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertTrue(simulationConfig.isBurst());
+        assertEquals(2, symbols.size(), "symbols " + symbols);
+    }
+}
@@ -5,17 +5,25 @@ import com.streaming.data.app.sda.model.MarketData;
 import com.streaming.data.app.sda.service.CsvExportService;
 import com.streaming.data.app.sda.service.DataGenerator;
 import com.streaming.data.app.sda.service.DataProcessingService;
+import com.streaming.data.app.sda.service.TickJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -28,17 +36,20 @@ class DataProcessingServiceTest {
     @Mock
     private DataGenerator marketDataGenerator;
 
+    @Mock
+    private TickJournal tickJournal;
+
     private DataProcessingService dataProcessingService;
 
     @BeforeEach
     void setUp() {
         StreamingConfig.ProcessingConfig processingConfig =
-                new StreamingConfig.ProcessingConfig(1000, "BUFFER_OVERFLOW_DROP_LATEST");
+                TestConfigs.processing(1000, "BUFFER_OVERFLOW_DROP_LATEST").build();
 
         StreamingConfig.CsvConfig csvConfig =
-                new StreamingConfig.CsvConfig("./test-data.csv", 1000, 10);
+                TestConfigs.csv("./test-data.csv", 1000, 10).build();
 
-        StreamingConfig config = new StreamingConfig(null, csvConfig, processingConfig, null);
+        StreamingConfig config = TestConfigs.config().csv(csvConfig).processing(processingConfig).build();
 
         // Mock market data generation
         when(marketDataGenerator.generateMarketDataStream())
@@ -46,7 +57,7 @@ class DataProcessingServiceTest {
                         .map(i -> new MarketData(
                                 100.0 + i, 100.5 + i, 1000 + i, LocalDateTime.now())));
 
-        dataProcessingService = new DataProcessingService(config, csvExportService, marketDataGenerator);
+        dataProcessingService = new DataProcessingService(config, csvExportService, marketDataGenerator, tickJournal);
     }
 
     @Test
@@ -86,4 +97,220 @@ class DataProcessingServiceTest {
                 .verifyComplete();
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a service whose only producer is the test, with a stalled
+     * subscriber that takes nothing beyond its worker's prefetch.
+     */
+    private DataProcessingService stalledService(String strategy, int bufferSize) {
+        return stalledService(strategy, bufferSize, StreamingConfig.ProcessingConfig.EventBus.SINK);
+    }
+
+    private DataProcessingService stalledService(String strategy, int bufferSize,
+                                                 StreamingConfig.ProcessingConfig.EventBus eventBus) {
+        return stalledService(strategy, bufferSize, eventBus, new SimpleMeterRegistry());
+    }
+
+    private DataProcessingService stalledService(String strategy, int bufferSize,
+                                                 StreamingConfig.ProcessingConfig.EventBus eventBus,
+                                                 MeterRegistry meterRegistry) {
+        StreamingConfig config = TestConfigs.config()
+                .csv(TestConfigs.csv("./test-data.csv", 1000, 10).build())
+                .processing(TestConfigs.processing(bufferSize, strategy).blockTimeout(50).eventBus(eventBus).build())
+                .build();
+        when(marketDataGenerator.generateMarketDataStream()).thenReturn(Flux.never());
+        DataProcessingService service =
+                new DataProcessingService(config, csvExportService, marketDataGenerator, tickJournal, meterRegistry);
+        service.initialize();
+        service.getProcessedDataStream().subscribe(new BaseSubscriber<MarketData>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Request nothing
+            }
+        });
+        return service;
+    }
+
+    /**
+     * Emits ticks in chunks of one CSV batch, letting the CSV subscriber
+     * catch up after each so that only the stalled subscriber overflows.
+     * Tick {@code n} has a bid of {@code 100 + n}.
+     */
+    private void emitInChunks(DataProcessingService service, int chunks) {
+        for (int chunk = 1; chunk <= chunks; chunk++) {
+            for (int i = 0; i < 10; i++) {
+                int n = (chunk - 1) * 10 + i;
+                service.emitMarketData(new MarketData(100.0 + n, 100.5 + n, 1000, LocalDateTime.now()));
+            }
+            verify(csvExportService, timeout(5000).times(chunk)).exportBatch(anyList());
+        }
+    }
+
+    /**
+     * Emits ticks one at a time, waiting after each until every subscriber
+     * but the stalled one has taken it, for strategies whose buffers are too
+     * small to absorb a burst. Tick {@code n} has a bid of {@code 100 + n}.
+     *
+     * @param stalledHolds ticks the stalled subscriber keeps once overflowing
+     */
+    private void emitPaced(DataProcessingService service, int ticks, int stalledHolds) {
+        for (int n = 0; n < ticks; n++) {
+            service.emitMarketData(new MarketData(100.0 + n, 100.5 + n, 1000, LocalDateTime.now()));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (service.getBufferedCount() > Math.min(n + 1, stalledHolds)) {
+                assertTrue(System.nanoTime() < deadline, "subscribers did not catch up");
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Test
+    void dropLatestShouldCountTicksBeyondTheStalledSubscribersBuffer() {
+        DataProcessingService service = stalledService("drop-latest", 16);
+
+        emitInChunks(service, 40);
+
+        assertEquals(400 - 1 - 16, service.getDroppedCount());
+        assertEquals(0, service.getRejectedCount());
+    }
+
+    @Test
+    void keepLatestShouldHoldOnlyOneTickForTheStalledSubscriber() {
+        DataProcessingService service = stalledService("KEEP_LATEST", 16);
+
+        emitPaced(service, 400, 2);
+
+        assertEquals(400 - 1 - 1, service.getDroppedCount());
+    }
+
+    @Test
+    void keepLatestShouldDeliverTheNewestTickOnceTheStalledSubscriberReads() {
+        StreamingConfig config = TestConfigs.config()
+                .csv(TestConfigs.csv("./test-data.csv", 1000, 10).build())
+                .processing(TestConfigs.processing(16, "KEEP_LATEST").blockTimeout(50).build())
+                .build();
+        when(marketDataGenerator.generateMarketDataStream()).thenReturn(Flux.never());
+        DataProcessingService service = new DataProcessingService(config, csvExportService, marketDataGenerator, tickJournal);
+        service.initialize();
+        List<MarketData> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<MarketData> stalled = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Request nothing until the ticks are in
+            }
+
+            @Override
+            protected void hookOnNext(MarketData value) {
+                received.add(value);
+            }
+        };
+        service.getProcessedDataStream().subscribe(stalled);
+
+        emitPaced(service, 400, 2);
+        stalled.request(Long.MAX_VALUE);
+
+        // The first tick was already handed to the worker; after it comes only the newest
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (received.size() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2, received.size());
+        assertEquals(100.0, received.get(0).getBid());
+        assertEquals(499.0, received.get(1).getBid());
+    }
+
+    @Test
+    void errorStrategyShouldTerminateTheStalledSubscriberOnFirstOverflow() {
+        DataProcessingService service = stalledService("error", 16);
+
+        emitInChunks(service, 40);
+
+        assertEquals(1, service.getDroppedCount());
+    }
+
+    @Test
+    void boundedBlockingShouldWaitForTheTimeoutThenRejectAndCount() {
+        DataProcessingService service = stalledService("bounded-blocking", 16);
+
+        int accepted = 0;
+        long blockedNanos = 0;
+        while (accepted < 1000) {
+            long start = System.nanoTime();
+            if (!service.emitMarketData(new MarketData(100.0, 100.5, 1000, LocalDateTime.now()))) {
+                blockedNanos = System.nanoTime() - start;
+                break;
+            }
+            accepted++;
+        }
+
+        assertTrue(accepted >= 16, "accepted " + accepted);
+        assertTrue(blockedNanos >= Duration.ofMillis(50).toNanos(), "blocked for " + blockedNanos + "ns");
+        assertEquals(1, service.getRejectedCount());
+        assertEquals(0, service.getDroppedCount());
+    }
+
+    @Test
+    void ringEventBusShouldDeliverEmittedTicks() {
+        StreamingConfig config = TestConfigs.config()
+                .csv(TestConfigs.csv("./test-data.csv", 1000, 10).build())
+                .processing(TestConfigs.processing(1024, "DROP_LATEST")
+                        .eventBus(StreamingConfig.ProcessingConfig.EventBus.RING).build())
+                .build();
+        DataProcessingService ringService =
+                new DataProcessingService(config, csvExportService, marketDataGenerator, tickJournal);
+        ringService.initialize();
+        MarketData testData = new MarketData("RING", 105.25, 105.50, 2500.0, LocalDateTime.now());
+
+        StepVerifier.create(ringService.getProcessedDataStream()
+                        .filter(d -> "RING".equals(d.getSymbol()))
+                        .take(1))
+                .then(() -> assertTrue(ringService.emitMarketData(testData)))
+                .expectNext(testData)
+                .verifyComplete();
+        ringService.cleanup();
+    }
+
+    @Test
+    void gatingRingShouldRejectTicksBeyondTheStalledSubscribersSlots() {
+        DataProcessingService service = stalledService("drop-latest", 16, StreamingConfig.ProcessingConfig.EventBus.RING);
+
+        for (int i = 0; i < 100; i++) {
+            service.emitMarketData(new MarketData(100.0 + i, 100.5 + i, 1000, LocalDateTime.now()));
+        }
+
+        assertEquals(100 - 16, service.getRejectedCount());
+        assertEquals(0, service.getDroppedCount());
+        service.cleanup();
+    }
+
+    @Test
+    void metersShouldReportAcceptedTicksDropsAndBufferedTicks() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        DataProcessingService service =
+                stalledService("drop-latest", 16, StreamingConfig.ProcessingConfig.EventBus.SINK, registry);
+
+        emitInChunks(service, 40);
+
+        assertEquals(400, registry.get("sda.processing.ticks").counter().count());
+        assertEquals(400 - 1 - 16,
+                registry.get("sda.processing.overflow").tag("outcome", "dropped").functionCounter().count());
+        assertEquals(0, registry.get("sda.processing.overflow").tag("outcome", "rejected").functionCounter().count());
+        // The stalled subscriber's worker holds one tick and its overflow buffer is full
+        assertEquals(1 + 16, registry.get("sda.processing.buffered").gauge().value());
+        assertEquals(2, registry.get("sda.processing.subscribers").gauge().value());
+    }
+
+    @Test
+    void ringBufferedGaugeShouldReportTheStalledSubscribersBacklog() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        DataProcessingService service =
+                stalledService("drop-latest", 16, StreamingConfig.ProcessingConfig.EventBus.RING, registry);
+
+        for (int i = 0; i < 10; i++) {
+            service.emitMarketData(new MarketData(100.0 + i, 100.5 + i, 1000, LocalDateTime.now()));
+        }
+
+        assertEquals(10, registry.get("sda.processing.buffered").tag("bus", "RING").gauge().value());
+        service.cleanup();
+    }
+}
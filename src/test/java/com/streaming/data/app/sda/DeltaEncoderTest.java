@@ -0,0 +1,89 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataFields;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.websocket.DeltaEncoder;
+import com.streaming.data.app.sda.websocket.WireFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaEncoderTest {
+
+    private static final DefaultDataBufferFactory FACTORY = DefaultDataBufferFactory.sharedInstance;
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    private static String json(DataBuffer buffer) {
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void jsonDeltaCarriesOnlyChangedFieldsAfterSnapshot() {
+        DeltaEncoder encoder = new DeltaEncoder(WireFormat.JSON);
+
+        String snapshot = json(encoder.encode(new MarketData("EURUSD", 1.08, 1.09, 1000, T0), FACTORY));
+        String delta = json(encoder.encode(new MarketData("EURUSD", 1.08, 1.091, 1000, T0.plusSeconds(1)), FACTORY));
+
+        assertEquals("{\"symbol\":\"EURUSD\",\"bid\":1.08,\"ask\":1.09,\"volume\":1000.0,"
+                + "\"timestamp\":\"2024-03-01T12:00:00\"}", snapshot);
+        assertEquals("{\"symbol\":\"EURUSD\",\"ask\":1.091,\"timestamp\":\"2024-03-01T12:00:01\"}", delta);
+    }
+
+    @Test
+    void binaryDeltaStartsWithFieldMask() {
+        DeltaEncoder encoder = new DeltaEncoder(WireFormat.BINARY);
+
+        ByteBuffer snapshot = encoder.encode(new MarketData("EURUSD", 1.08, 1.09, 1000, T0), FACTORY).asByteBuffer();
+        ByteBuffer delta = encoder.encode(new MarketData("EURUSD", 1.07, 1.09, 1200, T0.plusSeconds(1)), FACTORY)
+                .asByteBuffer();
+
+        assertEquals(MarketDataFields.ALL, snapshot.get(0));
+        assertEquals(1 + 8 + 3 * 8 + 1 + 6, snapshot.remaining());
+        assertEquals(MarketDataFields.BID | MarketDataFields.VOLUME, delta.get(0));
+        assertEquals(1 + 8 + 2 * 8 + 1 + 6, delta.remaining());
+        assertEquals(1.07, delta.getDouble(9));
+        assertEquals(1200, delta.getDouble(17));
+    }
+
+    @Test
+    void repeatedTicksAreSkippedAndResetForcesSnapshot() {
+        DeltaEncoder encoder = new DeltaEncoder(WireFormat.JSON);
+        MarketData tick = new MarketData("EURUSD", 1.08, 1.09, 1000, T0);
+
+        assertNotNull(encoder.encode(tick, FACTORY));
+        assertNull(encoder.encode(tick, FACTORY));
+        assertNull(encoder.encode(tick, true, FACTORY));
+
+        encoder.reset();
+        assertTrue(json(encoder.encode(tick, FACTORY)).contains("\"bid\":1.08"));
+    }
+
+    @Test
+    void updatesSharingOrPrecedingATimestampAreStillSent() {
+        DeltaEncoder encoder = new DeltaEncoder(WireFormat.JSON);
+
+        assertNotNull(encoder.encode(new MarketData("EURUSD", 1.08, 1.09, 1000, T0), FACTORY));
+        String sameTime = json(encoder.encode(new MarketData("EURUSD", 1.07, 1.09, 1000, T0), FACTORY));
+        String earlier = json(encoder.encode(new MarketData("EURUSD", 1.07, 1.10, 1000, T0.minusNanos(1)), FACTORY));
+
+        assertTrue(sameTime.contains("\"bid\":1.07"));
+        assertTrue(earlier.contains("\"ask\":1.1"));
+    }
+
+    @Test
+    void snapshotIsSkippedOnceTheSessionHasTheInstrument() {
+        DeltaEncoder encoder = new DeltaEncoder(WireFormat.JSON);
+        MarketData older = new MarketData("EURUSD", 1.08, 1.09, 1000, T0);
+        MarketData live = new MarketData("EURUSD", 1.07, 1.09, 1000, T0);
+
+        assertNotNull(encoder.encode(live, FACTORY));
+        assertNull(encoder.encode(older, true, FACTORY));
+        assertNotNull(encoder.encode(new MarketData("GBPUSD", 1.2, 1.3, 1000, T0), true, FACTORY));
+    }
+}
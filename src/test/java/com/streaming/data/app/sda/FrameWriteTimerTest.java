@@ -0,0 +1,56 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.service.LatencyTracker;
+import com.streaming.data.app.sda.websocket.FrameWriteTimer;
+import com.streaming.data.app.sda.websocket.OutboundFrame;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameWriteTimerTest {
+
+    private final Timer sendTimer = new SimpleMeterRegistry().timer("sda.websocket.send");
+    private final FrameWriteTimer writeTimer = new FrameWriteTimer(sendTimer, LatencyTracker.disabled());
+    private final EmbeddedChannel channel = new EmbeddedChannel(writeTimer);
+
+    private static OutboundFrame frame(String payload) {
+        return new OutboundFrame("A", payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void framesShouldBeTimedOnlyOnceWrittenToTheSocket() {
+        writeTimer.sent(frame("a1"));
+        channel.write(new TextWebSocketFrame("a1"));
+
+        // Queued in the channel but not flushed to the socket yet
+        assertEquals(0, sendTimer.count());
+
+        channel.flush();
+        assertEquals(1, sendTimer.count());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void controlFramesShouldNotConsumeATickFrameTiming() throws InterruptedException {
+        writeTimer.sent(frame("a1"));
+        writeTimer.sent(frame("a2"));
+        Thread.sleep(20);
+
+        channel.writeAndFlush(new PingWebSocketFrame());
+        assertEquals(0, sendTimer.count());
+
+        channel.writeAndFlush(new TextWebSocketFrame("a1"));
+        channel.writeAndFlush(new TextWebSocketFrame("a2"));
+        assertEquals(2, sendTimer.count());
+        assertTrue(sendTimer.max(TimeUnit.MILLISECONDS) >= 20);
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,143 @@
+package com.streaming.data.app.sda;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.DataProcessingService;
+import com.streaming.data.app.sda.service.IngestService;
+import com.streaming.data.app.sda.tcp.TcpIngestServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = SdaApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "app.data-stream.simulation.data-generation-interval=1000",
+        "app.data-stream.ingest.enabled=true",
+        "app.data-stream.ingest.credit=3",
+        "app.data-stream.ingest.tcp.enabled=true",
+        "app.data-stream.ingest.tcp.port=0",
+        "app.data-stream.ingest.tcp.io-threads=2"
+})
+class IngestEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataProcessingService dataProcessingService;
+
+    @Autowired
+    private TcpIngestServer tcpIngestServer;
+
+    @Autowired
+    private IngestService ingestService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void batchesShouldBeAcknowledgedWithTheirCounts() throws Exception {
+        List<MarketData> ingested = new CopyOnWriteArrayList<>();
+        dataProcessingService.getProcessedDataStream()
+                .filter(data -> data.getSymbol().startsWith("FEED"))
+                .take(3)
+                .subscribe(ingested::add);
+
+        MarketData binaryTick = new MarketData("FEED3", 150.1, 150.2, 10.0, LocalDateTime.of(2024, 3, 15, 9, 30));
+        List<JsonNode> replies = new CopyOnWriteArrayList<>();
+
+        new ReactorNettyWebSocketClient().execute(URI.create("ws://localhost:" + port + "/market-data/ingest"),
+                session -> session.send(Flux.just(
+                                session.textMessage("[{\"symbol\":\"FEED1\",\"bid\":1.1,\"ask\":1.2,\"volume\":5},"
+                                        + "{\"symbol\":\"FEED2\",\"bid\":1.1,\"ask\":1.2,\"volume\":-5},"
+                                        + "{\"symbol\":\"FEED2\",\"bid\":1.1,\"ask\":1.2,\"volume\":5}]"),
+                                session.binaryMessage(factory -> factory.wrap(MarketDataBinaryCodec.encode(binaryTick))),
+                                session.textMessage("not json")))
+                        .thenMany(session.receive()
+                                .map(WebSocketMessage::getPayloadAsText)
+                                .take(4)
+                                .doOnNext(text -> replies.add(readTree(text))))
+                        .then())
+                .block(Duration.ofSeconds(10));
+
+        assertEquals("credit", replies.get(0).path("type").asText());
+        assertEquals(3, replies.get(0).path("credit").asInt());
+        assertAck(replies.get(1), 1, 2, 1);
+        assertAck(replies.get(2), 2, 1, 0);
+        assertAck(replies.get(3), 3, 0, 1);
+        assertTrue(replies.get(3).has("error"));
+
+        Thread.sleep(500);
+        assertEquals(List.of("FEED1", "FEED2", "FEED3"), ingested.stream().map(MarketData::getSymbol).collect(Collectors.toList()));
+        assertEquals(binaryTick.getTimestamp(), ingested.get(2).getTimestamp());
+    }
+
+    @Test
+    void tcpFramesShouldReachTheProcessedStream() throws Exception {
+        List<MarketData> ingested = new CopyOnWriteArrayList<>();
+        dataProcessingService.getProcessedDataStream()
+                .filter(data -> data.getSymbol().startsWith("TCP"))
+                .subscribe(ingested::add);
+        long createdBefore = ingestService.getBatchPool().getCreatedCount();
+
+        try (Socket socket = new Socket("127.0.0.1", tcpIngestServer.getPort())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            for (int frame = 0; frame < 100; frame++) {
+                ByteBuffer records = ByteBuffer.allocate(10 * 64);
+                for (int i = 0; i < 10; i++) {
+                    MarketDataBinaryCodec.encode(records, new MarketData("TCP" + i, frame, frame + 0.5, i,
+                            LocalDateTime.of(2024, 3, 15, 9, 30)));
+                }
+                out.writeInt(records.position());
+                out.write(records.array(), 0, records.position());
+            }
+            out.flush();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ingested.size() < 1000 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+
+        assertEquals(1000, ingested.size());
+        assertEquals("TCP9", ingested.get(999).getSymbol());
+        assertEquals(99.0, ingested.get(999).getBid());
+        // Frames are decoded into batches that go back to the pool
+        assertTrue(ingestService.getBatchPool().getCreatedCount() - createdBefore < 10);
+    }
+
+    private void assertAck(JsonNode ack, int batch, int accepted, int rejected) {
+        assertEquals("ack", ack.path("type").asText());
+        assertEquals(batch, ack.path("batch").asInt());
+        assertEquals(accepted, ack.path("accepted").asInt(), ack.toString());
+        assertEquals(rejected, ack.path("rejected").asInt(), ack.toString());
+        assertEquals(accepted + rejected, ack.path("credit").asInt());
+    }
+
+    private JsonNode readTree(String text) {
+        try {
+            return objectMapper.readTree(text);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.CsvExportService;
+import com.streaming.data.app.sda.service.LatencySnapshot;
+import com.streaming.data.app.sda.service.LatencyTracker;
+import com.streaming.data.app.sda.service.LatencyTracker.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static StreamingConfig config(StreamingConfig.CsvConfig csvConfig, boolean enabled) {
+        return TestConfigs.config()
+                .csv(csvConfig)
+                .latency(new StreamingConfig.LatencyConfig(enabled, 1000))
+                .build();
+    }
+
+    @Test
+    void snapshotShouldReportPercentilesPerIntervalAndSinceStart() {
+        LatencyTracker tracker = new LatencyTracker(config(null, true));
+
+        MarketData tick = new MarketData(100.0, 100.5, 1000, LocalDateTime.now());
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        for (int i = 0; i < 100; i++) {
+            tracker.record(Stage.BROADCAST, tick);
+        }
+
+        LatencySnapshot first = tracker.snapshot();
+        LatencySnapshot.StageLatency broadcast = first.getInterval().get(Stage.BROADCAST);
+        assertEquals(100, broadcast.getCount());
+        assertTrue(broadcast.getP50() >= 5_000, "p50 " + broadcast.getP50() + "us");
+        assertTrue(broadcast.getP50() <= broadcast.getP99() && broadcast.getP99() <= broadcast.getP999());
+        assertTrue(broadcast.getP999() <= broadcast.getMax());
+        assertEquals(0, first.getInterval().get(Stage.CSV).getCount());
+        assertSame(first, tracker.getLatestSnapshot());
+
+        tracker.record(Stage.BROADCAST, tick);
+        LatencySnapshot second = tracker.snapshot();
+        assertEquals(1, second.getInterval().get(Stage.BROADCAST).getCount());
+        assertEquals(101, second.getTotal().get(Stage.BROADCAST).getCount());
+        assertEquals(first.getIntervalEnd(), second.getIntervalStart());
+    }
+
+    @Test
+    void disabledTrackerShouldRecordNothing() {
+        LatencyTracker tracker = LatencyTracker.disabled();
+
+        tracker.record(Stage.JOURNAL, new MarketData(100.0, 100.5, 1000, LocalDateTime.now()));
+        LatencyTracker.Pending pending = new LatencyTracker.Pending();
+        pending.add(new MarketData(100.0, 100.5, 1000, LocalDateTime.now()));
+        pending.recordAll(tracker, Stage.CSV);
+
+        LatencySnapshot snapshot = tracker.snapshot();
+        assertEquals(0, snapshot.getInterval().get(Stage.JOURNAL).getCount());
+        assertEquals(0, snapshot.getInterval().get(Stage.CSV).getCount());
+    }
+
+    @Test
+    void csvRowsShouldBeRecordedOnceFlushedOrForced() throws IOException {
+        for (StreamingConfig.CsvConfig.Durability durability : StreamingConfig.CsvConfig.Durability.values()) {
+            StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(tempDir.resolve(durability + ".csv").toString(), 5000, 100)
+                    .durability(durability).fsyncInterval(60_000).writeBufferSize(8192).build();
+            StreamingConfig config = config(csvConfig, true);
+            LatencyTracker tracker = new LatencyTracker(config);
+            CsvExportService service = new CsvExportService(config, new SimpleMeterRegistry(), tracker);
+            service.initialize();
+
+            List<MarketData> batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                batch.add(new MarketData(100.0 + i, 100.5 + i, 1000, LocalDateTime.now()));
+            }
+            service.exportBatch(batch);
+            long afterExport = tracker.snapshot().getInterval().get(Stage.CSV).getCount();
+            service.close();
+            long afterClose = tracker.snapshot().getInterval().get(Stage.CSV).getCount();
+
+            // Forced rows are only durable once the next fsync, here the one on close, has run
+            boolean forced = durability == StreamingConfig.CsvConfig.Durability.FSYNC;
+            assertEquals(forced ? 0 : 10, afterExport, durability.name());
+            assertEquals(forced ? 10 : 0, afterClose, durability.name());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.service.LoadProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadProfileTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private static LoadProfile profile(boolean loop, StreamingConfig.PhaseConfig... phases) {
+        return LoadProfile.of(TestConfigs.simulation(50, 100.0, 100.5, 0.5, 100, 1000)
+                .instrumentCount(8).symbolPrefix("INS").shards(1)
+                .profile(new StreamingConfig.ProfileConfig("", loop, List.of(phases)))
+                .build());
+    }
+
+    private static StreamingConfig.PhaseConfig phase(String name, long seconds, double rate, Double endRate) {
+        return new StreamingConfig.PhaseConfig(name, Duration.ofSeconds(seconds), rate, endRate, 1.0, 1.0);
+    }
+
+    @Test
+    void ticksDueShouldIntegrateFlatAndRampingPhases() {
+        LoadProfile profile = profile(true,
+                phase("flat", 2, 1000, null),
+                phase("ramp", 10, 0, 1000.0));
+
+        assertEquals(1000, profile.ticksDueAt(SECOND), 1e-6);
+        assertEquals(2000, profile.ticksDueAt(2 * SECOND), 1e-6);
+        // Halfway up the ramp the rate is 500/s, after 250/s on average
+        assertEquals(500, profile.rateAt(7 * SECOND), 1e-6);
+        assertEquals(2000 + 1250, profile.ticksDueAt(7 * SECOND), 1e-6);
+        assertEquals("ramp", profile.phaseAt(7 * SECOND).getName());
+    }
+
+    @Test
+    void loopingProfileShouldRepeatAndOtherwiseHoldItsLastRate() {
+        StreamingConfig.PhaseConfig quiet = phase("quiet", 1, 100, null);
+        StreamingConfig.PhaseConfig open = phase("open", 1, 100, 300.0);
+
+        LoadProfile looping = profile(true, quiet, open);
+        assertEquals("quiet", looping.phaseAt(2 * SECOND).getName());
+        assertEquals(2 * 300, looping.ticksDueAt(4 * SECOND), 1e-6);
+
+        LoadProfile holding = profile(false, quiet, open);
+        assertEquals("open", holding.phaseAt(5 * SECOND).getName());
+        assertEquals(300, holding.rateAt(5 * SECOND), 1e-6);
+        assertEquals(300 + 3 * 300, holding.ticksDueAt(5 * SECOND), 1e-6);
+    }
+
+    @Test
+    void profileFileShouldDefinePhasesLoopAndSeed() throws Exception {
+        Path file = tempDir.resolve("profile.json");
+        Files.writeString(file, "{\"seed\": 42, \"loop\": false, \"phases\": ["
+                + "{\"name\": \"pre-open\", \"duration\": \"500ms\", \"rate\": 200, \"activity\": 0.25},"
+                + "{\"name\": \"open\", \"duration\": \"PT2S\", \"rate\": 200, \"endRate\": 1000, \"volatility\": 3}]}");
+
+        LoadProfile profile = LoadProfile.load(file, true);
+
+        assertEquals(42L, profile.getSeed());
+        assertEquals(2, profile.getPhases().size());
+        assertEquals(0.25, profile.getPhases().get(0).getActivity());
+        assertEquals(1.0, profile.getPhases().get(0).getVolatility());
+        assertEquals(3.0, profile.getPhases().get(1).getVolatility());
+        assertEquals(Duration.ofMillis(500), profile.getPhases().get(0).getDuration());
+        // Does not loop: 100 + 1200 over the timeline, then 1000/s
+        assertEquals(1300 + 1000, profile.ticksDueAt(3_500_000_000L), 1e-6);
+    }
+
+    @Test
+    void phasesShouldRejectInvalidValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingConfig.PhaseConfig("none", Duration.ZERO, 100, null, 1.0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingConfig.PhaseConfig("idle", Duration.ofSeconds(1), 100, null, 1.0, 0.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingConfig.PhaseConfig("down", Duration.ofSeconds(1), 100, -1.0, 1.0, 1.0));
+    }
+}
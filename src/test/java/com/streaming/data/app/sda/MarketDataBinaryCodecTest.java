@@ -0,0 +1,65 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataBinaryCodecTest {
+
+    @Test
+    void encodeDecodeShouldRoundTrip() {
+        MarketData data = new MarketData("EURUSD", 1.0845, 1.0847, 2500.0,
+                LocalDateTime.of(2024, 3, 15, 9, 30, 0, 123456789));
+
+        byte[] encoded = MarketDataBinaryCodec.encode(data);
+
+        assertEquals(MarketDataBinaryCodec.HEADER_SIZE + 6, encoded.length);
+        assertEquals(encoded.length, MarketDataBinaryCodec.encodedSize(data));
+        assertEquals(data, MarketDataBinaryCodec.decode(ByteBuffer.wrap(encoded)));
+    }
+
+    @Test
+    void numericFieldsShouldSitAtFixedOffsets() {
+        MarketData data = new MarketData("SIM", 100.25, 100.5, 800, LocalDateTime.of(1970, 1, 1, 0, 0, 1));
+
+        ByteBuffer buffer = ByteBuffer.wrap(MarketDataBinaryCodec.encode(data));
+
+        assertEquals(1_000_000_000L, buffer.getLong(0));
+        assertEquals(100.25, buffer.getDouble(8));
+        assertEquals(100.5, buffer.getDouble(16));
+        assertEquals(800.0, buffer.getDouble(24));
+        assertEquals(3, buffer.get(32));
+    }
+
+    @Test
+    void decodeShouldRejectTruncatedRecord() {
+        byte[] encoded = MarketDataBinaryCodec.encode(new MarketData(1.0, 1.1, 10, LocalDateTime.now()));
+        ByteBuffer truncated = ByteBuffer.wrap(encoded, 0, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> MarketDataBinaryCodec.decode(truncated));
+    }
+
+    @Test
+    void decodeShouldAppendRecordsToABatch() {
+        MarketData first = new MarketData("EURUSD", 1.0845, 1.0847, 2500.0, LocalDateTime.of(2024, 3, 15, 9, 30));
+        MarketData second = new MarketData("USDJPY", 150.1, 150.2, 10.0, LocalDateTime.of(2024, 3, 15, 9, 31));
+        ByteBuffer buffer = ByteBuffer.allocate(MarketDataBinaryCodec.encodedSize(first) + MarketDataBinaryCodec.encodedSize(second));
+        MarketDataBinaryCodec.encode(buffer, first);
+        MarketDataBinaryCodec.encode(buffer, second);
+        buffer.flip();
+        TickBatch batch = new TickBatch();
+
+        MarketDataBinaryCodec.decode(buffer, batch);
+        MarketDataBinaryCodec.decode(buffer.asReadOnlyBuffer(), batch);
+
+        assertEquals(2, batch.size());
+        assertEquals(first, batch.toMarketData(0));
+        assertEquals(second, batch.toMarketData(1));
+    }
+}
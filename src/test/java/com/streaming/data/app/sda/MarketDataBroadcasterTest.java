@@ -0,0 +1,140 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.DataProcessingService;
+import com.streaming.data.app.sda.websocket.MarketDataBroadcaster;
+import com.streaming.data.app.sda.websocket.OutboundFrame;
+import com.streaming.data.app.sda.websocket.SessionOutbound;
+import com.streaming.data.app.sda.websocket.StreamMode;
+import com.streaming.data.app.sda.websocket.WireFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MarketDataBroadcasterTest {
+
+    @Mock
+    private DataProcessingService dataProcessingService;
+
+    private Sinks.Many<MarketData> source;
+    private AtomicInteger upstreamSubscriptions;
+    private MarketDataBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        source = Sinks.many().multicast().directBestEffort();
+        upstreamSubscriptions = new AtomicInteger();
+
+        Flux<MarketData> stream = source.asFlux()
+                .doOnSubscribe(s -> upstreamSubscriptions.incrementAndGet());
+        when(dataProcessingService.getProcessedDataStream()).thenReturn(stream);
+
+        StreamingConfig config = TestConfigs.config()
+                .websocket(TestConfigs.websocket(8080, "/market-data"))
+                .build();
+        broadcaster = new MarketDataBroadcaster(dataProcessingService, config);
+        broadcaster.initialize();
+    }
+
+    @Test
+    void allSessionsShareOneUpstreamSubscriptionAndPayload() {
+        List<OutboundFrame> first = new CopyOnWriteArrayList<>();
+        List<OutboundFrame> second = new CopyOnWriteArrayList<>();
+
+        broadcaster.register("first").frames().subscribe(first::add);
+        broadcaster.register("second").frames().subscribe(second::add);
+
+        source.tryEmitNext(new MarketData(100.25, 100.50, 1200, LocalDateTime.now()));
+
+        assertEquals(1, upstreamSubscriptions.get());
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertSame(first.get(0).getPayload(), second.get(0).getPayload());
+
+        String json = first.get(0).getPayload().toString(StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"bid\":100.25"));
+        assertTrue(json.contains("\"ask\":100.5"));
+    }
+
+    @Test
+    void unregisteredSessionStopsReceivingFrames() {
+        List<OutboundFrame> received = new CopyOnWriteArrayList<>();
+        SessionOutbound outbound = broadcaster.register("leaving");
+        outbound.frames().subscribe(received::add);
+
+        source.tryEmitNext(new MarketData(100.25, 100.50, 1200, LocalDateTime.now()));
+        broadcaster.unregister(outbound);
+        source.tryEmitNext(new MarketData(100.30, 100.55, 1300, LocalDateTime.now()));
+
+        assertEquals(1, received.size());
+        assertEquals(0, broadcaster.getSessionCount());
+    }
+
+    @Test
+    void ticksAreRoutedOnlyToSubscribedSessions() {
+        List<OutboundFrame> received = new CopyOnWriteArrayList<>();
+        SessionOutbound outbound = broadcaster.register("narrow");
+        broadcaster.unsubscribe(outbound, List.of("*"));
+        broadcaster.subscribe(outbound, List.of("EURUSD"));
+        outbound.frames().subscribe(received::add);
+
+        source.tryEmitNext(new MarketData("GBPUSD", 1.25, 1.26, 1000, LocalDateTime.now()));
+        source.tryEmitNext(new MarketData("EURUSD", 1.08, 1.09, 1000, LocalDateTime.now()));
+
+        assertEquals(1, received.size());
+        assertEquals("EURUSD", received.get(0).getInstrument());
+    }
+
+    @Test
+    void deltaSessionStartsWithSnapshotOfLatestTicks() {
+        MarketData eur = new MarketData("EURUSD", 1.08, 1.09, 1000, LocalDateTime.now());
+        source.tryEmitNext(new MarketData("GBPUSD", 1.25, 1.26, 1000, LocalDateTime.now()));
+        source.tryEmitNext(eur);
+
+        List<OutboundFrame> received = new CopyOnWriteArrayList<>();
+        SessionOutbound outbound = broadcaster.register("delta", WireFormat.JSON, StreamMode.DELTA);
+        outbound.frames().subscribe(received::add);
+
+        assertEquals(2, received.size());
+        assertTrue(received.stream().anyMatch(frame -> eur.equals(frame.getData())));
+        assertNull(received.get(0).getPayload(WireFormat.JSON));
+
+        broadcaster.unsubscribe(outbound, List.of("*"));
+        broadcaster.subscribe(outbound, List.of("EUR*"));
+
+        assertEquals(3, received.size());
+        assertEquals(eur, received.get(2).getData());
+    }
+
+    @Test
+    void binarySessionsReceiveBinaryPayloadEncodedOnce() {
+        List<OutboundFrame> json = new CopyOnWriteArrayList<>();
+        List<OutboundFrame> binary = new CopyOnWriteArrayList<>();
+        broadcaster.register("json", WireFormat.JSON).frames().subscribe(json::add);
+        broadcaster.register("binary", WireFormat.BINARY).frames().subscribe(binary::add);
+
+        MarketData tick = new MarketData("EURUSD", 1.08, 1.09, 1000, LocalDateTime.now());
+        source.tryEmitNext(tick);
+
+        assertSame(json.get(0), binary.get(0));
+        assertNotNull(json.get(0).getPayload(WireFormat.JSON));
+        assertEquals(tick, MarketDataBinaryCodec.decode(
+                binary.get(0).share(WireFormat.BINARY).asByteBuffer()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.streaming.data.app.sda;
+
+import com.opencsv.CSVWriter;
+import com.streaming.data.app.sda.codec.MarketDataCsvWriter;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataCsvWriterTest {
+
+    private final MarketDataCsvWriter writer = new MarketDataCsvWriter();
+
+    private static String openCsv(String[] row) throws IOException {
+        StringWriter out = new StringWriter();
+        try (CSVWriter csvWriter = new CSVWriter(out)) {
+            csvWriter.writeNext(row);
+        }
+        return out.toString();
+    }
+
+    private static String decode(ByteBuffer row) {
+        return StandardCharsets.UTF_8.decode(row).toString();
+    }
+
+    private void assertSameAsOpenCsv(MarketData data) throws IOException {
+        assertEquals(openCsv(data.toCsvArray()), decode(writer.format(data)));
+    }
+
+    @Test
+    void outputShouldMatchOpenCsvForGeneratedTicks() throws IOException {
+        SplittableRandom random = new SplittableRandom(11);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        for (int i = 0; i < 20_000; i++) {
+            double bid = Math.round(random.nextDouble(0.01, 5000.0) * 100.0) / 100.0;
+            double ask = Math.round((bid + random.nextDouble(0.01, 1.0)) * 10_000.0) / 10_000.0;
+            double volume = random.nextInt(1, 10_000_000);
+            LocalDateTime timestamp = start.plusNanos(random.nextLong(0, 400L * 24 * 3600 * 1_000_000_000L));
+            // Exercise every fraction width LocalDateTime.toString picks
+            switch (i % 4) {
+                case 0: timestamp = timestamp.withNano(0); break;
+                case 1: timestamp = timestamp.withNano(timestamp.getNano() / 1_000_000 * 1_000_000); break;
+                case 2: timestamp = timestamp.withNano(timestamp.getNano() / 1_000 * 1_000); break;
+                default: break;
+            }
+
+            assertSameAsOpenCsv(new MarketData("SIM" + i, bid, ask, volume, timestamp));
+        }
+    }
+
+    @Test
+    void outputShouldMatchOpenCsvForEdgeCases() throws IOException {
+        LocalDateTime wholeMinute = LocalDateTime.of(2024, 6, 30, 23, 59);
+
+        assertSameAsOpenCsv(new MarketData("A\"B,C\nD\u0001é", 100.0, 100.5, 1.0, wholeMinute));
+        assertSameAsOpenCsv(new MarketData(0.0, -0.0, -12.75, wholeMinute.withNano(120)));
+        assertSameAsOpenCsv(new MarketData(1e-4, 1.2345678E7, 0.001, wholeMinute.withSecond(1)));
+        assertSameAsOpenCsv(new MarketData(Double.NaN, Double.POSITIVE_INFINITY, 1.0 / 3, wholeMinute.withYear(12024)));
+        assertSameAsOpenCsv(new MarketData(null, 1.5, 2.5, 3.5, wholeMinute.withYear(-5)));
+    }
+
+    @Test
+    void batchRowsShouldMatchTheirTicks() {
+        SplittableRandom random = new SplittableRandom(17);
+        MarketDataCsvWriter tickWriter = new MarketDataCsvWriter();
+        TickBatch batch = new TickBatch();
+        MarketData[] ticks = new MarketData[20_000];
+        for (int i = 0; i < ticks.length; i++) {
+            // Across the whole range of epoch nanos, with whole minutes and seconds
+            LocalDateTime timestamp = LocalDateTime.of(1678, 1, 1, 0, 0)
+                    .plusSeconds(random.nextLong(0, 584L * 365 * 24 * 3600))
+                    .withNano(i % 3 == 0 ? 0 : random.nextInt(1_000_000_000));
+            if (i % 5 == 0) {
+                timestamp = timestamp.withSecond(0);
+            }
+            ticks[i] = new MarketData("SIM" + i, random.nextDouble(0.01, 5000.0), 100.25, i, timestamp);
+            batch.add(ticks[i]);
+        }
+
+        for (int i = 0; i < ticks.length; i++) {
+            assertEquals(decode(tickWriter.format(ticks[i])), decode(writer.format(batch, i)));
+        }
+    }
+
+    @Test
+    void headerShouldMatchOpenCsv() throws IOException {
+        String[] header = {"Timestamp", "Symbol", "Bid", "Ask", "Volume"};
+
+        assertEquals(openCsv(header), decode(writer.format(header)));
+    }
+
+    @Test
+    void steadyStateFormattingShouldReuseTheRowBuffer() {
+        MarketData data = new MarketData("EURUSD", 1.0841, 1.0843, 250_000, LocalDateTime.of(2024, 3, 1, 12, 0, 1));
+
+        ByteBuffer first = writer.format(data);
+        ByteBuffer second = writer.format(data);
+
+        assertSame(first, second);
+        assertSame(first.array(), second.array());
+    }
+}
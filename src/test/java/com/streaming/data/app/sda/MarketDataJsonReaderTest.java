@@ -0,0 +1,85 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.codec.MarketDataJsonReader;
+import com.streaming.data.app.sda.codec.MarketDataJsonWriter;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataJsonReaderTest {
+
+    private final MarketDataJsonReader reader = new MarketDataJsonReader();
+
+    private static InputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReadTicksWrittenByTheJsonWriter() throws IOException {
+        MarketData data = new MarketData("EURUSD", 1.0845, 1.0847, 2500.0,
+                LocalDateTime.of(2024, 3, 15, 9, 30, 0, 123456789));
+        String tick = new String(new MarketDataJsonWriter().toBytes(data), StandardCharsets.UTF_8);
+        TickBatch batch = new TickBatch();
+
+        assertEquals(2, reader.read(json("[" + tick + "," + tick + "]"), batch, 10));
+
+        assertEquals(2, batch.size());
+        MarketData read = batch.toMarketData(1);
+        assertEquals(data.getSymbol(), read.getSymbol());
+        assertEquals(data.getBid(), read.getBid());
+        assertEquals(data.getAsk(), read.getAsk());
+        assertEquals(data.getVolume(), read.getVolume());
+        assertEquals(data.getTimestamp(), read.getTimestamp());
+    }
+
+    @Test
+    void shouldReadTicksUnderAFieldAndSkipInvalidOnes() throws IOException {
+        TickBatch batch = new TickBatch();
+
+        int received = reader.read(json("{\"source\":{\"feed\":\"a\"},\"ticks\":["
+                + "{\"symbol\":\"GBPUSD\",\"bid\":1.27,\"ask\":1.28,\"volume\":10,\"timestamp\":1000000000,\"venue\":[1]},"
+                + "{\"symbol\":\"\",\"bid\":1.27,\"ask\":1.28,\"volume\":10},"
+                + "{\"symbol\":\"GBPUSD\",\"bid\":\"NaN\",\"ask\":1.28,\"volume\":10},"
+                + "{\"symbol\":\"GBPUSD\",\"bid\":1.27,\"ask\":1.28},"
+                + "{\"symbol\":\"GBPUSD\",\"bid\":1.27,\"ask\":1.28,\"volume\":10,\"timestamp\":\"yesterday\"},"
+                + "42,"
+                + "{\"symbol\":\"USDJPY\",\"bid\":150.1,\"ask\":150.2,\"volume\":5}]}"), batch, 10);
+
+        assertEquals(7, received);
+        assertEquals(2, batch.size());
+        assertEquals(1_000_000_000L, batch.getEpochNanos(0));
+        assertEquals("USDJPY", batch.getSymbol(1));
+    }
+
+    @Test
+    void shouldStopAppendingAtTheLimit() throws IOException {
+        TickBatch batch = new TickBatch();
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            text.append(i == 0 ? "" : ",").append("{\"symbol\":\"S").append(i)
+                    .append("\",\"bid\":1,\"ask\":2,\"volume\":3}");
+        }
+
+        assertEquals(5, reader.read(json(text.append("]").toString()), batch, 3));
+
+        assertEquals(3, batch.size());
+        assertEquals("S2", batch.getSymbol(2));
+        assertTrue(batch.getEpochNanos(0) > MarketDataBinaryCodec.toEpochNanos(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    void shouldRejectMalformedBatches() {
+        assertThrows(IOException.class, () -> reader.read(json("{\"symbol\":\"EURUSD\"}"), new TickBatch(), 10));
+        assertThrows(IOException.class, () -> reader.read(json("[{\"symbol\":\"EURUSD\","), new TickBatch(), 10));
+        assertThrows(IOException.class, () -> reader.read(json("\"ticks\""), new TickBatch(), 10));
+    }
+}
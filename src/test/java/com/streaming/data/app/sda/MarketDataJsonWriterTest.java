@@ -0,0 +1,73 @@
+package com.streaming.data.app.sda;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.streaming.data.app.sda.codec.MarketDataJsonWriter;
+import com.streaming.data.app.sda.model.MarketData;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataJsonWriterTest {
+
+    // Same serialization settings Spring Boot applies to the application ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final MarketDataJsonWriter writer = new MarketDataJsonWriter();
+
+    private void assertSameAsJackson(MarketData data) throws Exception {
+        assertEquals(objectMapper.writeValueAsString(data),
+                new String(writer.toBytes(data), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void outputShouldMatchJacksonForGeneratedTicks() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        for (int i = 0; i < 20_000; i++) {
+            double bid = Math.round(random.nextDouble(0.01, 5000.0) * 100.0) / 100.0;
+            double ask = Math.round((bid + random.nextDouble(0.01, 1.0)) * 10_000.0) / 10_000.0;
+            double volume = random.nextInt(1, 10_000_000);
+            LocalDateTime timestamp = start.plusNanos(random.nextLong(0, 400L * 24 * 3600 * 1_000_000_000L));
+
+            assertSameAsJackson(new MarketData("SIM" + i, bid, ask, volume, timestamp));
+        }
+    }
+
+    @Test
+    void outputShouldMatchJacksonForEdgeCases() throws Exception {
+        LocalDateTime wholeMinute = LocalDateTime.of(2024, 6, 30, 23, 59);
+
+        assertSameAsJackson(new MarketData("A\"B\\C\u0001é", 100.0, 100.5, 1.0, wholeMinute));
+        assertSameAsJackson(new MarketData(0.0, -0.0, -12.75, wholeMinute.withNano(120)));
+        assertSameAsJackson(new MarketData(1e-4, 1.2345678E7, 0.001, wholeMinute.withNano(100_000_000)));
+        assertSameAsJackson(new MarketData(Double.NaN, Double.POSITIVE_INFINITY, 1.0 / 3, wholeMinute.withYear(12024)));
+        assertSameAsJackson(new MarketData(null, 1.5, 2.5, 3.5, null));
+    }
+
+    @Test
+    void writeShouldAppendToPooledBuffer() {
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        MarketData data = new MarketData("EURUSD", 1.0845, 1.0847, 2500.0, LocalDateTime.of(2024, 3, 15, 9, 30));
+
+        DataBuffer buffer = writer.write(data, factory.allocateBuffer(16));
+        try {
+            assertEquals(new String(writer.toBytes(data), StandardCharsets.UTF_8),
+                    buffer.toString(StandardCharsets.UTF_8));
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.streaming.data.app.sda;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureMetrics
+@SpringBootTest(classes = SdaApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "app.data-stream.simulation.data-generation-interval=50",
+        "app.data-stream.csv.export-interval=200",
+        "app.data-stream.csv.batch-size=10"
+})
+class MetricsEndpointTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void prometheusEndpointShouldExposePipelineMeters() throws InterruptedException {
+        // Let a few CSV batches be written, and a WebSocket session receive some ticks
+        new ReactorNettyWebSocketClient().execute(URI.create("ws://localhost:" + port + "/market-data"),
+                        session -> session.receive().take(5).then())
+                .block(Duration.ofSeconds(10));
+        Thread.sleep(1000);
+
+        String body = webTestClient.mutate().responseTimeout(Duration.ofSeconds(10)).build()
+                .get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        assertTrue(body.contains("sda_generator_ticks_total"));
+        assertTrue(body.contains("sda_processing_ticks_total"));
+        assertTrue(body.contains("sda_processing_overflow_total{"));
+        assertTrue(body.contains("sda_processing_buffered{"));
+        assertTrue(body.contains("sda_csv_batch_size_records_count"));
+        assertTrue(body.contains("sda_csv_write_seconds_bucket"));
+        assertTrue(body.contains("sda_websocket_sessions"));
+        // Frames are timed once written, so the ones the session received have been counted
+        assertTrue(Pattern.compile("sda_websocket_send_seconds_count\\{[^}]*mode=\"full\",} [1-9]").matcher(body).find());
+        assertTrue(body.contains("sda_journal_records_total{"));
+        assertTrue(body.contains("sda_ingest_ticks_total{"));
+        assertTrue(body.contains("sda_bars_emitted_total{"));
+    }
+}
@@ -19,9 +19,9 @@ class PerformanceTest {
     void marketDataGeneratorShouldHandleHighFrequencyGeneration() {
         // High-frequency configuration for testing
         StreamingConfig.SimulationConfig simulationConfig =
-                new StreamingConfig.SimulationConfig(1, 100.0, 100.5, 0.5, 100, 1000);
+                TestConfigs.simulation(1, 100.0, 100.5, 0.5, 100, 1000).build();
 
-        StreamingConfig config = new StreamingConfig(null, null, null, simulationConfig);
+        StreamingConfig config = TestConfigs.config().simulation(simulationConfig).build();
         DataGenerator generator = new DataGenerator(config);
 
         AtomicInteger messageCount = new AtomicInteger(0);
@@ -45,7 +45,7 @@ class PerformanceTest {
         Duration testDuration = Duration.between(startTime, endTime);
 
         System.out.printf("Generated %d messages in %d ms%n",
-                messageCount.get(), testDuration.toMinutes());
+                messageCount.get(), testDuration.toMillis());
 
         // Should generate close to 1000 messages per second (1ms interval)
         assertTrue(messageCount.get() > 500,
@@ -55,9 +55,9 @@ class PerformanceTest {
     @Test
     void memoryUsage_ShouldRemainStableUnderLoad() {
         StreamingConfig.SimulationConfig simulationConfig =
-                new StreamingConfig.SimulationConfig(1, 100.0, 100.5, 0.5, 100, 1000);
+                TestConfigs.simulation(1, 100.0, 100.5, 0.5, 100, 1000).build();
 
-        StreamingConfig config = new StreamingConfig(null, null, null, simulationConfig);
+        StreamingConfig config = TestConfigs.config().simulation(simulationConfig).build();
         DataGenerator generator = new DataGenerator(config);
 
         Runtime runtime = Runtime.getRuntime();
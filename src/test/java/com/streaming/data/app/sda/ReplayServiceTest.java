@@ -0,0 +1,184 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.CsvExportService;
+import com.streaming.data.app.sda.service.ReplayRequest;
+import com.streaming.data.app.sda.service.ReplayService;
+import com.streaming.data.app.sda.service.TickJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private TickJournal journal;
+    private CsvExportService csvExportService;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+        if (csvExportService != null) {
+            csvExportService.close();
+        }
+    }
+
+    private static MarketData tick(int i) {
+        return new MarketData("SYM" + (i % 2), 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i));
+    }
+
+    private ReplayService replayService(boolean journalEnabled, int recordsPerSegment) throws IOException {
+        StreamingConfig.JournalConfig journalConfig = new StreamingConfig.JournalConfig(journalEnabled,
+                tempDir.resolve("journal").toString(),
+                DataSize.ofBytes((long) recordsPerSegment * TickJournal.RECORD_SIZE), 0);
+        StreamingConfig.CsvConfig csvConfig =
+                TestConfigs.csv(tempDir.resolve("export.csv").toString(), 1000, 100).build();
+        StreamingConfig config = TestConfigs.config().csv(csvConfig).journal(journalConfig).build();
+
+        journal = new TickJournal(config);
+        journal.initialize();
+        csvExportService = new CsvExportService(config);
+        csvExportService.initialize();
+        return new ReplayService(config, journal, csvExportService);
+    }
+
+    @Test
+    void journalReplayShouldSelectRangeAndSymbolAcrossSegments() throws IOException {
+        ReplayService replayService = replayService(true, 4);
+        for (int i = 0; i < 20; i++) {
+            journal.append(tick(i));
+        }
+
+        ReplayRequest request = new ReplayRequest(T0.plusSeconds(5), T0.plusSeconds(14), "SYM1", ReplayRequest.MAX_SPEED);
+
+        StepVerifier.create(replayService.replay(request))
+                .expectNext(tick(5), tick(7), tick(9), tick(11), tick(13))
+                .verifyComplete();
+    }
+
+    @Test
+    void csvReplayShouldReadExportedRowsWhenJournalIsDisabled() throws IOException {
+        ReplayService replayService = replayService(false, 4);
+        List<MarketData> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(tick(i));
+        }
+        csvExportService.exportBatch(batch);
+
+        ReplayRequest request = ReplayRequest.parse(T0.plusSeconds(2).toString(), T0.plusSeconds(4).toString(), null, "max");
+
+        StepVerifier.create(replayService.replay(request))
+                .expectNext(tick(2), tick(3), tick(4))
+                .verifyComplete();
+    }
+
+    @Test
+    void journalReplayShouldKeepInRangeTicksStoredAfterALaterOne() throws IOException {
+        ReplayService replayService = replayService(true, 4);
+        for (int i = 0; i < 6; i++) {
+            journal.append(tick(i));
+        }
+        // 8s is within the default 5s skew of the range end, so reading goes on past it;
+        // the segment starting at 30s is beyond it and is not read, losing the late 7s tick
+        journal.append(tick(8));
+        journal.append(tick(6));
+        journal.append(tick(30));
+        journal.append(tick(7));
+
+        ReplayRequest request = new ReplayRequest(T0.plusSeconds(2), T0.plusSeconds(7), null, ReplayRequest.MAX_SPEED);
+
+        StepVerifier.create(replayService.replay(request))
+                .expectNext(tick(2), tick(3), tick(4), tick(5), tick(6))
+                .verifyComplete();
+    }
+
+    @Test
+    void csvReplayShouldKeepInRangeTicksStoredAfterALaterOne() throws IOException {
+        ReplayService replayService = replayService(false, 4);
+        csvExportService.exportBatch(List.of(tick(1), tick(2), tick(6), tick(3), tick(4)));
+
+        ReplayRequest request = ReplayRequest.parse(T0.plusSeconds(2).toString(), T0.plusSeconds(3).toString(), null, "max");
+
+        StepVerifier.create(replayService.replay(request))
+                .expectNext(tick(2), tick(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void csvReplayShouldSkipSegmentsThatEndedBeforeTheRange() throws IOException {
+        StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(tempDir.resolve("export.csv").toString(), 1000, 100)
+                .writeBufferSize(1 << 16)
+                .segmentSize(DataSize.ofMegabytes(64))
+                .compressSegments(false)
+                .build();
+        StreamingConfig config = TestConfigs.config().csv(csvConfig).build();
+        journal = new TickJournal(config);
+        csvExportService = new CsvExportService(config);
+        csvExportService.initialize();
+        ReplayService replayService = new ReplayService(config, journal, csvExportService);
+
+        // The first segment was closed when the second opened at 11:00, so a row in range there cannot be
+        // real; finding it would mean the segment was read
+        MarketData planted = new MarketData("PLANTED", 1, 2, 3, T0.plusSeconds(1));
+        writeSegment("export-20240301-100000.csv", planted);
+        writeSegment("export-20240301-110000.csv", new MarketData("SYM0", 1, 2, 3, T0.minusHours(1)));
+        csvExportService.exportBatch(List.of(tick(0), tick(1), tick(2), tick(3)));
+
+        ReplayRequest request = ReplayRequest.parse(T0.plusSeconds(1).toString(), T0.plusSeconds(2).toString(), null, "max");
+
+        StepVerifier.create(replayService.replay(request))
+                .expectNext(tick(1), tick(2))
+                .verifyComplete();
+    }
+
+    private void writeSegment(String name, MarketData data) throws IOException {
+        Files.write(tempDir.resolve(name), List.of(
+                "\"Timestamp\",\"Symbol\",\"Bid\",\"Ask\",\"Volume\"",
+                "\"" + String.join("\",\"", data.toCsvArray()) + "\""));
+    }
+
+    @Test
+    void pacedReplayShouldKeepTickSpacingDividedBySpeed() throws IOException {
+        ReplayService replayService = replayService(true, 100);
+        for (int i = 0; i < 4; i++) {
+            journal.append(tick(i));
+        }
+
+        // Three one-second gaps at 10x take about 300ms
+        long start = System.nanoTime();
+        StepVerifier.create(replayService.replay(ReplayRequest.parse(null, null, null, "10x")))
+                .expectNextCount(4)
+                .verifyComplete();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis >= 280, "replay took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void invalidReplayParametersShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ReplayRequest.parse(null, null, null, "fast"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayRequest.parse(null, null, null, "0x"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayRequest.parse("yesterday", null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReplayRequest.parse(T0.toString(), T0.minusSeconds(1).toString(), null, null));
+    }
+}
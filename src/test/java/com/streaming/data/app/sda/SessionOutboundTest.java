@@ -0,0 +1,185 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig.WebSocketConfig.OverflowPolicy;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.websocket.OutboundFrame;
+import com.streaming.data.app.sda.websocket.SessionOutbound;
+import com.streaming.data.app.sda.websocket.WireFormat;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionOutboundTest {
+
+    private static OutboundFrame frame(String instrument, String payload) {
+        return new OutboundFrame(instrument, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(OutboundFrame frame) {
+        return frame.getPayload().toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void conflateKeepsLatestFramePerInstrument() {
+        SessionOutbound outbound = new SessionOutbound("s1", 10, OverflowPolicy.CONFLATE, 5);
+
+        StepVerifier.create(outbound.frames(), 0)
+                .then(() -> {
+                    outbound.offer(frame("A", "a1"));
+                    outbound.offer(frame("B", "b1"));
+                    outbound.offer(frame("A", "a2"));
+                })
+                .thenRequest(2)
+                .assertNext(f -> assertEquals("a2", text(f)))
+                .assertNext(f -> assertEquals("b1", text(f)))
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, outbound.getConflatedCount());
+        assertEquals(0, outbound.getDroppedCount());
+        assertEquals(2, outbound.getSentCount());
+    }
+
+    @Test
+    void conflateShouldNotLetASnapshotReplaceAQueuedLiveFrame() {
+        SessionOutbound outbound = new SessionOutbound("s1", 10, OverflowPolicy.CONFLATE, 5);
+        DataBuffer[] noPayloads = new DataBuffer[WireFormat.values().length];
+        MarketData older = new MarketData("A", 1.0, 1.1, 100, LocalDateTime.now());
+        MarketData newer = new MarketData("A", 2.0, 2.1, 200, LocalDateTime.now());
+        MarketData snapshotOfB = new MarketData("B", 3.0, 3.1, 300, LocalDateTime.now());
+
+        StepVerifier.create(outbound.frames(), 0)
+                .then(() -> {
+                    // A live tick is queued before the session's snapshots are
+                    outbound.offer(new OutboundFrame(newer, noPayloads));
+                    outbound.offer(OutboundFrame.snapshot(older, noPayloads));
+                    // A live tick still replaces a queued snapshot
+                    outbound.offer(OutboundFrame.snapshot(snapshotOfB, noPayloads));
+                    outbound.offer(new OutboundFrame(new MarketData("B", 4.0, 4.1, 400, LocalDateTime.now()),
+                            noPayloads));
+                })
+                .thenRequest(2)
+                .assertNext(f -> {
+                    assertSame(newer, f.getData());
+                    assertFalse(f.isSnapshot());
+                })
+                .assertNext(f -> {
+                    assertEquals(4.0, f.getData().getBid());
+                    assertFalse(f.isSnapshot());
+                })
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, outbound.getConflatedCount());
+        assertEquals(0, outbound.getQueuedCount());
+    }
+
+    @Test
+    void dropOldestEvictsHeadWhenFull() {
+        SessionOutbound outbound = new SessionOutbound("s2", 2, OverflowPolicy.DROP_OLDEST, 5);
+
+        StepVerifier.create(outbound.frames(), 0)
+                .then(() -> {
+                    outbound.offer(frame("A", "1"));
+                    outbound.offer(frame("A", "2"));
+                    outbound.offer(frame("A", "3"));
+                })
+                .thenRequest(2)
+                .assertNext(f -> assertEquals("2", text(f)))
+                .assertNext(f -> assertEquals("3", text(f)))
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, outbound.getDroppedCount());
+    }
+
+    @Test
+    void disconnectPolicyEvictsSessionThatStaysBehind() throws InterruptedException {
+        SessionOutbound outbound = new SessionOutbound("s3", 1, OverflowPolicy.DISCONNECT, 1);
+
+        StepVerifier.create(outbound.frames(), 0)
+                .then(() -> {
+                    outbound.offer(frame("A", "1"));
+                    outbound.offer(frame("A", "2"));
+                })
+                .then(() -> {
+                    try {
+                        Thread.sleep(1100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    outbound.offer(frame("A", "3"));
+                })
+                .verifyComplete();
+
+        assertTrue(outbound.isEvicted());
+        assertEquals(2, outbound.getDroppedCount());
+        assertEquals(0, outbound.getQueuedCount());
+    }
+
+    @Test
+    void disconnectPolicyEvictsSessionThatReadsOnlyNowAndThen() throws InterruptedException {
+        SessionOutbound outbound = new SessionOutbound("s5", 4, OverflowPolicy.DISCONNECT, 1);
+        BaseSubscriber<OutboundFrame> reader = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Reads are requested one at a time below
+            }
+        };
+        outbound.frames().subscribe(reader);
+
+        // One read per 400ms against a tick every 20ms keeps the queue full with frames about 1.6s old
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (int i = 0; !outbound.isEvicted() && System.nanoTime() < deadline; i++) {
+            outbound.offer(frame("A", String.valueOf(i)));
+            if (i % 20 == 0) {
+                reader.request(1);
+            }
+            Thread.sleep(20);
+        }
+
+        assertTrue(outbound.isEvicted());
+        assertTrue(outbound.getSentCount() >= 2);
+        assertEquals(0, outbound.getQueuedCount());
+    }
+
+    @Test
+    void queueShouldReleasePooledPayloadsItNoLongerHolds() {
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        SessionOutbound outbound = new SessionOutbound("s4", 10, OverflowPolicy.CONFLATE, 5);
+        OutboundFrame first = pooledFrame(factory, "A");
+        OutboundFrame second = pooledFrame(factory, "A");
+
+        outbound.offer(first);
+        outbound.offer(second);
+        first.release();
+        second.release();
+
+        assertEquals(0, refCnt(first));
+        assertEquals(1, refCnt(second));
+
+        outbound.close();
+        assertEquals(0, refCnt(second));
+    }
+
+    private static OutboundFrame pooledFrame(NettyDataBufferFactory factory, String instrument) {
+        DataBuffer[] payloads = new DataBuffer[WireFormat.values().length];
+        payloads[WireFormat.JSON.ordinal()] = factory.allocateBuffer(16).write("{}".getBytes(StandardCharsets.UTF_8));
+        return new OutboundFrame(new MarketData(instrument, 1.0, 1.1, 100, LocalDateTime.now()), payloads);
+    }
+
+    private static int refCnt(OutboundFrame frame) {
+        return ((NettyDataBuffer) frame.getPayload()).getNativeBuffer().refCnt();
+    }
+}
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.Duration;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -28,7 +31,7 @@ class StreamingConfigTest {
     @Test
     void configurationPropertiesShouldBindCorrectly() {
         StreamingConfig.WebSocketConfig wsConfig =
-                new StreamingConfig.WebSocketConfig(8080, "/market-data");
+                TestConfigs.websocket(8080, "/market-data");
 
         assertEquals(8080, wsConfig.getPort());
         assertEquals("/market-data", wsConfig.getPath());
@@ -37,7 +40,7 @@ class StreamingConfigTest {
     @Test
     void csvConfigShouldValidateCorrectly() {
         StreamingConfig.CsvConfig csvConfig =
-                new StreamingConfig.CsvConfig("./test.csv", 5000, 100);
+                TestConfigs.csv("./test.csv", 5000, 100).build();
 
         assertEquals("./test.csv", csvConfig.getExportPath());
         assertEquals(5000, csvConfig.getExportInterval());
@@ -47,9 +50,54 @@ class StreamingConfigTest {
     @Test
     void processingConfigShouldHaveValidDefaults() {
         StreamingConfig.ProcessingConfig processingConfig =
-                new StreamingConfig.ProcessingConfig(1000, "BUFFER_OVERFLOW_DROP_LATEST");
+                TestConfigs.processing(1000, "BUFFER_OVERFLOW_DROP_LATEST").build();
 
         assertEquals(1000, processingConfig.getBufferSize());
         assertEquals("BUFFER_OVERFLOW_DROP_LATEST", processingConfig.getBackpressureStrategy());
     }
-}
\ No newline at end of file
+
+    @Test
+    void backpressureStrategyNamesShouldParseLeniently() {
+        assertEquals(StreamingConfig.ProcessingConfig.BackpressureStrategy.DROP_LATEST,
+                TestConfigs.processing(16, "BUFFER_OVERFLOW_DROP_LATEST").build().getStrategy());
+        assertEquals(StreamingConfig.ProcessingConfig.BackpressureStrategy.DROP_OLDEST,
+                StreamingConfig.ProcessingConfig.BackpressureStrategy.parse("drop-oldest"));
+        assertEquals(StreamingConfig.ProcessingConfig.BackpressureStrategy.BOUNDED_BLOCKING,
+                StreamingConfig.ProcessingConfig.BackpressureStrategy.parse("bounded-blocking"));
+        assertThrows(IllegalArgumentException.class,
+                () -> TestConfigs.processing(16, "DROP_EVERYTHING").build());
+    }
+
+    @Test
+    void simulationConfigShouldDeriveInstrumentUniverse() {
+        StreamingConfig.SimulationConfig generated =
+                TestConfigs.simulation(100, 100.0, 100.5, 0.5, 100, 1000)
+                        .instrumentCount(12).symbolPrefix("SYM").build();
+        StreamingConfig.SimulationConfig explicit =
+                TestConfigs.simulation(100, 100.0, 100.5, 0.5, 100, 1000)
+                        .symbols(List.of("EURUSD", "GBPUSD")).instrumentCount(12).symbolPrefix("SYM").shards(8).build();
+
+        assertEquals(12, generated.getInstrumentUniverse().size());
+        assertEquals("SYM00", generated.getInstrumentUniverse().get(0));
+        assertEquals("SYM11", generated.getInstrumentUniverse().get(11));
+        assertEquals(List.of("EURUSD", "GBPUSD"), explicit.getInstrumentUniverse());
+        assertEquals(2, explicit.getEffectiveShards(2));
+    }
+
+    @Test
+    void simulationConfigShouldEnableBurstModeWithAPositiveRate() {
+        StreamingConfig.SimulationConfig interval =
+                TestConfigs.simulation(100, 100.0, 100.5, 0.5, 100, 1000).build();
+        StreamingConfig.SimulationConfig burst =
+                TestConfigs.simulation(100, 100.0, 100.5, 0.5, 100, 1000)
+                        .symbolPrefix("SIM").ticksPerSecond(1_000_000).burstQuantum(Duration.ofMillis(2)).build();
+
+        assertFalse(interval.isBurst());
+        assertEquals(Duration.ofMillis(1), interval.getBurstQuantum());
+        assertTrue(burst.isBurst());
+        assertEquals(1_000_000, burst.getTicksPerSecond());
+        assertThrows(IllegalArgumentException.class,
+                () -> TestConfigs.simulation(100, 100.0, 100.5, 0.5, 100, 1000)
+                        .symbolPrefix("SIM").ticksPerSecond(1000).burstQuantum(Duration.ofNanos(1000)).build());
+    }
+}
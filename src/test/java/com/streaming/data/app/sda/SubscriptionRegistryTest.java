@@ -0,0 +1,70 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig.WebSocketConfig.OverflowPolicy;
+import com.streaming.data.app.sda.websocket.SessionOutbound;
+import com.streaming.data.app.sda.websocket.SubscriptionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionRegistryTest {
+
+    private SubscriptionRegistry registry;
+    private SessionOutbound alice;
+    private SessionOutbound bob;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SubscriptionRegistry();
+        alice = new SessionOutbound("alice", 16, OverflowPolicy.CONFLATE, 5);
+        bob = new SessionOutbound("bob", 16, OverflowPolicy.CONFLATE, 5);
+    }
+
+    @Test
+    void routeShouldMatchExactSymbolsAndPatterns() {
+        registry.subscribe(alice, List.of("EURUSD"));
+        registry.subscribe(bob, List.of("EUR*", "?BPUSD"));
+
+        assertEquals(Set.of(alice, bob), Set.of(registry.route("EURUSD")));
+        assertArrayEquals(new SessionOutbound[]{bob}, registry.route("EURJPY"));
+        assertArrayEquals(new SessionOutbound[]{bob}, registry.route("GBPUSD"));
+        assertEquals(0, registry.route("USDJPY").length);
+    }
+
+    @Test
+    void patternsShouldTreatRegexCharactersLiterally() {
+        registry.subscribe(alice, List.of("ES.F*"));
+
+        assertEquals(1, registry.route("ES.FUT").length);
+        assertEquals(0, registry.route("ESXFUT").length);
+    }
+
+    @Test
+    void unsubscribeShouldInvalidateCachedRoutes() {
+        registry.subscribe(alice, List.of("*"));
+        assertEquals(1, registry.route("EURUSD").length);
+
+        registry.unsubscribe(alice, List.of("*"));
+        assertEquals(0, registry.route("EURUSD").length);
+
+        registry.subscribe(alice, List.of("EURUSD"));
+        assertEquals(1, registry.route("EURUSD").length);
+        assertEquals(Set.of("EURUSD"), registry.getSubscriptions(alice));
+    }
+
+    @Test
+    void removeSessionShouldDropAllItsSubscriptions() {
+        registry.subscribe(alice, List.of("EURUSD", "GBP*"));
+        registry.subscribe(bob, List.of("GBP*"));
+
+        registry.removeSession(alice);
+
+        assertEquals(0, registry.route("EURUSD").length);
+        assertArrayEquals(new SessionOutbound[]{bob}, registry.route("GBPUSD"));
+        assertTrue(registry.getSubscriptions(alice).isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.CsvConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.ProcessingConfig;
+import com.streaming.data.app.sda.config.StreamingConfig.SimulationConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds configuration for tests and benchmarks. Settings left unset take
+ * the defaults the properties binding applies, and groups left unset are
+ * passed as null, as they are when absent from the properties.
+ */
+public final class TestConfigs {
+
+    private TestConfigs() {
+    }
+
+    public static Builder config() {
+        return new Builder();
+    }
+
+    public static StreamingConfig.WebSocketConfig websocket(int port, String path) {
+        return new StreamingConfig.WebSocketConfig(port, path, 256,
+                StreamingConfig.WebSocketConfig.OverflowPolicy.CONFLATE, 5, List.of("*"), true, 65536);
+    }
+
+    public static CsvBuilder csv(String exportPath, long exportInterval, int batchSize) {
+        return new CsvBuilder(exportPath, exportInterval, batchSize);
+    }
+
+    public static ProcessingBuilder processing(int bufferSize, String backpressureStrategy) {
+        return new ProcessingBuilder(bufferSize, backpressureStrategy);
+    }
+
+    public static SimulationBuilder simulation(long dataGenerationInterval, double initialBid, double initialAsk,
+                                               double maxPriceChange, int minVolume, int maxVolume) {
+        return new SimulationBuilder(dataGenerationInterval, initialBid, initialAsk,
+                maxPriceChange, minVolume, maxVolume);
+    }
+
+    public static final class Builder {
+        private StreamingConfig.WebSocketConfig websocket;
+        private CsvConfig csv;
+        private ProcessingConfig processing;
+        private SimulationConfig simulation;
+        private StreamingConfig.JournalConfig journal;
+        private StreamingConfig.LatencyConfig latency;
+        private StreamingConfig.IngestConfig ingest;
+        private StreamingConfig.BarsConfig bars;
+        private StreamingConfig.ReplayConfig replay;
+
+        public Builder websocket(StreamingConfig.WebSocketConfig websocket) { this.websocket = websocket; return this; }
+        public Builder csv(CsvConfig csv) { this.csv = csv; return this; }
+        public Builder processing(ProcessingConfig processing) { this.processing = processing; return this; }
+        public Builder simulation(SimulationConfig simulation) { this.simulation = simulation; return this; }
+        public Builder journal(StreamingConfig.JournalConfig journal) { this.journal = journal; return this; }
+        public Builder latency(StreamingConfig.LatencyConfig latency) { this.latency = latency; return this; }
+        public Builder ingest(StreamingConfig.IngestConfig ingest) { this.ingest = ingest; return this; }
+        public Builder bars(StreamingConfig.BarsConfig bars) { this.bars = bars; return this; }
+        public Builder replay(StreamingConfig.ReplayConfig replay) { this.replay = replay; return this; }
+
+        public StreamingConfig build() {
+            return new StreamingConfig(websocket, csv, processing, simulation, journal, latency, ingest, bars, replay);
+        }
+    }
+
+    public static final class CsvBuilder {
+        private final String exportPath;
+        private final long exportInterval;
+        private final int batchSize;
+        private CsvConfig.Durability durability = CsvConfig.Durability.FLUSH;
+        private long fsyncInterval = 1000;
+        private int writeBufferSize = 1 << 20;
+        private DataSize segmentSize = DataSize.ofBytes(0);
+        private CsvConfig.RollInterval rollInterval = CsvConfig.RollInterval.NONE;
+        private boolean compressSegments = true;
+        private int maxSegments;
+        private int indexInterval = 1024;
+        private CsvConfig.Formatter formatter = CsvConfig.Formatter.DIRECT;
+
+        private CsvBuilder(String exportPath, long exportInterval, int batchSize) {
+            this.exportPath = exportPath;
+            this.exportInterval = exportInterval;
+            this.batchSize = batchSize;
+        }
+
+        public CsvBuilder durability(CsvConfig.Durability durability) { this.durability = durability; return this; }
+        public CsvBuilder fsyncInterval(long fsyncInterval) { this.fsyncInterval = fsyncInterval; return this; }
+        public CsvBuilder writeBufferSize(int writeBufferSize) { this.writeBufferSize = writeBufferSize; return this; }
+        public CsvBuilder segmentSize(DataSize segmentSize) { this.segmentSize = segmentSize; return this; }
+        public CsvBuilder rollInterval(CsvConfig.RollInterval rollInterval) { this.rollInterval = rollInterval; return this; }
+        public CsvBuilder compressSegments(boolean compressSegments) { this.compressSegments = compressSegments; return this; }
+        public CsvBuilder maxSegments(int maxSegments) { this.maxSegments = maxSegments; return this; }
+        public CsvBuilder indexInterval(int indexInterval) { this.indexInterval = indexInterval; return this; }
+        public CsvBuilder formatter(CsvConfig.Formatter formatter) { this.formatter = formatter; return this; }
+
+        public CsvConfig build() {
+            return new CsvConfig(exportPath, exportInterval, batchSize, durability, fsyncInterval, writeBufferSize,
+                    segmentSize, rollInterval, compressSegments, maxSegments, indexInterval, formatter);
+        }
+    }
+
+    public static final class ProcessingBuilder {
+        private final int bufferSize;
+        private final String backpressureStrategy;
+        private long blockTimeout = 1000;
+        private ProcessingConfig.EventBus eventBus = ProcessingConfig.EventBus.SINK;
+        private ProcessingConfig.TickLayout tickLayout = ProcessingConfig.TickLayout.OBJECT;
+
+        private ProcessingBuilder(int bufferSize, String backpressureStrategy) {
+            this.bufferSize = bufferSize;
+            this.backpressureStrategy = backpressureStrategy;
+        }
+
+        public ProcessingBuilder blockTimeout(long blockTimeout) { this.blockTimeout = blockTimeout; return this; }
+        public ProcessingBuilder eventBus(ProcessingConfig.EventBus eventBus) { this.eventBus = eventBus; return this; }
+        public ProcessingBuilder tickLayout(ProcessingConfig.TickLayout tickLayout) { this.tickLayout = tickLayout; return this; }
+
+        public ProcessingConfig build() {
+            return new ProcessingConfig(bufferSize, backpressureStrategy, blockTimeout, eventBus, tickLayout);
+        }
+    }
+
+    public static final class SimulationBuilder {
+        private final long dataGenerationInterval;
+        private final double initialBid;
+        private final double initialAsk;
+        private final double maxPriceChange;
+        private final int minVolume;
+        private final int maxVolume;
+        private List<String> symbols = List.of();
+        private int instrumentCount = 1;
+        private String symbolPrefix = MarketData.DEFAULT_SYMBOL;
+        private int shards;
+        private long ticksPerSecond;
+        private Duration burstQuantum = Duration.ofMillis(1);
+        private Long seed;
+        private StreamingConfig.ProfileConfig profile;
+
+        private SimulationBuilder(long dataGenerationInterval, double initialBid, double initialAsk,
+                                  double maxPriceChange, int minVolume, int maxVolume) {
+            this.dataGenerationInterval = dataGenerationInterval;
+            this.initialBid = initialBid;
+            this.initialAsk = initialAsk;
+            this.maxPriceChange = maxPriceChange;
+            this.minVolume = minVolume;
+            this.maxVolume = maxVolume;
+        }
+
+        public SimulationBuilder symbols(List<String> symbols) { this.symbols = symbols; return this; }
+        public SimulationBuilder instrumentCount(int instrumentCount) { this.instrumentCount = instrumentCount; return this; }
+        public SimulationBuilder symbolPrefix(String symbolPrefix) { this.symbolPrefix = symbolPrefix; return this; }
+        public SimulationBuilder shards(int shards) { this.shards = shards; return this; }
+        public SimulationBuilder ticksPerSecond(long ticksPerSecond) { this.ticksPerSecond = ticksPerSecond; return this; }
+        public SimulationBuilder burstQuantum(Duration burstQuantum) { this.burstQuantum = burstQuantum; return this; }
+        public SimulationBuilder seed(Long seed) { this.seed = seed; return this; }
+        public SimulationBuilder profile(StreamingConfig.ProfileConfig profile) { this.profile = profile; return this; }
+
+        public SimulationConfig build() {
+            return new SimulationConfig(dataGenerationInterval, initialBid, initialAsk, maxPriceChange,
+                    minVolume, maxVolume, symbols, instrumentCount, symbolPrefix, shards, ticksPerSecond,
+                    burstQuantum, seed, profile);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.codec.MarketDataBinaryCodec;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.model.TickBatchPool;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickBatchTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789);
+
+    @Test
+    void rowsShouldRoundTripTicksIncludingTheirCreationTime() {
+        TickBatch batch = new TickBatch(2);
+        MarketData[] ticks = new MarketData[5];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = new MarketData("SYM" + i, 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i));
+            batch.add(ticks[i]);
+        }
+
+        assertEquals(5, batch.size());
+        assertTrue(batch.capacity() >= 5);
+        for (int i = 0; i < ticks.length; i++) {
+            MarketData row = batch.toMarketData(i);
+            assertEquals(ticks[i], row);
+            assertEquals(ticks[i].getCreatedNanos(), row.getCreatedNanos());
+            assertEquals(MarketDataBinaryCodec.toEpochNanos(ticks[i].getTimestamp()), batch.getEpochNanos(i));
+            assertArrayEquals(ticks[i].toCsvArray(), batch.toCsvArray(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getBid(5));
+    }
+
+    @Test
+    void clearedBatchShouldKeepItsColumns() {
+        TickBatch batch = new TickBatch(1);
+        for (int i = 0; i < 100; i++) {
+            batch.add("SIM", 1, 2, 3, i);
+        }
+        int capacity = batch.capacity();
+
+        batch.clear();
+
+        assertTrue(batch.isEmpty());
+        assertEquals(capacity, batch.capacity());
+    }
+
+    @Test
+    void retainIfShouldCompactTheKeptRowsInOrder() {
+        TickBatch batch = new TickBatch(4);
+        for (int i = 0; i < 10; i++) {
+            batch.add(new MarketData("SYM" + i, 100 + i, 100.5 + i, 1000 + i, T0.plusSeconds(i)));
+        }
+        StringBuilder tested = new StringBuilder();
+
+        int kept = batch.retainIf(row -> {
+            tested.append(batch.getSymbol(row)).append(' ');
+            return row % 3 == 0;
+        });
+
+        assertEquals("SYM0 SYM1 SYM2 SYM3 SYM4 SYM5 SYM6 SYM7 SYM8 SYM9 ", tested.toString());
+        assertEquals(4, kept);
+        assertEquals(4, batch.size());
+        for (int i = 0; i < kept; i++) {
+            assertEquals(new MarketData("SYM" + 3 * i, 100 + 3 * i, 100.5 + 3 * i, 1000 + 3 * i,
+                    T0.plusSeconds(3 * i)), batch.toMarketData(i));
+        }
+    }
+
+    @Test
+    void poolShouldReuseReleasedBatchesUpToItsLimit() {
+        TickBatchPool pool = new TickBatchPool(1, 8);
+        TickBatch first = pool.acquire();
+        TickBatch second = pool.acquire();
+        first.add("SIM", 1, 2, 3, 0);
+
+        first.release();
+        first.release();
+        second.release();
+
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getIdleCount());
+        TickBatch reused = pool.acquire();
+        assertSame(first, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2, pool.getCreatedCount());
+    }
+
+    @Test
+    void releasingAnUnpooledBatchShouldKeepItsRows() {
+        TickBatch batch = new TickBatch();
+        batch.add("SIM", 1, 2, 3, 0);
+
+        batch.release();
+
+        assertEquals(1, batch.size());
+    }
+}
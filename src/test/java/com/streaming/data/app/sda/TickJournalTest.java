@@ -0,0 +1,168 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.config.StreamingConfig;
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.model.TickBatch;
+import com.streaming.data.app.sda.service.TickJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickJournalTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private TickJournal journal(int recordsPerSegment) throws IOException {
+        return journal(recordsPerSegment, 0);
+    }
+
+    private TickJournal journal(int recordsPerSegment, int maxSegments) throws IOException {
+        StreamingConfig.JournalConfig journalConfig = new StreamingConfig.JournalConfig(true, tempDir.toString(),
+                DataSize.ofBytes((long) recordsPerSegment * TickJournal.RECORD_SIZE), maxSegments);
+        TickJournal journal = new TickJournal(TestConfigs.config().journal(journalConfig).build());
+        journal.initialize();
+        return journal;
+    }
+
+    private static MarketData tick(int i) {
+        return new MarketData("SYM" + (i % 3), 100 + i, 100.5 + i, 1000 + i, T0.plusNanos(i * 1_000L));
+    }
+
+    private List<MarketData> readAll() throws IOException {
+        List<MarketData> records = new ArrayList<>();
+        for (Path segment : TickJournal.listSegments(tempDir)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int end = TickJournal.findEnd(buffer, (int) channel.size());
+                for (int offset = 0; offset < end; offset += TickJournal.RECORD_SIZE) {
+                    records.add(TickJournal.readRecord(buffer, offset));
+                }
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void appendedTicksAreReadBackAcrossSegments() throws IOException {
+        TickJournal journal = journal(10);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(journal.append(tick(i)));
+        }
+        journal.close();
+
+        assertEquals(3, TickJournal.listSegments(tempDir).size());
+        List<MarketData> records = readAll();
+        assertEquals(25, records.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(tick(i), records.get(i));
+        }
+    }
+
+    @Test
+    void segmentsPastRetentionAreDeletedOnRoll() throws IOException {
+        TickJournal journal = journal(10, 2);
+        for (int i = 0; i < 45; i++) {
+            assertTrue(journal.append(tick(i)));
+        }
+        journal.close();
+
+        List<Path> segments = TickJournal.listSegments(tempDir);
+        assertEquals(2, segments.size());
+        assertTrue(segments.get(1).getFileName().toString().endsWith("04.dat"));
+        List<MarketData> records = readAll();
+        assertEquals(15, records.size());
+        assertEquals(tick(30), records.get(0));
+    }
+
+    @Test
+    void batchAppendWritesEveryRowInOrder() throws IOException {
+        TickJournal journal = journal(10);
+        TickBatch batch = new TickBatch();
+        for (int i = 0; i < 25; i++) {
+            batch.add(tick(i));
+        }
+        batch.add(new MarketData("A_SYMBOL_FAR_TOO_LONG_FOR_ONE_RECORD", 1, 2, 3, T0));
+
+        assertEquals(25, journal.append(batch));
+        journal.close();
+
+        assertEquals(1, journal.getRejectedCount());
+        List<MarketData> records = readAll();
+        assertEquals(25, records.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(tick(i), records.get(i));
+        }
+    }
+
+    @Test
+    void reopenedJournalResumesAfterLastCommittedRecord() throws IOException {
+        TickJournal first = journal(100);
+        for (int i = 0; i < 5; i++) {
+            first.append(tick(i));
+        }
+        first.close();
+
+        TickJournal second = journal(100);
+        for (int i = 5; i < 8; i++) {
+            second.append(tick(i));
+        }
+        second.close();
+
+        List<MarketData> records = readAll();
+        assertEquals(8, records.size());
+        assertEquals(tick(7), records.get(7));
+    }
+
+    @Test
+    void recordWithoutCommitMarkerEndsTheJournal() throws IOException {
+        TickJournal journal = journal(100);
+        for (int i = 0; i < 3; i++) {
+            journal.append(tick(i));
+        }
+        journal.close();
+
+        Path segment = TickJournal.listSegments(tempDir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.putInt(2 * TickJournal.RECORD_SIZE, 0);
+            buffer.force();
+        }
+
+        assertEquals(2, readAll().size());
+    }
+
+    @Test
+    void nonAsciiSymbolsAreStoredAsUtf8() throws IOException {
+        TickJournal journal = journal(10);
+        MarketData tick = new MarketData("DAX\u20ac", 1, 2, 3, T0);
+
+        assertTrue(journal.append(tick));
+        journal.close();
+
+        assertEquals(List.of(tick), readAll());
+    }
+
+    @Test
+    void symbolsTooLongForARecordAreRejected() throws IOException {
+        TickJournal journal = journal(10);
+
+        assertFalse(journal.append(new MarketData("X".repeat(TickJournal.MAX_SYMBOL_LENGTH + 1), 1, 2, 3, T0)));
+        assertEquals(1, journal.getRejectedCount());
+        assertEquals(0, journal.getAppendedCount());
+    }
+}
@@ -0,0 +1,189 @@
+package com.streaming.data.app.sda;
+
+import com.streaming.data.app.sda.model.MarketData;
+import com.streaming.data.app.sda.service.TickRingBuffer;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+import reactor.test.StepVerifier;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickRingBufferTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final LongAdder dropped = new LongAdder();
+
+    private static MarketData tick(int i) {
+        return new MarketData("SYM", 100 + i, 100.5 + i, 1000 + i, T0.plusNanos(i));
+    }
+
+    private static void publishAll(TickRingBuffer ring, int from, int to) {
+        for (int i = from; i < to; i++) {
+            assertTrue(ring.publish(tick(i)));
+        }
+    }
+
+    @Test
+    void capacityShouldBeRoundedUpToAPowerOfTwo() {
+        assertEquals(1024, new TickRingBuffer(1000, TickRingBuffer.Mode.GATING, dropped).getCapacity());
+        assertEquals(8, new TickRingBuffer(8, TickRingBuffer.Mode.GATING, dropped).getCapacity());
+    }
+
+    @Test
+    void everyConsumerShouldSeeEveryTickInOrder() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.GATING, dropped);
+        List<MarketData> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(tick(i));
+        }
+
+        CompletableFuture<List<MarketData>> first = ring.asFlux().take(100).collectList().toFuture();
+        CompletableFuture<List<MarketData>> second = ring.asFlux().take(100).collectList().toFuture();
+        for (int i = 0; i < 100; i++) {
+            while (!ring.publish(tick(i))) {
+                Thread.onSpinWait();
+            }
+        }
+
+        assertEquals(expected, first.get(5, TimeUnit.SECONDS));
+        assertEquals(expected, second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, dropped.sum());
+    }
+
+    @Test
+    void concurrentProducersShouldEachHaveEveryTickDeliveredInTheirOrder() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(64, TickRingBuffer.Mode.GATING, dropped);
+        int producers = 4;
+        int perProducer = 10_000;
+        CompletableFuture<List<MarketData>> received =
+                ring.asFlux().take((long) producers * perProducer).collectList().toFuture();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String symbol = "P" + p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    MarketData tick = new MarketData(symbol, i, i + 0.5, i, T0);
+                    while (!ring.publish(tick)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        int[] next = new int[producers];
+        for (MarketData tick : received.get(10, TimeUnit.SECONDS)) {
+            int producer = tick.getSymbol().charAt(1) - '0';
+            assertEquals(next[producer]++, (int) tick.getBid(), "out of order from " + tick.getSymbol());
+        }
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, next[p]);
+        }
+        assertEquals(0, dropped.sum());
+    }
+
+    @Test
+    void completeShouldRefuseLaterTicksAndEndConsumersAfterEarlierOnes() {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.GATING, dropped);
+
+        StepVerifier.create(ring.asFlux())
+                .then(() -> publishAll(ring, 0, 3))
+                .then(ring::complete)
+                .then(() -> assertFalse(ring.publish(tick(3))))
+                .expectNext(tick(0), tick(1), tick(2))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void gatingRingShouldRefuseTicksWhileAConsumerIsARingBehind() {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.GATING, dropped);
+
+        StepVerifier.create(ring.asFlux(), 0)
+                .then(() -> publishAll(ring, 0, 8))
+                .then(() -> assertFalse(ring.publish(tick(8))))
+                .thenRequest(3)
+                .expectNext(tick(0), tick(1), tick(2))
+                .then(() -> publishAll(ring, 8, 11))
+                .then(() -> assertFalse(ring.publish(tick(11))))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void dropOldestConsumerShouldSkipToTheOldestTickStillInTheRing() {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.DROP_OLDEST, dropped);
+
+        StepVerifier.create(ring.asFlux(), 0)
+                .then(() -> publishAll(ring, 0, 20))
+                .then(() -> ring.complete())
+                .thenRequest(Long.MAX_VALUE)
+                .expectNext(tick(12), tick(13), tick(14), tick(15), tick(16), tick(17), tick(18), tick(19))
+                .expectComplete()
+                .verify(TIMEOUT);
+        assertEquals(12, dropped.sum());
+    }
+
+    @Test
+    void keepLatestConsumerShouldTakeOnlyTheNewestTick() {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.KEEP_LATEST, dropped);
+
+        StepVerifier.create(ring.asFlux(), 0)
+                .then(() -> publishAll(ring, 0, 5))
+                .thenRequest(1)
+                .expectNext(tick(4))
+                .thenCancel()
+                .verify(TIMEOUT);
+        assertEquals(4, dropped.sum());
+    }
+
+    @Test
+    void errorConsumerShouldFailWhenLapped() {
+        TickRingBuffer ring = new TickRingBuffer(8, TickRingBuffer.Mode.ERROR, dropped);
+
+        StepVerifier.create(ring.asFlux(), 0)
+                .then(() -> publishAll(ring, 0, 9))
+                .thenRequest(1)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void publishingShouldNotAllocate() {
+        TickRingBuffer ring = new TickRingBuffer(1024, TickRingBuffer.Mode.DROP_OLDEST, dropped);
+        MarketData[] ticks = new MarketData[1024];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = tick(i);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 100_000; i++) {
+            ring.publish(ticks[i & 1023]);
+        }
+
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < 100_000; i++) {
+            ring.publish(ticks[i & 1023]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        // Allow for the measurement itself
+        assertTrue(allocated < 1024, "publishing allocated " + allocated + " bytes");
+    }
+}
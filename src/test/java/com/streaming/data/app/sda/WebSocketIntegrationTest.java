@@ -3,16 +3,27 @@ package com.streaming.data.app.sda;
 import com.streaming.data.app.sda.config.StreamingConfig;
 import com.streaming.data.app.sda.model.MarketData;
 import com.streaming.data.app.sda.service.CsvExportService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,12 +39,17 @@ class CsvExportServiceTest {
         Path csvPath = tempDir.resolve("test-market-data.csv");
 
         StreamingConfig.CsvConfig csvConfig =
-                new StreamingConfig.CsvConfig(csvPath.toString(), 5000, 100);
+                TestConfigs.csv(csvPath.toString(), 5000, 100).build();
 
-        StreamingConfig config = new StreamingConfig(null, csvConfig, null, null);
+        StreamingConfig config = TestConfigs.config().csv(csvConfig).build();
         csvExportService = new CsvExportService(config);
     }
 
+    @AfterEach
+    void tearDown() {
+        csvExportService.close();
+    }
+
     @Test
     void initializeShouldCreateCsvFileWithHeaders() throws IOException {
         csvExportService.initialize();
@@ -78,4 +94,112 @@ class CsvExportServiceTest {
         assertTrue(content.contains("100.0"));
         assertTrue(content.contains("800"));
     }
+
+    @Test
+    void concurrentBatchesShouldAllBeWrittenOnce() throws Exception {
+        csvExportService.initialize();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                for (int b = 0; b < 50; b++) {
+                    List<MarketData> batch = new ArrayList<>();
+                    for (int i = 0; i < 10; i++) {
+                        batch.add(new MarketData("T" + thread, b, i, 100, LocalDateTime.now()));
+                    }
+                    csvExportService.exportBatch(batch);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<String> lines = Files.readAllLines(csvExportService.getCsvFilePath());
+        assertEquals(1 + 8 * 50 * 10, lines.size());
+    }
+
+    @Test
+    void unflushedRowsShouldBeWrittenOnClose() throws IOException {
+        Path csvPath = tempDir.resolve("buffered.csv");
+        StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(csvPath.toString(), 5000, 100)
+                .durability(StreamingConfig.CsvConfig.Durability.NONE).writeBufferSize(1 << 16).build();
+        CsvExportService buffered = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+        buffered.initialize();
+
+        buffered.exportSingle(new MarketData(99.75, 100.00, 800, LocalDateTime.now()));
+        assertEquals(1, Files.readAllLines(csvPath).size());
+
+        buffered.close();
+        assertEquals(2, Files.readAllLines(csvPath).size());
+    }
+
+    @Test
+    void directAndOpenCsvFormattersShouldWriteIdenticalFiles() throws IOException {
+        List<MarketData> batch = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 12, 0);
+        for (int i = 0; i < 500; i++) {
+            batch.add(new MarketData(i % 7 == 0 ? "A\"B" : "SYM" + i, 100 + i / 100.0, 100.01 + i / 100.0,
+                    1000 + i, start.plusNanos(i * 1_234_567L)));
+        }
+
+        List<byte[]> files = new ArrayList<>();
+        for (StreamingConfig.CsvConfig.Formatter formatter : StreamingConfig.CsvConfig.Formatter.values()) {
+            Path csvPath = tempDir.resolve(formatter + ".csv");
+            StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(csvPath.toString(), 5000, 100)
+                    .durability(StreamingConfig.CsvConfig.Durability.NONE).writeBufferSize(8192)
+                    .indexInterval(64).formatter(formatter).build();
+            CsvExportService service = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+            service.initialize();
+            service.exportBatch(batch.subList(0, 250));
+            service.exportBatch(batch.subList(250, 500));
+            service.close();
+            files.add(Files.readAllBytes(csvPath));
+        }
+
+        assertArrayEquals(files.get(0), files.get(1));
+    }
+
+    @Test
+    void reopeningShouldAppendWithoutRepeatingHeaders() throws IOException {
+        csvExportService.initialize();
+        csvExportService.exportSingle(new MarketData(99.75, 100.00, 800, LocalDateTime.now()));
+        csvExportService.close();
+
+        csvExportService.initialize();
+        csvExportService.exportSingle(new MarketData(99.80, 100.05, 900, LocalDateTime.now()));
+
+        List<String> lines = Files.readAllLines(csvExportService.getCsvFilePath());
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("Timestamp"));
+    }
+
+    @Test
+    void segmentsShouldRollBySizeAndBeCompressedAndPruned() throws IOException {
+        Path csvPath = tempDir.resolve("rolling/market-data.csv");
+        StreamingConfig.CsvConfig csvConfig = TestConfigs.csv(csvPath.toString(), 5000, 100)
+                .writeBufferSize(1 << 16).segmentSize(DataSize.ofBytes(300)).maxSegments(2).build();
+        CsvExportService rolling = new CsvExportService(TestConfigs.config().csv(csvConfig).build());
+        rolling.initialize();
+
+        for (int i = 0; i < 20; i++) {
+            rolling.exportBatch(List.of(
+                    new MarketData(100 + i, 101 + i, 1000, LocalDateTime.now()),
+                    new MarketData(100 + i, 101 + i, 1000, LocalDateTime.now())));
+        }
+        rolling.close();
+
+        List<Path> segments = rolling.getSegments();
+        assertEquals(2, segments.size());
+        for (Path segment : segments) {
+            assertTrue(segment.getFileName().toString().endsWith(".csv.gz"));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+                List<String> lines = reader.lines().collect(Collectors.toList());
+                assertTrue(lines.get(0).contains("Timestamp"));
+                assertTrue(lines.size() > 1);
+            }
+        }
+        assertTrue(Files.readAllLines(csvPath).get(0).contains("Timestamp"));
+    }
 }